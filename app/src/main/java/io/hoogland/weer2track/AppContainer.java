@@ -0,0 +1,204 @@
+package io.hoogland.weer2track;
+
+import android.content.Context;
+import android.os.Process;
+import android.util.Log;
+
+import java.io.File;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.hoogland.weer2track.db.AppDatabase;
+import io.hoogland.weer2track.model.DisplaySnapshot;
+import io.hoogland.weer2track.repository.WeatherRepository;
+import io.hoogland.weer2track.service.WeatherService;
+import io.hoogland.weer2track.util.ConnectivityMonitor;
+import io.hoogland.weer2track.util.Constants;
+import io.hoogland.weer2track.util.DisplaySnapshotStore;
+import io.hoogland.weer2track.util.NetworkUtil;
+import okhttp3.OkHttpClient;
+
+/**
+ * Container of the app wide instances. The {@link AppDatabase} is opened and the
+ * {@link OkHttpClient} is built on background threads in parallel as soon as the container is
+ * created, so the first screen doesn't pay for it on the main thread. The {@link DisplaySnapshot}
+ * is read first, so the first screen can show it while the database is still being opened. The
+ * getters only block when the instance is not ready yet, once it is they are a plain read of a
+ * completed {@link Future}.
+ *
+ * @author dan
+ */
+public class AppContainer {
+
+    private static final String TAG = "AppContainer";
+
+    private final Future<DisplaySnapshot> displaySnapshot;
+    private final Future<AppDatabase> appDatabase;
+    private final Future<OkHttpClient> httpClient;
+    private final Future<WeatherService> weatherService;
+    private final Future<ConnectivityMonitor> connectivityMonitor;
+    private final Future<WeatherRepository> weatherRepository;
+
+    /**
+     * Starts creating the instances in the background.
+     *
+     * @param context Application context
+     */
+    AppContainer(Context context) {
+        Context appContext = context.getApplicationContext();
+        ExecutorService executor = Executors.newFixedThreadPool(2, new WarmUpThreadFactory());
+
+        displaySnapshot = executor.submit(() -> DisplaySnapshotStore.read(getDisplaySnapshotFile(appContext)));
+        appDatabase = executor.submit(() -> {
+            AppDatabase database = AppDatabase.create(appContext);
+            // Opens the connection, which creates or migrates the database and seeds it.
+            database.getOpenHelper().getWritableDatabase();
+            return database;
+        });
+        httpClient = executor.submit(() -> NetworkUtil.createHttpClient(appContext));
+        weatherService = executor.submit(() -> NetworkUtil.createWeatherService(await(httpClient)));
+        connectivityMonitor = executor.submit(() -> new ConnectivityMonitor(appContext));
+        weatherRepository = executor.submit(() -> new WeatherRepository(appContext, await(appDatabase),
+                await(weatherService), await(connectivityMonitor)));
+        executor.execute(() -> NetworkUtil.warmConnectionPool(await(httpClient)));
+        // Lets the submitted tasks finish, after that the threads are stopped.
+        executor.shutdown();
+    }
+
+    /**
+     * Supplies the container of the app.
+     *
+     * @param context Any context of the app
+     * @return {@link AppContainer} of the {@link Weer2TrackApplication}
+     */
+    public static AppContainer from(Context context) {
+        return ((Weer2TrackApplication) context.getApplicationContext()).getContainer();
+    }
+
+    /**
+     * Supplies the data last shown, to show before the database is opened. It is read from a
+     * memory-mapped file and does not wait for the database.
+     *
+     * @return {@link DisplaySnapshot}, null if there is none or it is corrupt
+     */
+    public DisplaySnapshot getDisplaySnapshot() {
+        return await(displaySnapshot);
+    }
+
+    /**
+     * @return True if {@link #getDisplaySnapshot()} returns without waiting for the file to be read
+     */
+    public boolean isDisplaySnapshotReady() {
+        return displaySnapshot.isDone();
+    }
+
+    /**
+     * Supplies the file the {@link DisplaySnapshot} is kept in.
+     *
+     * @param context Any context of the app
+     * @return File inside the application files directory
+     */
+    public static File getDisplaySnapshotFile(Context context) {
+        return new File(context.getApplicationContext().getFilesDir(), Constants.DISPLAY_SNAPSHOT_FILE);
+    }
+
+    /**
+     * Supplies the opened application database.
+     *
+     * @return Singleton of {@link AppDatabase}
+     */
+    public AppDatabase getAppDatabase() {
+        return await(appDatabase);
+    }
+
+    /**
+     * Supplies the client all OpenWeatherMap calls are made with.
+     *
+     * @return Singleton of {@link OkHttpClient}
+     */
+    public OkHttpClient getHttpClient() {
+        return await(httpClient);
+    }
+
+    /**
+     * Supplies the service for the OpenWeatherMap API calls.
+     *
+     * @return Singleton of {@link WeatherService}
+     */
+    public WeatherService getWeatherService() {
+        return await(weatherService);
+    }
+
+    /**
+     * Supplies the monitor of the network state.
+     *
+     * @return Singleton of {@link ConnectivityMonitor}
+     */
+    public ConnectivityMonitor getConnectivityMonitor() {
+        return await(connectivityMonitor);
+    }
+
+    /**
+     * Supplies the repository of the weather data.
+     *
+     * @return Singleton of {@link WeatherRepository}
+     */
+    public WeatherRepository getWeatherRepository() {
+        return await(weatherRepository);
+    }
+
+    /**
+     * @return True if {@link #getWeatherRepository()} returns without waiting for the database
+     */
+    public boolean isWeatherRepositoryReady() {
+        return weatherRepository.isDone();
+    }
+
+    /**
+     * Waits until the given instance is created.
+     *
+     * @param future {@link Future} of the instance
+     * @param <T>    Type of the instance
+     * @return The created instance
+     * @throws IllegalStateException If the instance could not be created
+     */
+    private static <T> T await(Future<T> future) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    Log.e(TAG, "await: ", e.getCause());
+                    throw new IllegalStateException("Could not create instance", e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Creates the background threads the instances are created on, below the priority of the
+     * main thread.
+     */
+    private static class WarmUpThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, "warm-up-" + count.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package io.hoogland.weer2track;
+
+import android.app.Application;
+import android.os.Build;
+import android.os.Process;
+import android.os.SystemClock;
+
+import io.hoogland.weer2track.util.MetricsRegistry;
+
+/**
+ * Application class of Weer2Track, creates the {@link AppContainer} when the process starts and
+ * marks the start of the process for {@link MetricsRegistry#markFirstContent()}.
+ *
+ * @author dan
+ */
+public class Weer2TrackApplication extends Application {
+
+    private AppContainer container;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        MetricsRegistry.getInstance().markProcessStart(Build.VERSION.SDK_INT >= Build.VERSION_CODES.N
+                ? Process.getStartElapsedRealtime() : SystemClock.elapsedRealtime());
+        container = new AppContainer(this);
+    }
+
+    /**
+     * Supplies the container with the app wide instances.
+     *
+     * @return {@link AppContainer} of the app
+     */
+    public AppContainer getContainer() {
+        return container;
+    }
+}
@@ -1,31 +1,49 @@
 package io.hoogland.weer2track.db;
 
 import android.content.Context;
+import android.util.Log;
 
+import androidx.annotation.VisibleForTesting;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
+import io.hoogland.weer2track.AppContainer;
+import io.hoogland.weer2track.model.ArchiveChunk;
 import io.hoogland.weer2track.model.CurrentWeather;
 import io.hoogland.weer2track.model.DailyForecast;
+import io.hoogland.weer2track.model.DailyForecastView;
+import io.hoogland.weer2track.model.ForecastSlot;
+import io.hoogland.weer2track.model.ForecastSlotDay;
+import io.hoogland.weer2track.model.Location;
+import io.hoogland.weer2track.model.Observation;
+import io.hoogland.weer2track.model.ObservationDay;
+import io.hoogland.weer2track.model.SyncStatus;
 import io.hoogland.weer2track.model.converter.DateConverter;
+import io.hoogland.weer2track.model.dao.ArchiveDao;
 import io.hoogland.weer2track.model.dao.CurrentWeatherDao;
 import io.hoogland.weer2track.model.dao.DailyForecastDao;
+import io.hoogland.weer2track.model.dao.LocationDao;
+import io.hoogland.weer2track.model.dao.SyncStatusDao;
+import io.hoogland.weer2track.util.AppSchedulers;
+import io.hoogland.weer2track.util.Constants;
+import io.hoogland.weer2track.util.FreshnessUtil;
+import io.hoogland.weer2track.util.LocationUtil;
 
 /**
  * Class used to create, access and manage the database connection used in the app.
  *
  * @author dan
  */
-@Database(entities = {CurrentWeather.class, DailyForecast.class}, version = 2)
+@Database(entities = {Location.class, CurrentWeather.class, DailyForecast.class, SyncStatus.class, Observation.class,
+        ForecastSlot.class, ObservationDay.class, ForecastSlotDay.class, ArchiveChunk.class},
+        views = {DailyForecastView.class}, version = 10)
 @TypeConverters({DateConverter.class})
 public abstract class AppDatabase extends RoomDatabase {
 
-    /**
-     * Singleton instance of {@link AppDatabase}
-     */
-    private static AppDatabase instance;
+    private static final String TAG = "AppDatabase";
 
     /**
      * Name of the database
@@ -33,19 +51,78 @@ public abstract class AppDatabase extends RoomDatabase {
     private static final String NAME = "weer2track";
 
     /**
-     * Creates a single instance of AppDatabase for the entire app.
+     * Creates the default location every time the database is opened without any location, so
+     * there is always at least one location to show. This also covers a database that was
+     * recreated by a destructive migration, which does not call {@link Callback#onCreate}.
+     */
+    private static final Callback SEED_CALLBACK = new Callback() {
+        @Override
+        public void onOpen(SupportSQLiteDatabase db) {
+            db.execSQL("INSERT OR IGNORE INTO locations (id, name, lat, lon) SELECT ?, ?, ?, ? "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM locations)", new Object[]{
+                    Constants.DEFAULT_LOCATION_ID, Constants.DEFAULT_LOCATION_NAME,
+                    Constants.OPENWEATHER_API_LAT_VALUE, Constants.OPENWEATHER_API_LON_VALUE});
+        }
+    };
+
+    /**
+     * Forgets the state kept outside the database about its data when a destructive migration
+     * dropped all tables, so the next start fetches the data again and shows the default location.
      *
      * @param context Application context
-     * @return Singleton of AppDatabase
+     * @return Callback for {@link Callback#onDestructiveMigration}
      */
-    public static synchronized AppDatabase getInstance(Context context) {
-        if (instance == null) {
-            instance = Room.databaseBuilder(context.getApplicationContext(), AppDatabase.class, NAME)
-                    .fallbackToDestructiveMigration().build();
-        }
-        return instance;
+    private static Callback resetCallback(Context context) {
+        return new Callback() {
+            @Override
+            public void onDestructiveMigration(SupportSQLiteDatabase db) {
+                FreshnessUtil.clear(context);
+                LocationUtil.setSelectedLocationId(context, Constants.DEFAULT_LOCATION_ID);
+                if (!AppContainer.getDisplaySnapshotFile(context).delete()) {
+                    Log.d(TAG, "onDestructiveMigration: there was no display snapshot");
+                }
+            }
+        };
+    }
+
+    /**
+     * Creates the AppDatabase. The app uses the single instance of the {@link AppContainer}. Queries
+     * run on the read pool and transactions on the writer thread of {@link AppSchedulers}.
+     *
+     * @param context Application context
+     * @return AppDatabase, the connection is opened on first use
+     */
+    public static AppDatabase create(Context context) {
+        return Room.databaseBuilder(context.getApplicationContext(), AppDatabase.class, NAME)
+                .addCallback(resetCallback(context.getApplicationContext()))
+                .addCallback(SEED_CALLBACK)
+                .setQueryExecutor(AppSchedulers.getInstance().getReadExecutor())
+                .setTransactionExecutor(AppSchedulers.getInstance().getWriteExecutor())
+                .fallbackToDestructiveMigration().build();
     }
 
+    /**
+     * Creates an AppDatabase that only lives in memory, with the same default location, for tests.
+     *
+     * @param context Application context
+     * @return AppDatabase that is discarded when it is closed
+     */
+    @VisibleForTesting
+    public static AppDatabase createInMemory(Context context) {
+        return Room.inMemoryDatabaseBuilder(context.getApplicationContext(), AppDatabase.class)
+                .addCallback(SEED_CALLBACK)
+                .setQueryExecutor(AppSchedulers.getInstance().getReadExecutor())
+                .setTransactionExecutor(AppSchedulers.getInstance().getWriteExecutor())
+                .build();
+    }
+
+    /**
+     * Supplies the DAO for {@link Location} model.
+     *
+     * @return Usable {@link LocationDao} DAO
+     */
+    public abstract LocationDao locationDao();
+
     /**
      * Supplies the DAO for {@link CurrentWeather} model.
      *
@@ -59,4 +136,18 @@ public abstract class AppDatabase extends RoomDatabase {
      * @return Usable {@link DailyForecastDao} DAO
      */
     public abstract DailyForecastDao dailyForecastDao();
+
+    /**
+     * Supplies the DAO for {@link SyncStatus} model.
+     *
+     * @return Usable {@link SyncStatusDao} DAO
+     */
+    public abstract SyncStatusDao syncStatusDao();
+
+    /**
+     * Supplies the DAO for the archive of {@link Observation} and {@link ForecastSlot} models.
+     *
+     * @return Usable {@link ArchiveDao} DAO
+     */
+    public abstract ArchiveDao archiveDao();
 }
@@ -0,0 +1,142 @@
+package io.hoogland.weer2track.model;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+
+import io.hoogland.weer2track.util.ArchiveChunkDecoder;
+import io.hoogland.weer2track.util.ArchiveChunkEncoder;
+
+/**
+ * Model used to keep an archived time series of a {@link Location} in compressed blocks instead of
+ * a row per sample, see {@link ArchiveChunkEncoder}. A chunk covers a time range of a single
+ * series: a day of {@link Observation}s, or the {@link ForecastSlot}s of a forecast issued in a
+ * single {@link io.hoogland.weer2track.util.Constants#ARCHIVE_ISSUE_WINDOW_SECONDS} window.
+ *
+ * @author dan
+ */
+@Entity(tableName = "archive_chunk",
+        primaryKeys = {"location_id", "series", "start_at"},
+        foreignKeys = @ForeignKey(entity = Location.class, parentColumns = "id", childColumns = "location_id",
+                onDelete = ForeignKey.CASCADE))
+public class ArchiveChunk {
+
+    /**
+     * Series of {@link Observation}s by observation time, with the columns {@link #COLUMN_TEMP} and
+     * {@link #COLUMN_FEELS_LIKE_TEMP}. A chunk covers a day.
+     */
+    public static final int SERIES_OBSERVATION = 0;
+    public static final int COLUMN_TEMP = 0;
+    public static final int COLUMN_FEELS_LIKE_TEMP = 1;
+    public static final int OBSERVATION_COLUMNS = 2;
+
+    /**
+     * Series of {@link ForecastSlot}s by slot time, with the columns {@link #COLUMN_MIN_TEMP},
+     * {@link #COLUMN_MAX_TEMP} and {@link #COLUMN_PRECIPITATION_CHANCE}. A chunk covers the issue
+     * window of a forecast, so the range of the chunk is in issue time.
+     */
+    public static final int SERIES_FORECAST = 1;
+    public static final int COLUMN_MIN_TEMP = 0;
+    public static final int COLUMN_MAX_TEMP = 1;
+    public static final int COLUMN_PRECIPITATION_CHANCE = 2;
+    public static final int FORECAST_COLUMNS = 3;
+
+    @ColumnInfo(name = "location_id")
+    private int locationId;
+    private int series;
+    /**
+     * Start of the range the chunk covers in seconds since epoch, inclusive.
+     */
+    @ColumnInfo(name = "start_at")
+    private long startAt;
+    /**
+     * End of the range the chunk covers in seconds since epoch, exclusive.
+     */
+    @ColumnInfo(name = "end_at")
+    private long endAt;
+    private int count;
+    @NonNull
+    private byte[] data = new byte[0];
+
+    public ArchiveChunk() {
+    }
+
+    /**
+     * Constructor to create a chunk of the samples in an encoder.
+     *
+     * @param locationId ID of the {@link Location}
+     * @param series     One of the series in {@link ArchiveChunk}
+     * @param startAt    Start of the range the chunk covers in seconds since epoch, inclusive
+     * @param endAt      End of the range the chunk covers in seconds since epoch, exclusive
+     * @param encoder    {@link ArchiveChunkEncoder} with the samples of the chunk
+     */
+    @Ignore
+    public ArchiveChunk(int locationId, int series, long startAt, long endAt, ArchiveChunkEncoder encoder) {
+        this.locationId = locationId;
+        this.series = series;
+        this.startAt = startAt;
+        this.endAt = endAt;
+        this.count = encoder.getCount();
+        this.data = encoder.toByteArray();
+    }
+
+    /**
+     * Creates a decoder that iterates over the samples of the chunk.
+     *
+     * @return New {@link ArchiveChunkDecoder} positioned before the first sample
+     */
+    public ArchiveChunkDecoder decoder() {
+        return new ArchiveChunkDecoder(data);
+    }
+
+    public int getLocationId() {
+        return locationId;
+    }
+
+    public void setLocationId(int locationId) {
+        this.locationId = locationId;
+    }
+
+    public int getSeries() {
+        return series;
+    }
+
+    public void setSeries(int series) {
+        this.series = series;
+    }
+
+    public long getStartAt() {
+        return startAt;
+    }
+
+    public void setStartAt(long startAt) {
+        this.startAt = startAt;
+    }
+
+    public long getEndAt() {
+        return endAt;
+    }
+
+    public void setEndAt(long endAt) {
+        this.endAt = endAt;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    @NonNull
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(@NonNull byte[] data) {
+        this.data = data;
+    }
+}
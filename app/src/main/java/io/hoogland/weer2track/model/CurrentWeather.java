@@ -1,23 +1,26 @@
 package io.hoogland.weer2track.model;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.ForeignKey;
 import androidx.room.PrimaryKey;
 
 import java.time.LocalDateTime;
 
 import io.hoogland.weer2track.model.response.CurrentWeatherResponse;
+import io.hoogland.weer2track.model.response.OneCallCurrent;
 
 /**
- * Model used to display and save current weather data
+ * Model used to display and save current weather data, there is one row per {@link Location}.
  */
-@Entity(tableName = "current_weather")
+@Entity(tableName = "current_weather",
+        foreignKeys = @ForeignKey(entity = Location.class, parentColumns = "id", childColumns = "location_id",
+                onDelete = ForeignKey.CASCADE))
 public class CurrentWeather {
 
-    /**
-     * ID is set at 1, since there will only ever be one entry in the application database.
-     */
     @PrimaryKey
-    private int uid = 1;
+    @ColumnInfo(name = "location_id")
+    private int locationId;
 
     private LocalDateTime dateTime;
 
@@ -25,6 +28,13 @@ public class CurrentWeather {
 
     private double feelsLikeTemp;
 
+    /**
+     * ID of the weather condition, the description is shown in the language of the device through
+     * {@link io.hoogland.weer2track.util.ConditionUtil}.
+     */
+    @ColumnInfo(name = "condition_id")
+    private int conditionId;
+
     private String description;
 
     private String icon;
@@ -43,19 +53,35 @@ public class CurrentWeather {
         this.dateTime = response.getDateTime();
         this.temp = response.getMainResponse().getCurrentTemp();
         this.feelsLikeTemp = response.getMainResponse().getFeelsLikeTemp();
+        this.conditionId = response.getWeather().get(0).getId();
         this.description = response.getWeather().get(0).getDescription();
         this.icon = response.getWeather().get(0).getIcon();
     }
 
+    /**
+     * Constructor to create a model based on the current weather of a One Call API response.
+     *
+     * @param current {@link OneCallCurrent} received from an OpenWeatherMap API call
+     * @see <a href="https://openweathermap.org/api/one-call-3">OpenWeatherMap One Call API</a>
+     */
+    public CurrentWeather(OneCallCurrent current) {
+        this.dateTime = current.getDateTime();
+        this.temp = current.getTemp();
+        this.feelsLikeTemp = current.getFeelsLikeTemp();
+        this.conditionId = current.getWeather().get(0).getId();
+        this.description = current.getWeather().get(0).getDescription();
+        this.icon = current.getWeather().get(0).getIcon();
+    }
+
     public CurrentWeather() {
     }
 
-    public int getUid() {
-        return uid;
+    public int getLocationId() {
+        return locationId;
     }
 
-    public void setUid(int uid) {
-        this.uid = uid;
+    public void setLocationId(int locationId) {
+        this.locationId = locationId;
     }
 
     public LocalDateTime getDateTime() {
@@ -82,6 +108,14 @@ public class CurrentWeather {
         this.feelsLikeTemp = feelsLikeTemp;
     }
 
+    public int getConditionId() {
+        return conditionId;
+    }
+
+    public void setConditionId(int conditionId) {
+        this.conditionId = conditionId;
+    }
+
     public String getDescription() {
         return description;
     }
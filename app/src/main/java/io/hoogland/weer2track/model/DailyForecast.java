@@ -2,29 +2,39 @@ package io.hoogland.weer2track.model;
 
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 
 import io.hoogland.weer2track.model.response.Forecast;
+import io.hoogland.weer2track.model.response.OneCallDaily;
+import io.hoogland.weer2track.util.DailyForecastAccumulator;
 
 /**
- * Model used to display and save daily weather forecast data.
+ * Model used to display and save daily weather forecast data. There is at most one row per date
+ * for every {@link Location}.
  */
-@Entity(tableName = "daily_forecast")
+@Entity(tableName = "daily_forecast",
+        indices = {@Index(value = {"location_id", "date"}, unique = true)},
+        foreignKeys = @ForeignKey(entity = Location.class, parentColumns = "id", childColumns = "location_id",
+                onDelete = ForeignKey.CASCADE))
 public class DailyForecast {
 
     @PrimaryKey(autoGenerate = true)
     private int uid;
+    @ColumnInfo(name = "location_id")
+    private int locationId;
     private LocalDate date;
     private Double minTemp;
     private Double maxTemp;
     private double precipitationChance;
+    @ColumnInfo(name = "condition_id")
+    private int conditionId;
     private String description;
     private String icon;
     @ColumnInfo(name = "modified_at")
@@ -44,47 +54,66 @@ public class DailyForecast {
         this.minTemp = forecast.getMainResponse().getMinTemp();
         this.maxTemp = forecast.getMainResponse().getMaxTemp();
         this.precipitationChance = forecast.getPercentOfPrecipitation();
+        this.conditionId = forecast.getWeather().get(0).getId();
         this.description = forecast.getWeather().get(0).getDescription();
         this.icon = forecast.getWeather().get(0).getIcon();
         this.date = forecast.getDateTime();
     }
 
+    /**
+     * Constructor to create a model based on a day of a One Call API response, which is already
+     * aggregated per day by OpenWeatherMap.
+     *
+     * @param daily {@link OneCallDaily} received from an OpenWeatherMap API call
+     * @see <a href="https://openweathermap.org/api/one-call-3">OpenWeatherMap One Call API</a>
+     */
+    public DailyForecast(OneCallDaily daily) {
+        this.minTemp = daily.getTemperature().getMin();
+        this.maxTemp = daily.getTemperature().getMax();
+        this.precipitationChance = daily.getPercentOfPrecipitation();
+        this.conditionId = daily.getWeather().get(0).getId();
+        this.description = daily.getWeather().get(0).getDescription();
+        this.icon = daily.getWeather().get(0).getIcon();
+        this.date = daily.getDate();
+    }
+
     /**
      * Constructor to create a model based on a list of {@link DailyForecast}. This method returns
      * a single {@link DailyForecast} based on the averages, minimum and maximum values for
-     * temperature and chance of precipitation.
+     * temperature and chance of precipitation, see {@link DailyForecastAccumulator}.
      *
      * @param forecastList List of {@link DailyForecast} to be turned into a single forecast model
      */
     public DailyForecast(List<DailyForecast> forecastList) {
-        // Create variables to hold data from all DailyForecast's
-        Map<String, Integer> descriptionCount = new HashMap<>();
-        Map<String, Integer> iconCount = new HashMap<>();
-        double precipitationSum = 0L;
-
+        // Doesn't matter which value we're getting since they're already grouped by date.
+        DailyForecastAccumulator accumulator = DailyForecastAccumulator.forCurrentThread(
+                forecastList.get(0).getDate().toEpochDay());
         for (DailyForecast dailyForecast : forecastList) {
-            // Check if temp is lower than minTemp
-            this.minTemp = this.minTemp == null ? dailyForecast.getMinTemp() :
-                    this.minTemp.compareTo(dailyForecast.getMinTemp()) > 0 ? dailyForecast.getMinTemp() : this.minTemp;
-
-            // Check if temp is higher than maxTemp
-            this.maxTemp = this.maxTemp == null ? dailyForecast.getMaxTemp() :
-                    this.maxTemp.compareTo(dailyForecast.getMaxTemp()) < 0 ? dailyForecast.getMaxTemp() : this.maxTemp;
-
-            precipitationSum += dailyForecast.getPrecipitationChance();
-            // Count description and icon occurrences to get the one with the most occurrences.
-            descriptionCount.merge(dailyForecast.getDescription(), 1, Integer::sum);
-            iconCount.merge(dailyForecast.getIcon(), 1, Integer::sum);
+            accumulator.add(dailyForecast.getMinTemp(), dailyForecast.getMaxTemp(),
+                    dailyForecast.getPrecipitationChance(), dailyForecast.getConditionId(),
+                    dailyForecast.getDescription(), dailyForecast.getIcon());
         }
-        // Get averages/most occurring
-        this.description = Collections.max(descriptionCount.entrySet(), Map.Entry.comparingByValue()).getKey();
-        this.icon = Collections.max(iconCount.entrySet(), Map.Entry.comparingByValue()).getKey();
-        this.precipitationChance = precipitationSum / forecastList.size();
-        // Doesn't matter which value we're getting since they're already grouped by date.
-        this.date = forecastList.get(0).getDate();
+        accumulator.writeTo(this);
     }
 
 
+    /**
+     * Checks whether or not the given {@link DailyForecast} holds the same forecast as this one,
+     * ignoring the uid, location and the moment it was modified.
+     *
+     * @param other {@link DailyForecast} to compare with
+     * @return If the date and all forecast values are equal
+     */
+    public boolean hasSameValues(DailyForecast other) {
+        return Double.compare(precipitationChance, other.precipitationChance) == 0
+                && Objects.equals(date, other.date)
+                && Objects.equals(minTemp, other.minTemp)
+                && Objects.equals(maxTemp, other.maxTemp)
+                && conditionId == other.conditionId
+                && Objects.equals(description, other.description)
+                && Objects.equals(icon, other.icon);
+    }
+
     public int getUid() {
         return uid;
     }
@@ -93,6 +122,14 @@ public class DailyForecast {
         this.uid = uid;
     }
 
+    public int getLocationId() {
+        return locationId;
+    }
+
+    public void setLocationId(int locationId) {
+        this.locationId = locationId;
+    }
+
     public LocalDate getDate() {
         return date;
     }
@@ -125,6 +162,14 @@ public class DailyForecast {
         this.precipitationChance = precipitationChance;
     }
 
+    public int getConditionId() {
+        return conditionId;
+    }
+
+    public void setConditionId(int conditionId) {
+        this.conditionId = conditionId;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -0,0 +1,143 @@
+package io.hoogland.weer2track.model;
+
+import androidx.room.ColumnInfo;
+import androidx.room.DatabaseView;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Daily forecast derived from the {@link ForecastSlot}s of the latest forecast of every
+ * {@link Location}, grouped by {@link ForecastSlot#getSlotDate()}, the day in the
+ * {@link io.hoogland.weer2track.model.converter.DateConverter#ZONE}. It follows the same rules as
+ * {@link io.hoogland.weer2track.util.ForecastUtil#forecastResponseToDaily}: weekend days are left
+ * out, the temperatures are the minimum and maximum of the slots, the chance of precipitation is
+ * the average and the description is the most occurring one, on a tie the one that got there first.
+ * The condition and icon are taken from the first slot with that description, so they always belong
+ * to the description. The rules can be changed here without fetching the forecast again.
+ *
+ * @author dan
+ */
+@DatabaseView(viewName = "daily_forecast_view", value = "SELECT s.location_id AS location_id, s.slot_date AS date, "
+        + "MIN(s.min_temp) AS minTemp, MAX(s.max_temp) AS maxTemp, AVG(s.precipitation_chance) AS precipitationChance, "
+        + "w.condition_id AS condition_id, w.description AS description, w.icon AS icon, "
+        + "s.issued_at AS modified_at "
+        + "FROM forecast_slot s "
+        + "JOIN forecast_slot w ON w.location_id = s.location_id AND w.issued_at = s.issued_at AND w.slot_at = ("
+        + "SELECT MIN(f.slot_at) FROM forecast_slot f WHERE f.location_id = s.location_id AND f.issued_at = s.issued_at "
+        + "AND f.slot_date = s.slot_date AND f.description IS ("
+        + "SELECT d.description FROM forecast_slot d WHERE d.location_id = s.location_id AND d.issued_at = s.issued_at "
+        + "AND d.slot_date = s.slot_date GROUP BY d.description ORDER BY COUNT(*) DESC, MAX(d.slot_at) LIMIT 1)) "
+        + "WHERE s.issued_at = (SELECT MAX(l.issued_at) FROM forecast_slot l WHERE l.location_id = s.location_id) "
+        + "AND strftime('%w', s.slot_date * 86400, 'unixepoch') NOT IN ('0', '6') "
+        + "GROUP BY s.location_id, s.slot_date")
+public class DailyForecastView {
+
+    @ColumnInfo(name = "location_id")
+    private int locationId;
+    private LocalDate date;
+    private double minTemp;
+    private double maxTemp;
+    private double precipitationChance;
+    @ColumnInfo(name = "condition_id")
+    private int conditionId;
+    private String description;
+    private String icon;
+    /**
+     * Start of the window the forecast was issued in.
+     */
+    @ColumnInfo(name = "modified_at")
+    private LocalDateTime modifiedAt;
+
+    /**
+     * Creates a {@link DailyForecast} with the values of this day, for the screens that show a
+     * {@link DailyForecast}.
+     *
+     * @return New {@link DailyForecast}
+     */
+    public DailyForecast toDailyForecast() {
+        DailyForecast dailyForecast = new DailyForecast();
+        dailyForecast.setLocationId(locationId);
+        dailyForecast.setDate(date);
+        dailyForecast.setMinTemp(minTemp);
+        dailyForecast.setMaxTemp(maxTemp);
+        dailyForecast.setPrecipitationChance(precipitationChance);
+        dailyForecast.setConditionId(conditionId);
+        dailyForecast.setDescription(description);
+        dailyForecast.setIcon(icon);
+        dailyForecast.setModifiedAt(modifiedAt);
+        return dailyForecast;
+    }
+
+    public int getLocationId() {
+        return locationId;
+    }
+
+    public void setLocationId(int locationId) {
+        this.locationId = locationId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public double getMinTemp() {
+        return minTemp;
+    }
+
+    public void setMinTemp(double minTemp) {
+        this.minTemp = minTemp;
+    }
+
+    public double getMaxTemp() {
+        return maxTemp;
+    }
+
+    public void setMaxTemp(double maxTemp) {
+        this.maxTemp = maxTemp;
+    }
+
+    public double getPrecipitationChance() {
+        return precipitationChance;
+    }
+
+    public void setPrecipitationChance(double precipitationChance) {
+        this.precipitationChance = precipitationChance;
+    }
+
+    public int getConditionId() {
+        return conditionId;
+    }
+
+    public void setConditionId(int conditionId) {
+        this.conditionId = conditionId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getIcon() {
+        return icon;
+    }
+
+    public void setIcon(String icon) {
+        this.icon = icon;
+    }
+
+    public LocalDateTime getModifiedAt() {
+        return modifiedAt;
+    }
+
+    public void setModifiedAt(LocalDateTime modifiedAt) {
+        this.modifiedAt = modifiedAt;
+    }
+}
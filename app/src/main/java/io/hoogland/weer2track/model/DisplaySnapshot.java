@@ -0,0 +1,40 @@
+package io.hoogland.weer2track.model;
+
+import java.util.List;
+
+/**
+ * The data last shown for a {@link Location}: its {@link CurrentWeather} and {@link DailyForecast}s.
+ * Saved outside the database after every sync, so it can be shown on a cold start before the
+ * database is opened, see {@link io.hoogland.weer2track.util.DisplaySnapshotStore}.
+ *
+ * @author dan
+ */
+public class DisplaySnapshot {
+
+    private final int locationId;
+    private final CurrentWeather currentWeather;
+    private final List<DailyForecast> dailyForecasts;
+
+    /**
+     * @param locationId     ID of the {@link Location} the data is of
+     * @param currentWeather {@link CurrentWeather} of the location, null if there is none
+     * @param dailyForecasts {@link DailyForecast}s of the location sorted by date
+     */
+    public DisplaySnapshot(int locationId, CurrentWeather currentWeather, List<DailyForecast> dailyForecasts) {
+        this.locationId = locationId;
+        this.currentWeather = currentWeather;
+        this.dailyForecasts = dailyForecasts;
+    }
+
+    public int getLocationId() {
+        return locationId;
+    }
+
+    public CurrentWeather getCurrentWeather() {
+        return currentWeather;
+    }
+
+    public List<DailyForecast> getDailyForecasts() {
+        return dailyForecasts;
+    }
+}
@@ -0,0 +1,167 @@
+package io.hoogland.weer2track.model;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
+
+import java.time.LocalDate;
+
+import io.hoogland.weer2track.model.converter.DateConverter;
+
+/**
+ * Model used to keep the 3-hour slots of every fetched forecast of a {@link Location}. Keyed by
+ * location, the window the forecast was issued in and the time of the slot, so a forecast fetched
+ * again within the same {@link io.hoogland.weer2track.util.Constants#ARCHIVE_ISSUE_WINDOW_SECONDS}
+ * replaces the rows of that window. The slots of the latest window are grouped by day by
+ * {@link DailyForecastView}, the primary key covers its lookup of the latest window of a location.
+ * Older rows than {@link io.hoogland.weer2track.util.Constants#ARCHIVE_RAW_RETENTION_DAYS} are
+ * compacted to {@link ForecastSlotDay}, except for the latest window.
+ *
+ * @author dan
+ */
+@Entity(tableName = "forecast_slot",
+        primaryKeys = {"location_id", "issued_at", "slot_at"},
+        indices = {@Index("issued_at")},
+        foreignKeys = @ForeignKey(entity = Location.class, parentColumns = "id", childColumns = "location_id",
+                onDelete = ForeignKey.CASCADE))
+public class ForecastSlot {
+
+    @ColumnInfo(name = "location_id")
+    private int locationId;
+    /**
+     * Start of the window the forecast was issued in, in seconds since epoch.
+     */
+    @ColumnInfo(name = "issued_at")
+    private long issuedAt;
+    /**
+     * Time the slot forecasts, in seconds since epoch.
+     */
+    @ColumnInfo(name = "slot_at")
+    private long slotAt;
+    /**
+     * Day of {@link #slotAt} in the {@link DateConverter#ZONE}, the day the slot is grouped by.
+     */
+    @ColumnInfo(name = "slot_date")
+    private LocalDate slotDate;
+    @ColumnInfo(name = "min_temp")
+    private double minTemp;
+    @ColumnInfo(name = "max_temp")
+    private double maxTemp;
+    @ColumnInfo(name = "precipitation_chance")
+    private double precipitationChance;
+    @ColumnInfo(name = "condition_id")
+    private int conditionId;
+    private String description;
+    private String icon;
+
+    public ForecastSlot() {
+    }
+
+    /**
+     * Constructor used while parsing a forecast response, the location and issue time are set when
+     * the slot is archived.
+     *
+     * @param slotAt              Time the slot forecasts, in seconds since epoch
+     * @param slotDate            Day of the slot in the {@link DateConverter#ZONE}
+     * @param minTemp             Minimum temperature of the slot
+     * @param maxTemp             Maximum temperature of the slot
+     * @param precipitationChance Chance of precipitation of the slot
+     * @param conditionId         ID of the primary weather condition of the slot
+     * @param description         Description of the primary weather condition of the slot
+     * @param icon                Icon of the primary weather condition of the slot
+     */
+    @Ignore
+    public ForecastSlot(long slotAt, LocalDate slotDate, double minTemp, double maxTemp, double precipitationChance,
+                        int conditionId, String description, String icon) {
+        this.slotAt = slotAt;
+        this.slotDate = slotDate;
+        this.minTemp = minTemp;
+        this.maxTemp = maxTemp;
+        this.precipitationChance = precipitationChance;
+        this.conditionId = conditionId;
+        this.description = description;
+        this.icon = icon;
+    }
+
+    public int getLocationId() {
+        return locationId;
+    }
+
+    public void setLocationId(int locationId) {
+        this.locationId = locationId;
+    }
+
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    public void setIssuedAt(long issuedAt) {
+        this.issuedAt = issuedAt;
+    }
+
+    public long getSlotAt() {
+        return slotAt;
+    }
+
+    public void setSlotAt(long slotAt) {
+        this.slotAt = slotAt;
+    }
+
+    public LocalDate getSlotDate() {
+        return slotDate;
+    }
+
+    public void setSlotDate(LocalDate slotDate) {
+        this.slotDate = slotDate;
+    }
+
+    public double getMinTemp() {
+        return minTemp;
+    }
+
+    public void setMinTemp(double minTemp) {
+        this.minTemp = minTemp;
+    }
+
+    public double getMaxTemp() {
+        return maxTemp;
+    }
+
+    public void setMaxTemp(double maxTemp) {
+        this.maxTemp = maxTemp;
+    }
+
+    public double getPrecipitationChance() {
+        return precipitationChance;
+    }
+
+    public void setPrecipitationChance(double precipitationChance) {
+        this.precipitationChance = precipitationChance;
+    }
+
+    public int getConditionId() {
+        return conditionId;
+    }
+
+    public void setConditionId(int conditionId) {
+        this.conditionId = conditionId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getIcon() {
+        return icon;
+    }
+
+    public void setIcon(String icon) {
+        this.icon = icon;
+    }
+}
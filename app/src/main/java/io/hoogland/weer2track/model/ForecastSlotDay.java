@@ -0,0 +1,103 @@
+package io.hoogland.weer2track.model;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+
+import java.time.LocalDate;
+
+/**
+ * Model used to keep the archived {@link ForecastSlot}s of a {@link Location} compacted to a single
+ * row per day the forecasts were issued on and day they forecast, so it is still known how the
+ * forecast for a day changed in the days before it. The sum and count are kept instead of the
+ * average, so a day can be compacted in more than one run.
+ *
+ * @author dan
+ */
+@Entity(tableName = "forecast_slot_day",
+        primaryKeys = {"location_id", "issue_date", "date"},
+        foreignKeys = @ForeignKey(entity = Location.class, parentColumns = "id", childColumns = "location_id",
+                onDelete = ForeignKey.CASCADE))
+public class ForecastSlotDay {
+
+    @ColumnInfo(name = "location_id")
+    private int locationId;
+    @ColumnInfo(name = "issue_date")
+    @NonNull
+    private LocalDate issueDate;
+    @NonNull
+    private LocalDate date;
+    @ColumnInfo(name = "min_temp")
+    private double minTemp;
+    @ColumnInfo(name = "max_temp")
+    private double maxTemp;
+    @ColumnInfo(name = "precipitation_chance_sum")
+    private double precipitationChanceSum;
+    private int count;
+
+    public int getLocationId() {
+        return locationId;
+    }
+
+    public void setLocationId(int locationId) {
+        this.locationId = locationId;
+    }
+
+    @NonNull
+    public LocalDate getIssueDate() {
+        return issueDate;
+    }
+
+    public void setIssueDate(@NonNull LocalDate issueDate) {
+        this.issueDate = issueDate;
+    }
+
+    @NonNull
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(@NonNull LocalDate date) {
+        this.date = date;
+    }
+
+    public double getMinTemp() {
+        return minTemp;
+    }
+
+    public void setMinTemp(double minTemp) {
+        this.minTemp = minTemp;
+    }
+
+    public double getMaxTemp() {
+        return maxTemp;
+    }
+
+    public void setMaxTemp(double maxTemp) {
+        this.maxTemp = maxTemp;
+    }
+
+    public double getPrecipitationChanceSum() {
+        return precipitationChanceSum;
+    }
+
+    public void setPrecipitationChanceSum(double precipitationChanceSum) {
+        this.precipitationChanceSum = precipitationChanceSum;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    /**
+     * @return Average chance of precipitation of the slots of the day
+     */
+    public double getAveragePrecipitationChance() {
+        return precipitationChanceSum / count;
+    }
+}
@@ -0,0 +1,75 @@
+package io.hoogland.weer2track.model;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+
+/**
+ * Model used to save a location the weather is tracked for. The OpenWeatherMap city ID is only
+ * known after the first current weather response, locations with a city ID can be refreshed
+ * together through the group API.
+ *
+ * @author dan
+ */
+@Entity(tableName = "locations")
+public class Location {
+
+    @PrimaryKey(autoGenerate = true)
+    private int id;
+    private String name;
+    private double lat;
+    private double lon;
+    @ColumnInfo(name = "city_id")
+    private Long cityId;
+
+    public Location() {
+    }
+
+    @Ignore
+    public Location(String name, double lat, double lon) {
+        this.name = name;
+        this.lat = lat;
+        this.lon = lon;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public double getLat() {
+        return lat;
+    }
+
+    public void setLat(double lat) {
+        this.lat = lat;
+    }
+
+    public double getLon() {
+        return lon;
+    }
+
+    public void setLon(double lon) {
+        this.lon = lon;
+    }
+
+    public Long getCityId() {
+        return cityId;
+    }
+
+    public void setCityId(Long cityId) {
+        this.cityId = cityId;
+    }
+}
@@ -0,0 +1,104 @@
+package io.hoogland.weer2track.model;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
+
+import io.hoogland.weer2track.model.converter.DateConverter;
+
+/**
+ * Model used to archive every fetched current weather observation of a {@link Location}. Keyed by
+ * location and observation time, so fetching the same observation again does not add a row. Rows
+ * older than {@link io.hoogland.weer2track.util.Constants#ARCHIVE_RAW_RETENTION_DAYS} are compacted
+ * to {@link ObservationDay}.
+ *
+ * @author dan
+ */
+@Entity(tableName = "observation",
+        primaryKeys = {"location_id", "observed_at"},
+        indices = {@Index("observed_at")},
+        foreignKeys = @ForeignKey(entity = Location.class, parentColumns = "id", childColumns = "location_id",
+                onDelete = ForeignKey.CASCADE))
+public class Observation {
+
+    @ColumnInfo(name = "location_id")
+    private int locationId;
+    /**
+     * Time of the observation in seconds since epoch.
+     */
+    @ColumnInfo(name = "observed_at")
+    private long observedAt;
+    private double temp;
+    @ColumnInfo(name = "feels_like_temp")
+    private double feelsLikeTemp;
+    private String description;
+    private String icon;
+
+    public Observation() {
+    }
+
+    /**
+     * Constructor to create an archived observation of a {@link CurrentWeather}.
+     *
+     * @param weather {@link CurrentWeather} to archive
+     */
+    @Ignore
+    public Observation(CurrentWeather weather) {
+        this.locationId = weather.getLocationId();
+        this.observedAt = weather.getDateTime().atZone(DateConverter.ZONE).toEpochSecond();
+        this.temp = weather.getTemp();
+        this.feelsLikeTemp = weather.getFeelsLikeTemp();
+        this.description = weather.getDescription();
+        this.icon = weather.getIcon();
+    }
+
+    public int getLocationId() {
+        return locationId;
+    }
+
+    public void setLocationId(int locationId) {
+        this.locationId = locationId;
+    }
+
+    public long getObservedAt() {
+        return observedAt;
+    }
+
+    public void setObservedAt(long observedAt) {
+        this.observedAt = observedAt;
+    }
+
+    public double getTemp() {
+        return temp;
+    }
+
+    public void setTemp(double temp) {
+        this.temp = temp;
+    }
+
+    public double getFeelsLikeTemp() {
+        return feelsLikeTemp;
+    }
+
+    public void setFeelsLikeTemp(double feelsLikeTemp) {
+        this.feelsLikeTemp = feelsLikeTemp;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getIcon() {
+        return icon;
+    }
+
+    public void setIcon(String icon) {
+        this.icon = icon;
+    }
+}
@@ -0,0 +1,90 @@
+package io.hoogland.weer2track.model;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+
+import java.time.LocalDate;
+
+/**
+ * Model used to keep the archived {@link Observation}s of a {@link Location} compacted to a single
+ * row per day. The sum and count are kept instead of the average, so a day can be compacted in
+ * more than one run.
+ *
+ * @author dan
+ */
+@Entity(tableName = "observation_day",
+        primaryKeys = {"location_id", "date"},
+        foreignKeys = @ForeignKey(entity = Location.class, parentColumns = "id", childColumns = "location_id",
+                onDelete = ForeignKey.CASCADE))
+public class ObservationDay {
+
+    @ColumnInfo(name = "location_id")
+    private int locationId;
+    @NonNull
+    private LocalDate date;
+    @ColumnInfo(name = "min_temp")
+    private double minTemp;
+    @ColumnInfo(name = "max_temp")
+    private double maxTemp;
+    @ColumnInfo(name = "temp_sum")
+    private double tempSum;
+    private int count;
+
+    public int getLocationId() {
+        return locationId;
+    }
+
+    public void setLocationId(int locationId) {
+        this.locationId = locationId;
+    }
+
+    @NonNull
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(@NonNull LocalDate date) {
+        this.date = date;
+    }
+
+    public double getMinTemp() {
+        return minTemp;
+    }
+
+    public void setMinTemp(double minTemp) {
+        this.minTemp = minTemp;
+    }
+
+    public double getMaxTemp() {
+        return maxTemp;
+    }
+
+    public void setMaxTemp(double maxTemp) {
+        this.maxTemp = maxTemp;
+    }
+
+    public double getTempSum() {
+        return tempSum;
+    }
+
+    public void setTempSum(double tempSum) {
+        this.tempSum = tempSum;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    /**
+     * @return Average temperature of the observations of the day
+     */
+    public double getAverageTemp() {
+        return tempSum / count;
+    }
+}
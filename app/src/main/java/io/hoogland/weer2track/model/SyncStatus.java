@@ -0,0 +1,94 @@
+package io.hoogland.weer2track.model;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+import java.time.LocalDateTime;
+
+/**
+ * Model used to save the outcome of the latest background sync, so the UI can show how old the
+ * data is without waiting for the network.
+ *
+ * @author dan
+ */
+@Entity(tableName = "sync_status")
+public class SyncStatus {
+
+    /**
+     * Name of the sync that refreshes the weather data of all locations.
+     */
+    public static final String WEATHER = "weather";
+
+    public static final String STATE_RUNNING = "running";
+    public static final String STATE_SUCCEEDED = "succeeded";
+    public static final String STATE_FAILED = "failed";
+
+    @PrimaryKey
+    @NonNull
+    private String name = WEATHER;
+    private String state;
+    private int attempt;
+    @ColumnInfo(name = "last_attempt_at")
+    private LocalDateTime lastAttemptAt;
+    @ColumnInfo(name = "last_success_at")
+    private LocalDateTime lastSuccessAt;
+    private String error;
+
+    /**
+     * @return If the latest attempt failed
+     */
+    public boolean isFailed() {
+        return STATE_FAILED.equals(state);
+    }
+
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    public void setName(@NonNull String name) {
+        this.name = name;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public int getAttempt() {
+        return attempt;
+    }
+
+    public void setAttempt(int attempt) {
+        this.attempt = attempt;
+    }
+
+    public LocalDateTime getLastAttemptAt() {
+        return lastAttemptAt;
+    }
+
+    public void setLastAttemptAt(LocalDateTime lastAttemptAt) {
+        this.lastAttemptAt = lastAttemptAt;
+    }
+
+    public LocalDateTime getLastSuccessAt() {
+        return lastSuccessAt;
+    }
+
+    public void setLastSuccessAt(LocalDateTime lastSuccessAt) {
+        this.lastSuccessAt = lastSuccessAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
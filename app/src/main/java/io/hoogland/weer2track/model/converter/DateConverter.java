@@ -15,6 +15,11 @@ import java.time.ZoneId;
  */
 public class DateConverter {
 
+    /**
+     * Time zone the stored dates and times are in, and the days of the archive are taken in.
+     */
+    public static final ZoneId ZONE = ZoneId.of("Europe/Amsterdam");
+
     /**
      * Convert epoch ({@link Long}) to {@link LocalDateTime}.
      *
@@ -23,7 +28,7 @@ public class DateConverter {
      */
     @TypeConverter
     public static LocalDateTime epochToLocalDateTime(Long epoch) {
-        return epoch == null ? null : LocalDateTime.ofInstant(Instant.ofEpochSecond(epoch), ZoneId.of("Europe/Amsterdam"));
+        return epoch == null ? null : LocalDateTime.ofInstant(Instant.ofEpochSecond(epoch), ZONE);
     }
 
     /**
@@ -34,8 +39,7 @@ public class DateConverter {
      */
     @TypeConverter
     public static Long localDateTimeToEpoch(LocalDateTime dateTime) {
-        return dateTime == null ? null : dateTime.toEpochSecond(ZoneId.of("Europe/Amsterdam")
-                .getRules().getOffset(dateTime));
+        return dateTime == null ? null : dateTime.toEpochSecond(ZONE.getRules().getOffset(dateTime));
     }
 
     /**
@@ -0,0 +1,28 @@
+package io.hoogland.weer2track.model.converter;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Streaming Gson adapter that converts seconds since epoch, as sent by OpenWeatherMap, to the
+ * {@link LocalDate} in the {@link DateConverter#ZONE} and the other way around.
+ *
+ * @author dan
+ */
+public class EpochLocalDateAdapter extends TypeAdapter<LocalDate> {
+
+    @Override
+    public void write(JsonWriter out, LocalDate value) throws IOException {
+        out.value(value.atStartOfDay(DateConverter.ZONE).toEpochSecond());
+    }
+
+    @Override
+    public LocalDate read(JsonReader in) throws IOException {
+        return Instant.ofEpochSecond(in.nextLong()).atZone(DateConverter.ZONE).toLocalDate();
+    }
+}
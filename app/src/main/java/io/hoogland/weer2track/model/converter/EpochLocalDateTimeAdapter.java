@@ -0,0 +1,28 @@
+package io.hoogland.weer2track.model.converter;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Streaming Gson adapter that converts seconds since epoch, as sent by OpenWeatherMap, to a
+ * {@link LocalDateTime} in the {@link DateConverter#ZONE} and the other way around.
+ *
+ * @author dan
+ */
+public class EpochLocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
+
+    @Override
+    public void write(JsonWriter out, LocalDateTime value) throws IOException {
+        out.value(value.atZone(DateConverter.ZONE).toEpochSecond());
+    }
+
+    @Override
+    public LocalDateTime read(JsonReader in) throws IOException {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(in.nextLong()), DateConverter.ZONE);
+    }
+}
@@ -0,0 +1,443 @@
+package io.hoogland.weer2track.model.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import io.hoogland.weer2track.model.ArchiveChunk;
+import io.hoogland.weer2track.model.ForecastSlot;
+import io.hoogland.weer2track.model.ForecastSlotDay;
+import io.hoogland.weer2track.model.Observation;
+import io.hoogland.weer2track.model.ObservationDay;
+import io.hoogland.weer2track.util.ArchiveChunkDecoder;
+import io.hoogland.weer2track.util.ArchiveChunkEncoder;
+import io.hoogland.weer2track.util.Constants;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * DAO to access the archive tables: {@link Observation} and {@link ForecastSlot} with the recent raw
+ * data, {@link ArchiveChunk} with the older raw data in compressed blocks, and {@link ObservationDay}
+ * and {@link ForecastSlotDay} with the data compacted per day. Times are in seconds since epoch,
+ * ranges include the start and exclude the end.
+ *
+ * @author dan
+ */
+@Dao
+public abstract class ArchiveDao {
+
+    /**
+     * Archives the given {@link Observation}s, observations that are already archived are ignored.
+     *
+     * @param observations {@link List} of {@link Observation} to archive
+     * @return {@link Completable} to be run off main thread using RxAndroid and execute different
+     * code based on error/success
+     * @see <a href="https://github.com/ReactiveX/RxAndroid">RxAndroid</a>
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    public abstract Completable insertObservations(List<Observation> observations);
+
+    /**
+     * Saves the slots of a forecast. The slots of a forecast fetched earlier in the same issue
+     * window are replaced, so {@link io.hoogland.weer2track.model.DailyForecastView} always reflects
+     * the latest response.
+     *
+     * @param locationId ID of the {@link io.hoogland.weer2track.model.Location} the forecast is for
+     * @param issuedAt   Start of the window the forecast was issued in, in seconds since epoch
+     * @param slots      {@link List} of {@link ForecastSlot} of the forecast
+     * @return {@link Completable} to be run off main thread using RxAndroid and execute different
+     * code based on error/success
+     * @see <a href="https://github.com/ReactiveX/RxAndroid">RxAndroid</a>
+     */
+    public Completable insertSlots(int locationId, long issuedAt, List<ForecastSlot> slots) {
+        return Completable.fromAction(() -> insertSlotsNow(locationId, issuedAt, slots));
+    }
+
+    /**
+     * Blocking implementation of {@link #insertSlots(int, long, List)}, must be called off the main
+     * thread.
+     */
+    @Transaction
+    public void insertSlotsNow(int locationId, long issuedAt, List<ForecastSlot> slots) {
+        for (ForecastSlot slot : slots) {
+            slot.setLocationId(locationId);
+            slot.setIssuedAt(issuedAt);
+        }
+        deleteIssueNow(locationId, issuedAt);
+        insertSlotRowsNow(slots);
+    }
+
+    /**
+     * Retrieve the archived {@link Observation}s of a location within a time range, sorted by time.
+     *
+     * @param locationId ID of the {@link io.hoogland.weer2track.model.Location}
+     * @param from       Start of the range in seconds since epoch
+     * @param to         End of the range in seconds since epoch
+     * @return {@link List} of {@link Observation} in the range
+     */
+    @Query("SELECT * FROM observation WHERE location_id = :locationId AND observed_at >= :from AND observed_at < :to "
+            + "ORDER BY observed_at")
+    public abstract Single<List<Observation>> getObservations(int locationId, long from, long to);
+
+    /**
+     * Retrieve the archived {@link ForecastSlot}s of a location that were issued within a time range,
+     * sorted by issue time and slot time.
+     *
+     * @param locationId ID of the {@link io.hoogland.weer2track.model.Location}
+     * @param from       Start of the range in seconds since epoch
+     * @param to         End of the range in seconds since epoch
+     * @return {@link List} of {@link ForecastSlot} issued in the range
+     */
+    @Query("SELECT * FROM forecast_slot WHERE location_id = :locationId AND issued_at >= :from AND issued_at < :to "
+            + "ORDER BY issued_at, slot_at")
+    public abstract Single<List<ForecastSlot>> getSlots(int locationId, long from, long to);
+
+    /**
+     * Retrieve the {@link ArchiveChunk}s of a series of a location whose range overlaps the given
+     * range, sorted by time. Iterate the samples with {@link ArchiveChunk#decoder()}.
+     *
+     * @param locationId ID of the {@link io.hoogland.weer2track.model.Location}
+     * @param series     One of the series in {@link ArchiveChunk}
+     * @param from       Start of the range in seconds since epoch
+     * @param to         End of the range in seconds since epoch
+     * @return {@link List} of {@link ArchiveChunk} overlapping the range
+     */
+    @Query("SELECT * FROM archive_chunk WHERE location_id = :locationId AND series = :series AND start_at < :to "
+            + "AND end_at > :from ORDER BY start_at")
+    public abstract Single<List<ArchiveChunk>> getChunks(int locationId, int series, long from, long to);
+
+    /**
+     * Retrieve the archived {@link Observation}s of a location within a time range, from both the
+     * {@link ArchiveChunk}s and the rows that are not sealed yet, sorted by time. The chunks are
+     * decoded while iterating, samples after the range are not decoded. Observations from chunks
+     * only have their time and temperatures.
+     *
+     * @param locationId ID of the {@link io.hoogland.weer2track.model.Location}
+     * @param from       Start of the range in seconds since epoch
+     * @param to         End of the range in seconds since epoch
+     * @return {@link List} of {@link Observation} in the range
+     */
+    public Single<List<Observation>> getObservationHistory(int locationId, long from, long to) {
+        return Single.fromCallable(() -> getObservationHistoryNow(locationId, from, to));
+    }
+
+    /**
+     * Blocking implementation of {@link #getObservationHistory(int, long, long)}, must be called
+     * off the main thread. Runs in a transaction, so a compaction can't move rows into a chunk in
+     * between reading the chunks and the rows.
+     */
+    @Transaction
+    public List<Observation> getObservationHistoryNow(int locationId, long from, long to) {
+        List<Observation> observations = new ArrayList<>();
+        for (ArchiveChunk chunk : getChunksNow(locationId, ArchiveChunk.SERIES_OBSERVATION, from, to)) {
+            ArchiveChunkDecoder decoder = chunk.decoder();
+            if (!decoder.seek(from)) {
+                continue;
+            }
+            // The first sample after the seek can already be past the end of a short range.
+            while (decoder.getTimestamp() < to) {
+                Observation observation = new Observation();
+                observation.setLocationId(locationId);
+                observation.setObservedAt(decoder.getTimestamp());
+                observation.setTemp(decoder.getValue(ArchiveChunk.COLUMN_TEMP));
+                observation.setFeelsLikeTemp(decoder.getValue(ArchiveChunk.COLUMN_FEELS_LIKE_TEMP));
+                observations.add(observation);
+                if (!decoder.next()) {
+                    break;
+                }
+            }
+        }
+        observations.addAll(getObservationsNow(locationId, from, to));
+        return observations;
+    }
+
+    /**
+     * Retrieve the compacted {@link ObservationDay}s of a location within a range of dates.
+     *
+     * @param locationId ID of the {@link io.hoogland.weer2track.model.Location}
+     * @param from       First date of the range
+     * @param to         Date after the range
+     * @return {@link List} of {@link ObservationDay} in the range, sorted by date
+     */
+    @Query("SELECT * FROM observation_day WHERE location_id = :locationId AND date >= :from AND date < :to ORDER BY date")
+    public abstract Single<List<ObservationDay>> getObservationDays(int locationId, LocalDate from, LocalDate to);
+
+    /**
+     * Retrieve the compacted {@link ForecastSlotDay}s of a location that forecast a range of dates.
+     *
+     * @param locationId ID of the {@link io.hoogland.weer2track.model.Location}
+     * @param from       First forecast date of the range
+     * @param to         Forecast date after the range
+     * @return {@link List} of {@link ForecastSlotDay} in the range, sorted by date and issue date
+     */
+    @Query("SELECT * FROM forecast_slot_day WHERE location_id = :locationId AND date >= :from AND date < :to "
+            + "ORDER BY date, issue_date")
+    public abstract Single<List<ForecastSlotDay>> getForecastSlotDays(int locationId, LocalDate from, LocalDate to);
+
+    /**
+     * Compacts the archive: raw rows from before the given time are merged into the daily
+     * aggregates, sealed into {@link ArchiveChunk}s and deleted. Chunks that ended before the given
+     * time and aggregates from before the given date are deleted.
+     *
+     * @param rawBefore       Raw rows before this time are compacted, in seconds since epoch
+     * @param chunkBefore     Chunks that ended at or before this time are deleted, in seconds since epoch
+     * @param aggregateBefore Aggregates of dates before this date are deleted
+     * @param zone            Time zone the days are in
+     * @return {@link Completable} to be run off main thread using RxAndroid and execute different
+     * code based on error/success
+     * @see <a href="https://github.com/ReactiveX/RxAndroid">RxAndroid</a>
+     */
+    public Completable compact(long rawBefore, long chunkBefore, LocalDate aggregateBefore, ZoneId zone) {
+        return Completable.fromAction(() -> compactNow(rawBefore, chunkBefore, aggregateBefore, zone));
+    }
+
+    /**
+     * Blocking implementation of {@link #compact(long, long, LocalDate, ZoneId)}, must be called
+     * off the main thread.
+     */
+    @Transaction
+    public void compactNow(long rawBefore, long chunkBefore, LocalDate aggregateBefore, ZoneId zone) {
+        sealObservationsNow(getObservationsBeforeNow(rawBefore), zone);
+        deleteObservationsNow(rawBefore);
+        List<ForecastSlot> slots = getSlotsBeforeNow(rawBefore);
+        sealSlotsNow(slots);
+        mergeForecastSlotDaysNow(slots, zone);
+        deleteSlotsNow(rawBefore);
+        deleteChunksNow(chunkBefore);
+        deleteObservationDaysNow(aggregateBefore);
+        deleteForecastSlotDaysNow(aggregateBefore);
+    }
+
+    /**
+     * Writes the {@link ObservationDay} of a sealed observation chunk, which holds a single location
+     * and day. It is computed from the samples of the merged chunk, so a sample that replaced a
+     * sealed one is only counted once. When there was no chunk to merge with, for example because
+     * it was already deleted, the samples are merged into the existing aggregate instead.
+     */
+    private void writeObservationDayNow(ChunkBuilder builder, LocalDate date) {
+        ObservationDay day = builder.merged ? null : getObservationDayNow(builder.locationId, date);
+        if (day == null) {
+            day = new ObservationDay();
+            day.setLocationId(builder.locationId);
+            day.setDate(date);
+            day.setMinTemp(Double.POSITIVE_INFINITY);
+            day.setMaxTemp(Double.NEGATIVE_INFINITY);
+        }
+        for (double[] values : builder.samples.values()) {
+            double temp = values[ArchiveChunk.COLUMN_TEMP];
+            day.setMinTemp(Math.min(day.getMinTemp(), temp));
+            day.setMaxTemp(Math.max(day.getMaxTemp(), temp));
+            day.setTempSum(day.getTempSum() + temp);
+            day.setCount(day.getCount() + 1);
+        }
+        insertObservationDaysNow(Collections.singletonList(day));
+    }
+
+    /**
+     * Writes the {@link ForecastSlotDay}s of every location and issue date the given slots were
+     * sealed for. They are computed from all forecast chunks issued on that date, so a slot that
+     * replaced a sealed one is only counted once. Chunks are kept longer than raw slots, so the
+     * chunks of an issue date that is compacted still exist. Both dates are taken in the given zone.
+     */
+    private void mergeForecastSlotDaysNow(List<ForecastSlot> slots, ZoneId zone) {
+        Set<List<Object>> issueDays = new LinkedHashSet<>();
+        for (ForecastSlot slot : slots) {
+            issueDays.add(Arrays.asList(slot.getLocationId(),
+                    Instant.ofEpochSecond(slot.getIssuedAt()).atZone(zone).toLocalDate()));
+        }
+        for (List<Object> issueDay : issueDays) {
+            int locationId = (Integer) issueDay.get(0);
+            LocalDate issueDate = (LocalDate) issueDay.get(1);
+            long from = issueDate.atStartOfDay(zone).toEpochSecond();
+            long to = issueDate.plusDays(1).atStartOfDay(zone).toEpochSecond();
+            Map<LocalDate, ForecastSlotDay> days = new TreeMap<>();
+            for (ArchiveChunk chunk : getChunksNow(locationId, ArchiveChunk.SERIES_FORECAST, from, to)) {
+                // Every forecast chunk starts at the time it was issued.
+                if (chunk.getStartAt() < from || chunk.getStartAt() >= to) {
+                    continue;
+                }
+                ArchiveChunkDecoder decoder = chunk.decoder();
+                while (decoder.next()) {
+                    LocalDate date = Instant.ofEpochSecond(decoder.getTimestamp()).atZone(zone).toLocalDate();
+                    ForecastSlotDay day = days.get(date);
+                    if (day == null) {
+                        day = new ForecastSlotDay();
+                        day.setLocationId(locationId);
+                        day.setIssueDate(issueDate);
+                        day.setDate(date);
+                        day.setMinTemp(Double.POSITIVE_INFINITY);
+                        day.setMaxTemp(Double.NEGATIVE_INFINITY);
+                        days.put(date, day);
+                    }
+                    day.setMinTemp(Math.min(day.getMinTemp(), decoder.getValue(ArchiveChunk.COLUMN_MIN_TEMP)));
+                    day.setMaxTemp(Math.max(day.getMaxTemp(), decoder.getValue(ArchiveChunk.COLUMN_MAX_TEMP)));
+                    day.setPrecipitationChanceSum(day.getPrecipitationChanceSum()
+                            + decoder.getValue(ArchiveChunk.COLUMN_PRECIPITATION_CHANCE));
+                    day.setCount(day.getCount() + 1);
+                }
+            }
+            insertForecastSlotDaysNow(new ArrayList<>(days.values()));
+        }
+    }
+
+    /**
+     * Writes the observations to a chunk and an {@link ObservationDay} per location and day.
+     */
+    private void sealObservationsNow(List<Observation> observations, ZoneId zone) {
+        ChunkBuilder builder = null;
+        LocalDate date = null;
+        for (Observation observation : observations) {
+            if (builder == null || builder.locationId != observation.getLocationId() || observation.getObservedAt() >= builder.endAt) {
+                if (builder != null) {
+                    builder.seal();
+                    writeObservationDayNow(builder, date);
+                }
+                date = Instant.ofEpochSecond(observation.getObservedAt()).atZone(zone).toLocalDate();
+                builder = new ChunkBuilder(observation.getLocationId(), ArchiveChunk.SERIES_OBSERVATION,
+                        date.atStartOfDay(zone).toEpochSecond(), date.plusDays(1).atStartOfDay(zone).toEpochSecond(),
+                        ArchiveChunk.OBSERVATION_COLUMNS);
+            }
+            builder.samples.put(observation.getObservedAt(), new double[]{observation.getTemp(), observation.getFeelsLikeTemp()});
+        }
+        if (builder != null) {
+            builder.seal();
+            writeObservationDayNow(builder, date);
+        }
+    }
+
+    /**
+     * Writes the forecast slots to a chunk per location and issue window.
+     */
+    private void sealSlotsNow(List<ForecastSlot> slots) {
+        ChunkBuilder builder = null;
+        for (ForecastSlot slot : slots) {
+            if (builder == null || builder.locationId != slot.getLocationId() || builder.startAt != slot.getIssuedAt()) {
+                if (builder != null) {
+                    builder.seal();
+                }
+                builder = new ChunkBuilder(slot.getLocationId(), ArchiveChunk.SERIES_FORECAST, slot.getIssuedAt(),
+                        slot.getIssuedAt() + Constants.ARCHIVE_ISSUE_WINDOW_SECONDS, ArchiveChunk.FORECAST_COLUMNS);
+            }
+            builder.samples.put(slot.getSlotAt(), new double[]{slot.getMinTemp(), slot.getMaxTemp(), slot.getPrecipitationChance()});
+        }
+        if (builder != null) {
+            builder.seal();
+        }
+    }
+
+    /**
+     * Collects the samples of a single chunk. Sealing merges them with the chunk that may already
+     * exist for the same range, a sample at the same time replaces the existing one. Once sealed
+     * the samples are those of the whole chunk.
+     */
+    private class ChunkBuilder {
+        private final int locationId;
+        private final int series;
+        private final long startAt;
+        private final long endAt;
+        private final int columns;
+        private final TreeMap<Long, double[]> samples = new TreeMap<>();
+        private boolean merged;
+
+        private ChunkBuilder(int locationId, int series, long startAt, long endAt, int columns) {
+            this.locationId = locationId;
+            this.series = series;
+            this.startAt = startAt;
+            this.endAt = endAt;
+            this.columns = columns;
+        }
+
+        private void seal() {
+            ArchiveChunk existing = getChunkNow(locationId, series, startAt);
+            if (existing != null) {
+                merged = true;
+                ArchiveChunkDecoder decoder = existing.decoder();
+                while (decoder.next()) {
+                    double[] values = new double[columns];
+                    for (int i = 0; i < columns; i++) {
+                        values[i] = decoder.getValue(i);
+                    }
+                    samples.putIfAbsent(decoder.getTimestamp(), values);
+                }
+            }
+            ArchiveChunkEncoder encoder = new ArchiveChunkEncoder(columns);
+            for (Map.Entry<Long, double[]> sample : samples.entrySet()) {
+                encoder.add(sample.getKey(), sample.getValue());
+            }
+            insertChunkNow(new ArchiveChunk(locationId, series, startAt, endAt, encoder));
+        }
+    }
+
+    /**
+     * Blocking variants used inside {@link #insertSlotsNow(int, long, List)},
+     * {@link #getObservationHistoryNow(int, long, long)} and
+     * {@link #compactNow(long, long, LocalDate, ZoneId)}. The aggregates are computed from the merged chunks,
+     * so a day compacted in more than one run keeps the right min, max, sum and count. The latest issue of every location is never compacted, it
+     * is the one {@link io.hoogland.weer2track.model.DailyForecastView} is derived from.
+     */
+    @Query("DELETE FROM forecast_slot WHERE location_id = :locationId AND issued_at = :issuedAt")
+    protected abstract void deleteIssueNow(int locationId, long issuedAt);
+
+    @Insert
+    protected abstract void insertSlotRowsNow(List<ForecastSlot> slots);
+
+    @Query("SELECT * FROM observation_day WHERE location_id = :locationId AND date = :date")
+    protected abstract ObservationDay getObservationDayNow(int locationId, LocalDate date);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    protected abstract void insertObservationDaysNow(List<ObservationDay> days);
+
+    @Query("SELECT * FROM observation WHERE location_id = :locationId AND observed_at >= :from AND observed_at < :to "
+            + "ORDER BY observed_at")
+    protected abstract List<Observation> getObservationsNow(int locationId, long from, long to);
+
+    @Query("SELECT * FROM archive_chunk WHERE location_id = :locationId AND series = :series AND start_at < :to "
+            + "AND end_at > :from ORDER BY start_at")
+    protected abstract List<ArchiveChunk> getChunksNow(int locationId, int series, long from, long to);
+
+    @Query("SELECT * FROM observation WHERE observed_at < :before ORDER BY location_id, observed_at")
+    protected abstract List<Observation> getObservationsBeforeNow(long before);
+
+    @Query("SELECT * FROM forecast_slot WHERE issued_at < :before AND issued_at < (SELECT MAX(l.issued_at) "
+            + "FROM forecast_slot l WHERE l.location_id = forecast_slot.location_id) ORDER BY location_id, issued_at, slot_at")
+    protected abstract List<ForecastSlot> getSlotsBeforeNow(long before);
+
+    @Query("SELECT * FROM archive_chunk WHERE location_id = :locationId AND series = :series AND start_at = :startAt")
+    protected abstract ArchiveChunk getChunkNow(int locationId, int series, long startAt);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    protected abstract void insertChunkNow(ArchiveChunk chunk);
+
+    @Query("DELETE FROM archive_chunk WHERE end_at <= :before")
+    protected abstract void deleteChunksNow(long before);
+
+    @Query("DELETE FROM observation WHERE observed_at < :before")
+    protected abstract void deleteObservationsNow(long before);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    protected abstract void insertForecastSlotDaysNow(List<ForecastSlotDay> days);
+
+    @Query("DELETE FROM forecast_slot WHERE issued_at < :before AND issued_at < (SELECT MAX(l.issued_at) "
+            + "FROM forecast_slot l WHERE l.location_id = forecast_slot.location_id)")
+    protected abstract void deleteSlotsNow(long before);
+
+    @Query("DELETE FROM observation_day WHERE date < :before")
+    protected abstract void deleteObservationDaysNow(LocalDate before);
+
+    @Query("DELETE FROM forecast_slot_day WHERE date < :before")
+    protected abstract void deleteForecastSlotDaysNow(LocalDate before);
+}
@@ -6,8 +6,11 @@ import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 import androidx.room.Update;
 
+import java.util.List;
+
 import io.hoogland.weer2track.model.CurrentWeather;
 import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
 
 /**
@@ -20,13 +23,24 @@ import io.reactivex.rxjava3.core.Single;
 public interface CurrentWeatherDao {
 
     /**
-     * Retrieve {@link CurrentWeather} from application database. There will ever only be 1 entry
-     * of {@link CurrentWeather} available as the primary key is set by default.
+     * Retrieve {@link CurrentWeather} of a location from application database. There will ever only
+     * be 1 entry of {@link CurrentWeather} per location as the location is the primary key.
      *
+     * @param locationId ID of the {@link io.hoogland.weer2track.model.Location}
      * @return {@link CurrentWeather} model with values from application database
      */
-    @Query("SELECT * FROM current_weather")
-    Single<CurrentWeather> getCurrentWeather();
+    @Query("SELECT * FROM current_weather WHERE location_id = :locationId")
+    Single<CurrentWeather> getCurrentWeather(int locationId);
+
+    /**
+     * Observe {@link CurrentWeather} of a location in the application database. Emits again every
+     * time the table changes, the list is empty as long as there is no data.
+     *
+     * @param locationId ID of the {@link io.hoogland.weer2track.model.Location}
+     * @return {@link Flowable} with a {@link List} containing the {@link CurrentWeather} model, if any
+     */
+    @Query("SELECT * FROM current_weather WHERE location_id = :locationId")
+    Flowable<List<CurrentWeather>> observeCurrentWeather(int locationId);
 
     /**
      * Inserts the given object {@link CurrentWeather} into the database, replacing existing rows
@@ -40,6 +54,18 @@ public interface CurrentWeatherDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     Completable insert(CurrentWeather weather);
 
+    /**
+     * Inserts all {@link CurrentWeather} objects present in the given list into the database in a
+     * single transaction, replacing existing rows it is in conflict with.
+     *
+     * @param weather {@link List} of {@link CurrentWeather} to be inserted into the application database
+     * @return {@link Completable} to be run off main thread using RxAndroid and execute different
+     * code based on error/success
+     * @see <a href="https://github.com/ReactiveX/RxAndroid">RxAndroid</a>
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    Completable insertAll(List<CurrentWeather> weather);
+
     /**
      * Updates an object that is already present in the application database, replacing existing
      * rows it is in conflict with.
@@ -1,15 +1,25 @@
 package io.hoogland.weer2track.model.dao;
 
 import androidx.room.Dao;
+import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
+import androidx.room.Update;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import io.hoogland.weer2track.model.DailyForecast;
+import io.hoogland.weer2track.model.DailyForecastView;
+import io.hoogland.weer2track.model.converter.DateConverter;
 import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
 
 /**
@@ -28,6 +38,26 @@ public abstract class DailyForecastDao {
     @Query("SELECT * FROM daily_forecast")
     public abstract Single<List<DailyForecast>> getAll();
 
+    /**
+     * Observe all {@link DailyForecast} of a location in the application database, sorted by date.
+     * Emits again every time the table changes.
+     *
+     * @param locationId ID of the {@link io.hoogland.weer2track.model.Location}
+     * @return {@link Flowable} with a {@link List} containing {@link DailyForecast} models
+     */
+    @Query("SELECT * FROM daily_forecast WHERE location_id = :locationId ORDER BY date")
+    public abstract Flowable<List<DailyForecast>> observeAll(int locationId);
+
+    /**
+     * Observe the forecast of a location derived from its latest {@link io.hoogland.weer2track.model.ForecastSlot}s
+     * by {@link DailyForecastView}, sorted by date. Emits again every time the slots change.
+     *
+     * @param locationId ID of the {@link io.hoogland.weer2track.model.Location}
+     * @return {@link Flowable} with a {@link List} containing {@link DailyForecastView} models
+     */
+    @Query("SELECT * FROM daily_forecast_view WHERE location_id = :locationId ORDER BY date")
+    public abstract Flowable<List<DailyForecastView>> observeFromSlots(int locationId);
+
     /**
      * Deletes all rows in the {@link DailyForecast} table.
      *
@@ -51,19 +81,76 @@ public abstract class DailyForecastDao {
     public abstract Completable insertAll(List<DailyForecast> dailyForecasts);
 
     /**
-     * Inserts all {@link DailyForecast} objects present in the given list into the database, replacing existing rows
-     * it is it conflict with, and applies a timestamp to each object indicating when they last have been modified.
+     * Replaces the forecast of a location in the database with the given list in a single
+     * transaction, keyed on date. Only rows that are new or have different values are written and
+     * get a new modified timestamp, rows for dates that are not in the list are deleted.
      *
-     * @param dailyForecasts {@link List} of {@link DailyForecast} to be inserted into the application database
+     * @param locationId     ID of the {@link io.hoogland.weer2track.model.Location} the forecast is for
+     * @param dailyForecasts {@link List} of {@link DailyForecast} that should be in the application database
      * @return {@link Completable} to be run off main thread using RxAndroid and execute different
      * code based on error/success
      * @see <a href="https://github.com/ReactiveX/RxAndroid">RxAndroid</a>
      */
-    public Completable insertWithTimestamp(List<DailyForecast> dailyForecasts) {
-        LocalDateTime current = LocalDateTime.now();
-        dailyForecasts.forEach(dailyForecast -> {
-            dailyForecast.setModifiedAt(current);
-        });
-        return insertAll(dailyForecasts);
+    public Completable replaceAll(int locationId, List<DailyForecast> dailyForecasts) {
+        return Completable.fromAction(() -> replaceAllNow(locationId, dailyForecasts));
     }
+
+    /**
+     * Blocking implementation of {@link #replaceAll(int, List)}, must be called off the main thread.
+     *
+     * @param locationId     ID of the {@link io.hoogland.weer2track.model.Location} the forecast is for
+     * @param dailyForecasts {@link List} of {@link DailyForecast} that should be in the application database
+     */
+    @Transaction
+    public void replaceAllNow(int locationId, List<DailyForecast> dailyForecasts) {
+        Map<LocalDate, DailyForecast> existing = new HashMap<>();
+        for (DailyForecast dailyForecast : getAllNow(locationId)) {
+            existing.put(dailyForecast.getDate(), dailyForecast);
+        }
+
+        LocalDateTime current = LocalDateTime.now(DateConverter.ZONE);
+        List<DailyForecast> inserts = new ArrayList<>();
+        List<DailyForecast> updates = new ArrayList<>();
+        for (DailyForecast dailyForecast : dailyForecasts) {
+            dailyForecast.setLocationId(locationId);
+            DailyForecast old = existing.remove(dailyForecast.getDate());
+            if (old == null) {
+                dailyForecast.setModifiedAt(current);
+                inserts.add(dailyForecast);
+            } else {
+                dailyForecast.setUid(old.getUid());
+                if (old.hasSameValues(dailyForecast)) {
+                    dailyForecast.setModifiedAt(old.getModifiedAt());
+                } else {
+                    dailyForecast.setModifiedAt(current);
+                    updates.add(dailyForecast);
+                }
+            }
+        }
+
+        if (!existing.isEmpty()) {
+            deleteNow(new ArrayList<>(existing.values()));
+        }
+        if (!updates.isEmpty()) {
+            updateNow(updates);
+        }
+        if (!inserts.isEmpty()) {
+            insertNow(inserts);
+        }
+    }
+
+    /**
+     * Blocking variants used inside {@link #replaceAllNow(int, List)}.
+     */
+    @Query("SELECT * FROM daily_forecast WHERE location_id = :locationId")
+    protected abstract List<DailyForecast> getAllNow(int locationId);
+
+    @Insert
+    protected abstract void insertNow(List<DailyForecast> dailyForecasts);
+
+    @Update
+    protected abstract void updateNow(List<DailyForecast> dailyForecasts);
+
+    @Delete
+    protected abstract void deleteNow(List<DailyForecast> dailyForecasts);
 }
@@ -0,0 +1,72 @@
+package io.hoogland.weer2track.model.dao;
+
+import androidx.room.Dao;
+import androidx.room.Delete;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import java.util.List;
+
+import io.hoogland.weer2track.model.Location;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * DAO to access {@link Location} database table.
+ *
+ * @author dan
+ * @see Location
+ */
+@Dao
+public interface LocationDao {
+
+    /**
+     * Retrieve all {@link Location} from the application database.
+     *
+     * @return {@link List} containing {@link Location} models with values from application database
+     */
+    @Query("SELECT * FROM locations ORDER BY id")
+    Single<List<Location>> getAll();
+
+    /**
+     * Observe all {@link Location} in the application database. Emits again every time the table
+     * changes.
+     *
+     * @return {@link Flowable} with a {@link List} containing {@link Location} models
+     */
+    @Query("SELECT * FROM locations ORDER BY id")
+    Flowable<List<Location>> observeAll();
+
+    /**
+     * Inserts the given {@link Location} into the application database.
+     *
+     * @param location Model with values to be inserted into the application database
+     * @return {@link Single} with the generated ID of the location
+     */
+    @Insert
+    Single<Long> insert(Location location);
+
+    /**
+     * Deletes the given {@link Location}, its weather data is deleted along with it.
+     *
+     * @param location Model to be deleted from the application database
+     * @return {@link Completable} to be run off main thread using RxAndroid and execute different
+     * code based on error/success
+     * @see <a href="https://github.com/ReactiveX/RxAndroid">RxAndroid</a>
+     */
+    @Delete
+    Completable delete(Location location);
+
+    /**
+     * Stores the OpenWeatherMap city ID of a {@link Location}, so it can be refreshed through the
+     * group API from then on.
+     *
+     * @param id     ID of the location
+     * @param cityId OpenWeatherMap city ID of the location
+     * @return {@link Completable} to be run off main thread using RxAndroid and execute different
+     * code based on error/success
+     */
+    @Query("UPDATE locations SET city_id = :cityId WHERE id = :id")
+    Completable setCityId(int id, long cityId);
+}
@@ -0,0 +1,82 @@
+package io.hoogland.weer2track.model.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import io.hoogland.weer2track.model.SyncStatus;
+import io.hoogland.weer2track.model.converter.DateConverter;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+
+/**
+ * DAO to access {@link SyncStatus} database table.
+ *
+ * @author dan
+ * @see SyncStatus
+ */
+@Dao
+public abstract class SyncStatusDao {
+
+    /**
+     * Observe the {@link SyncStatus} of a sync. Emits again every time the table changes, the list
+     * is empty as long as the sync never ran.
+     *
+     * @param name Name of the sync
+     * @return {@link Flowable} with a {@link List} containing the {@link SyncStatus} model, if any
+     */
+    @Query("SELECT * FROM sync_status WHERE name = :name")
+    public abstract Flowable<List<SyncStatus>> observe(String name);
+
+    /**
+     * Records the state of a sync attempt. The moment of the last successful attempt is kept when
+     * an attempt fails.
+     *
+     * @param name    Name of the sync
+     * @param state   One of the states in {@link SyncStatus}
+     * @param attempt Number of the attempt, starting at 0
+     * @param error   Reason the attempt failed, null otherwise
+     * @return {@link Completable} to be run off main thread using RxAndroid and execute different
+     * code based on error/success
+     * @see <a href="https://github.com/ReactiveX/RxAndroid">RxAndroid</a>
+     */
+    public Completable record(String name, String state, int attempt, String error) {
+        return Completable.fromAction(() -> recordNow(name, state, attempt, error));
+    }
+
+    /**
+     * Blocking implementation of {@link #record(String, String, int, String)}, must be called off
+     * the main thread.
+     */
+    @Transaction
+    public void recordNow(String name, String state, int attempt, String error) {
+        SyncStatus status = getNow(name);
+        if (status == null) {
+            status = new SyncStatus();
+            status.setName(name);
+        }
+        LocalDateTime current = LocalDateTime.now(DateConverter.ZONE);
+        status.setState(state);
+        status.setAttempt(attempt);
+        status.setLastAttemptAt(current);
+        status.setError(error);
+        if (SyncStatus.STATE_SUCCEEDED.equals(state)) {
+            status.setLastSuccessAt(current);
+        }
+        insertNow(status);
+    }
+
+    /**
+     * Blocking variants used inside {@link #recordNow(String, String, int, String)}.
+     */
+    @Query("SELECT * FROM sync_status WHERE name = :name")
+    protected abstract SyncStatus getNow(String name);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    protected abstract void insertNow(SyncStatus status);
+}
@@ -1,6 +1,7 @@
 package io.hoogland.weer2track.model.response;
 
 import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
@@ -13,7 +14,11 @@ import java.util.List;
  * @author dan
  * @see <a href="https://openweathermap.org/current">OpenWeatherMap current weather data</a>
  */
+@UseStag
 public class CurrentWeatherResponse implements Serializable {
+    @SerializedName("id")
+    private long cityId;
+
     @SerializedName("weather")
     private List<Weather> weather;
 
@@ -23,6 +28,14 @@ public class CurrentWeatherResponse implements Serializable {
     @SerializedName("dt")
     private LocalDateTime dateTime;
 
+    public long getCityId() {
+        return cityId;
+    }
+
+    public void setCityId(long cityId) {
+        this.cityId = cityId;
+    }
+
     public List<Weather> getWeather() {
         return weather;
     }
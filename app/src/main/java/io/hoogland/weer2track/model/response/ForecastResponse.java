@@ -1,6 +1,7 @@
 package io.hoogland.weer2track.model.response;
 
 import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
 
 import java.io.Serializable;
 import java.util.List;
@@ -12,6 +13,7 @@ import java.util.List;
  * @author dan
  * @see <a href="https://openweathermap.org/forecast5">OpenWeatherMap 5 day weather forecast</a>
  */
+@UseStag
 public class ForecastResponse implements Serializable {
 
     @SerializedName("list")
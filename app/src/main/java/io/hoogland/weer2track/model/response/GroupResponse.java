@@ -0,0 +1,28 @@
+package io.hoogland.weer2track.model.response;
+
+import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Model used to serialize the response data from an OpenWeatherMap API call to their group API,
+ * containing the current weather of several cities.
+ *
+ * @author dan
+ * @see <a href="https://openweathermap.org/current#severalid">OpenWeatherMap current weather for several city IDs</a>
+ */
+@UseStag
+public class GroupResponse implements Serializable {
+    @SerializedName("list")
+    private List<CurrentWeatherResponse> list;
+
+    public List<CurrentWeatherResponse> getList() {
+        return list;
+    }
+
+    public void setList(List<CurrentWeatherResponse> list) {
+        this.list = list;
+    }
+}
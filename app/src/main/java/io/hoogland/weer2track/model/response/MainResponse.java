@@ -1,6 +1,7 @@
 package io.hoogland.weer2track.model.response;
 
 import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
 
 /**
  * Model used to serialize the response data from multiple different OpenWeatherMap API calls.
@@ -9,6 +10,7 @@ import com.google.gson.annotations.SerializedName;
  * @see <a href="https://openweathermap.org/forecast5">OpenWeatherMap 5 day weather forecast</a>
  * @see <a href="https://openweathermap.org/current">OpenWeatherMap current weather data</a>
  */
+@UseStag
 public class MainResponse {
     @SerializedName("temp")
     private double currentTemp;
@@ -0,0 +1,61 @@
+package io.hoogland.weer2track.model.response;
+
+import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Model used to serialize the current weather part of an OpenWeatherMap One Call API response.
+ *
+ * @author dan
+ * @see <a href="https://openweathermap.org/api/one-call-3">OpenWeatherMap One Call API</a>
+ */
+@UseStag
+public class OneCallCurrent implements Serializable {
+    @SerializedName("dt")
+    private LocalDateTime dateTime;
+
+    @SerializedName("temp")
+    private double temp;
+
+    @SerializedName("feels_like")
+    private double feelsLikeTemp;
+
+    @SerializedName("weather")
+    private List<Weather> weather;
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    public void setDateTime(LocalDateTime dateTime) {
+        this.dateTime = dateTime;
+    }
+
+    public double getTemp() {
+        return temp;
+    }
+
+    public void setTemp(double temp) {
+        this.temp = temp;
+    }
+
+    public double getFeelsLikeTemp() {
+        return feelsLikeTemp;
+    }
+
+    public void setFeelsLikeTemp(double feelsLikeTemp) {
+        this.feelsLikeTemp = feelsLikeTemp;
+    }
+
+    public List<Weather> getWeather() {
+        return weather;
+    }
+
+    public void setWeather(List<Weather> weather) {
+        this.weather = weather;
+    }
+}
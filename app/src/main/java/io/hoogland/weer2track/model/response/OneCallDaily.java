@@ -0,0 +1,89 @@
+package io.hoogland.weer2track.model.response;
+
+import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Model used to serialize a single day of an OpenWeatherMap One Call API response.
+ *
+ * @author dan
+ * @see <a href="https://openweathermap.org/api/one-call-3">OpenWeatherMap One Call API</a>
+ */
+@UseStag
+public class OneCallDaily implements Serializable {
+    @SerializedName("dt")
+    private LocalDate date;
+
+    @SerializedName("temp")
+    private Temperature temperature;
+
+    @SerializedName("pop")
+    private double percentOfPrecipitation;
+
+    @SerializedName("weather")
+    private List<Weather> weather;
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public Temperature getTemperature() {
+        return temperature;
+    }
+
+    public void setTemperature(Temperature temperature) {
+        this.temperature = temperature;
+    }
+
+    public double getPercentOfPrecipitation() {
+        return percentOfPrecipitation;
+    }
+
+    public void setPercentOfPrecipitation(double percentOfPrecipitation) {
+        this.percentOfPrecipitation = percentOfPrecipitation;
+    }
+
+    public List<Weather> getWeather() {
+        return weather;
+    }
+
+    public void setWeather(List<Weather> weather) {
+        this.weather = weather;
+    }
+
+    /**
+     * Minimum and maximum temperature of the day.
+     */
+    @UseStag
+    public static class Temperature implements Serializable {
+        @SerializedName("min")
+        private double min;
+
+        @SerializedName("max")
+        private double max;
+
+        public double getMin() {
+            return min;
+        }
+
+        public void setMin(double min) {
+            this.min = min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public void setMax(double max) {
+            this.max = max;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package io.hoogland.weer2track.model.response;
+
+import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Model used to serialize the response data from an OpenWeatherMap API call to their One Call
+ * API, containing both the current weather and the daily forecast of a location.
+ *
+ * @author dan
+ * @see <a href="https://openweathermap.org/api/one-call-3">OpenWeatherMap One Call API</a>
+ */
+@UseStag
+public class OneCallResponse implements Serializable {
+    @SerializedName("current")
+    private OneCallCurrent current;
+
+    @SerializedName("daily")
+    private List<OneCallDaily> daily;
+
+    public OneCallCurrent getCurrent() {
+        return current;
+    }
+
+    public void setCurrent(OneCallCurrent current) {
+        this.current = current;
+    }
+
+    public List<OneCallDaily> getDaily() {
+        return daily;
+    }
+
+    public void setDaily(List<OneCallDaily> daily) {
+        this.daily = daily;
+    }
+}
@@ -1,6 +1,7 @@
 package io.hoogland.weer2track.model.response;
 
 import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
 
 /**
  * Model used to serialize the response data from multiple different OpenWeatherMap API calls.
@@ -9,13 +10,28 @@ import com.google.gson.annotations.SerializedName;
  * @see <a href="https://openweathermap.org/forecast5">OpenWeatherMap 5 day weather forecast</a>
  * @see <a href="https://openweathermap.org/current">OpenWeatherMap current weather data</a>
  */
+@UseStag
 public class Weather {
+    @SerializedName("id")
+    private int id;
+
     @SerializedName("description")
     private String description;
 
     @SerializedName("icon")
     private String icon;
 
+    /**
+     * @return ID of the weather condition, see {@link io.hoogland.weer2track.util.ConditionUtil}
+     */
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -0,0 +1,683 @@
+package io.hoogland.weer2track.repository;
+
+import android.content.Context;
+import android.util.Log;
+import android.util.LruCache;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.hoogland.weer2track.AppContainer;
+import io.hoogland.weer2track.BuildConfig;
+import io.hoogland.weer2track.db.AppDatabase;
+import io.hoogland.weer2track.model.CurrentWeather;
+import io.hoogland.weer2track.model.DailyForecast;
+import io.hoogland.weer2track.model.DailyForecastView;
+import io.hoogland.weer2track.model.DisplaySnapshot;
+import io.hoogland.weer2track.model.Location;
+import io.hoogland.weer2track.model.Observation;
+import io.hoogland.weer2track.model.SyncStatus;
+import io.hoogland.weer2track.model.converter.DateConverter;
+import io.hoogland.weer2track.model.dao.ArchiveDao;
+import io.hoogland.weer2track.model.dao.CurrentWeatherDao;
+import io.hoogland.weer2track.model.dao.DailyForecastDao;
+import io.hoogland.weer2track.model.dao.LocationDao;
+import io.hoogland.weer2track.model.dao.SyncStatusDao;
+import io.hoogland.weer2track.model.response.CurrentWeatherResponse;
+import io.hoogland.weer2track.service.WeatherService;
+import io.hoogland.weer2track.util.AppSchedulers;
+import io.hoogland.weer2track.util.CircuitBreaker;
+import io.hoogland.weer2track.util.ConnectivityMonitor;
+import io.hoogland.weer2track.util.Constants;
+import io.hoogland.weer2track.util.DisplaySnapshotStore;
+import io.hoogland.weer2track.util.ForecastUtil;
+import io.hoogland.weer2track.util.FreshnessUtil;
+import io.hoogland.weer2track.util.LocationUtil;
+import io.hoogland.weer2track.util.MetricsRegistry;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import retrofit2.Call;
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+/**
+ * Repository that owns the {@link WeatherService} and the DAO's. It keeps the latest data of the
+ * most recently shown locations in memory so screens don't have to query the application database
+ * every time they are shown, and makes sure the same refresh is never running more than once at
+ * the same time. Refreshes fetch the data of all {@link Location}s, with at most
+ * {@link Constants#MAX_CONCURRENT_REQUESTS} API calls running at the same time. Every fetched
+ * observation and forecast slot is also added to the archive, see {@link ArchiveDao}. The duration
+ * of the aggregation and the database writes of a refresh are recorded in the {@link MetricsRegistry}.
+ * After every refresh the data of the selected location is saved as a {@link DisplaySnapshot}.
+ * Queries, writes and API calls run on the bounded pools of {@link AppSchedulers}. API calls fail
+ * straight away while the {@link ConnectivityMonitor} sees no validated network or the
+ * {@link CircuitBreaker} is open. Refreshes that failed while offline run again once the device is
+ * back online.
+ *
+ * @author dan
+ */
+public class WeatherRepository {
+
+    private static final String TAG = "WeatherRepository";
+
+    /**
+     * Key of the refresh through the One Call API, see {@link #refreshOneCall()}.
+     */
+    private static final String ONE_CALL = "one_call";
+
+    private final Context context;
+    private final WeatherService weatherService;
+    private final LocationDao locationDao;
+    private final CurrentWeatherDao currentWeatherDao;
+    private final DailyForecastDao dailyForecastDao;
+    private final SyncStatusDao syncStatusDao;
+    private final ArchiveDao archiveDao;
+    private final ConnectivityMonitor connectivityMonitor;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final AppSchedulers schedulers = AppSchedulers.getInstance();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(Constants.CIRCUIT_FAILURE_THRESHOLD,
+            Constants.CIRCUIT_OPEN_SECONDS, metrics);
+
+    /**
+     * Observed data of the most recently used locations, see {@link LocationSnapshot}. Evicted
+     * locations are disconnected from Room.
+     */
+    private final LruCache<Integer, LocationSnapshot> snapshots = new LruCache<Integer, LocationSnapshot>(Constants.LOCATION_CACHE_SIZE) {
+        @Override
+        protected LocationSnapshot create(Integer locationId) {
+            return new LocationSnapshot(locationId);
+        }
+
+        @Override
+        protected void entryRemoved(boolean evicted, Integer locationId, LocationSnapshot oldValue, LocationSnapshot newValue) {
+            oldValue.connections.dispose();
+        }
+    };
+
+    /**
+     * Refreshes that are currently running, by key. Subscribers that ask for a refresh that is
+     * already running share the running one instead of starting a new request.
+     */
+    private final Map<String, Completable> inFlight = new HashMap<>();
+
+    /**
+     * Keys of the refreshes that failed while offline, started again when the device is back online.
+     */
+    private final Set<String> pendingRefreshes = new LinkedHashSet<>();
+
+    /**
+     * Creates the WeatherRepository. The app uses the single instance of the {@link AppContainer},
+     * see {@link #getInstance(Context)}.
+     *
+     * @param context             Application context
+     * @param appDatabase         Opened {@link AppDatabase}
+     * @param weatherService      {@link WeatherService} for the OpenWeatherMap API calls
+     * @param connectivityMonitor {@link ConnectivityMonitor} that gates the API calls
+     */
+    public WeatherRepository(Context context, AppDatabase appDatabase, WeatherService weatherService,
+                             ConnectivityMonitor connectivityMonitor) {
+        this.context = context.getApplicationContext();
+        this.weatherService = weatherService;
+        this.locationDao = appDatabase.locationDao();
+        this.currentWeatherDao = appDatabase.currentWeatherDao();
+        this.dailyForecastDao = appDatabase.dailyForecastDao();
+        this.syncStatusDao = appDatabase.syncStatusDao();
+        this.archiveDao = appDatabase.archiveDao();
+        this.connectivityMonitor = connectivityMonitor;
+        // Lives as long as the repository, which lives as long as the process.
+        connectivityMonitor.observeOnline()
+                .filter(online -> online)
+                .subscribe(online -> runPendingRefreshes());
+    }
+
+    /**
+     * Supplies the single instance of WeatherRepository for the entire app, created by the
+     * {@link AppContainer} while the process starts.
+     *
+     * @param context Any context of the app
+     * @return Singleton of WeatherRepository
+     */
+    public static WeatherRepository getInstance(Context context) {
+        return AppContainer.from(context).getWeatherRepository();
+    }
+
+    /**
+     * Supplies the single instance of WeatherRepository like {@link #getInstance(Context)}, without
+     * blocking the calling thread while the application database is still being opened.
+     *
+     * @param context Any context of the app
+     * @return {@link Single} with the singleton of WeatherRepository
+     */
+    public static Single<WeatherRepository> getInstanceAsync(Context context) {
+        AppContainer container = AppContainer.from(context);
+        return Single.fromCallable(container::getWeatherRepository)
+                .subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Observe all {@link Location}s the weather is tracked for.
+     *
+     * @return {@link Flowable} with the latest {@link List} of {@link Location}
+     */
+    public Flowable<List<Location>> observeLocations() {
+        return locationDao.observeAll();
+    }
+
+    /**
+     * Adds a {@link Location} to track the weather for and refreshes the weather of all locations,
+     * so there is data to show for the new location. The refresh is part of the returned
+     * {@link Single}, disposing it cancels the refresh. A failed refresh is logged and does not fail
+     * the add, the location is saved and is refreshed again with the others.
+     *
+     * @param location {@link Location} to add
+     * @return {@link Single} with the ID of the new location, emitted once it is saved and refreshed
+     */
+    public Single<Integer> addLocation(Location location) {
+        return locationDao.insert(location)
+                .subscribeOn(schedulers.write())
+                .map(Long::intValue)
+                .flatMap(id -> Completable.mergeArrayDelayError(refreshCurrentWeather(), refreshDailyForecasts())
+                        .doOnError(e -> Log.w(TAG, "addLocation: refreshing location " + id + " failed", e))
+                        .onErrorComplete()
+                        .andThen(Single.just(id)));
+    }
+
+    /**
+     * Observe the latest {@link CurrentWeather} of a location. Emits the data in memory straight
+     * away and again every time it changes in the application database.
+     *
+     * @param locationId ID of the {@link Location}
+     * @return {@link Flowable} with the latest {@link CurrentWeather}, empty if there is no data
+     */
+    public Flowable<Optional<CurrentWeather>> observeCurrentWeather(int locationId) {
+        return snapshots.get(locationId).currentWeather;
+    }
+
+    /**
+     * Observe the latest {@link List} of {@link DailyForecast} of a location, sorted by date. Emits
+     * the data in memory straight away and again every time it changes in the application database.
+     *
+     * @param locationId ID of the {@link Location}
+     * @return {@link Flowable} with the latest {@link List} of {@link DailyForecast}
+     */
+    public Flowable<List<DailyForecast>> observeDailyForecasts(int locationId) {
+        return snapshots.get(locationId).dailyForecasts;
+    }
+
+    /**
+     * Observe the outcome of the latest background sync, see {@link io.hoogland.weer2track.sync.WeatherSyncWorker}.
+     *
+     * @return {@link Flowable} with the latest {@link SyncStatus}, empty if the sync never ran
+     */
+    public Flowable<Optional<SyncStatus>> observeSyncStatus() {
+        return syncStatusDao.observe(SyncStatus.WEATHER)
+                .map(rows -> rows.isEmpty() ? Optional.<SyncStatus>empty() : Optional.of(rows.get(0)));
+    }
+
+    /**
+     * Records the state of a background sync attempt.
+     *
+     * @param state   One of the states in {@link SyncStatus}
+     * @param attempt Number of the attempt, starting at 0
+     * @param error   Reason the attempt failed, null otherwise
+     * @return {@link Completable} that completes once the state is saved
+     */
+    public Completable recordSyncStatus(String state, int attempt, String error) {
+        return syncStatusDao.record(SyncStatus.WEATHER, state, attempt, error)
+                .subscribeOn(schedulers.write());
+    }
+
+    /**
+     * Retrieves the current weather of all locations from the OpenWeatherMap API and saves it in
+     * the application database, which is then emitted by {@link #observeCurrentWeather(int)}.
+     * Locations with a known city ID are fetched {@link Constants#OPENWEATHER_GROUP_MAX_IDS} at a
+     * time through the group API, the others one by one.
+     *
+     * @return {@link Completable} that completes once the data is saved, shared with other
+     * subscribers while the refresh is running. Fails after all locations were tried if any of
+     * them failed.
+     * @see #refreshOneCall()
+     */
+    public Completable refreshCurrentWeather() {
+        if (BuildConfig.USE_ONE_CALL) {
+            return refreshOneCall();
+        }
+        return singleFlight(FreshnessUtil.CURRENT_WEATHER, () -> locationDao.getAll()
+                .subscribeOn(schedulers.read())
+                .flatMapCompletable(locations -> Flowable.fromIterable(currentWeatherRequests(locations))
+                        .flatMapCompletable(request -> request, true, Constants.MAX_CONCURRENT_REQUESTS))
+                .andThen(saveDisplaySnapshot())
+                .doOnComplete(() -> {
+                    Log.d(TAG, "refreshCurrentWeather: inserted current weather into database successfully");
+                    FreshnessUtil.markRefreshed(context, FreshnessUtil.CURRENT_WEATHER);
+                }));
+    }
+
+    /**
+     * Retrieves the forecast of all locations from the OpenWeatherMap API and replaces the forecast
+     * in the application database with it, which is then emitted by {@link #observeDailyForecasts(int)}.
+     *
+     * @return {@link Completable} that completes once the data is saved, shared with other
+     * subscribers while the refresh is running. Fails after all locations were tried if any of
+     * them failed.
+     * @see #refreshOneCall()
+     */
+    public Completable refreshDailyForecasts() {
+        if (BuildConfig.USE_ONE_CALL) {
+            return refreshOneCall();
+        }
+        return singleFlight(FreshnessUtil.DAILY_FORECAST, () -> locationDao.getAll()
+                .subscribeOn(schedulers.read())
+                .flatMapCompletable(locations -> Flowable.fromIterable(locations)
+                        .flatMapCompletable(this::refreshDailyForecasts, true, Constants.MAX_CONCURRENT_REQUESTS))
+                .andThen(saveDisplaySnapshot())
+                .doOnComplete(() -> {
+                    Log.d(TAG, "refreshDailyForecasts: inserted forecast into database successfully");
+                    FreshnessUtil.markRefreshed(context, FreshnessUtil.DAILY_FORECAST);
+                }));
+    }
+
+    /**
+     * Compacts the archive of observations and forecast slots. Raw rows older than
+     * {@link Constants#ARCHIVE_RAW_RETENTION_DAYS} are sealed into compressed chunks and merged into
+     * daily aggregates. Chunks older than {@link Constants#ARCHIVE_CHUNK_RETENTION_DAYS} and
+     * aggregates older than {@link Constants#ARCHIVE_AGGREGATE_RETENTION_DAYS} are deleted.
+     *
+     * @return {@link Completable} that completes once the archive is compacted
+     * @see io.hoogland.weer2track.sync.ArchiveCompactionWorker
+     */
+    public Completable compactArchive() {
+        return Completable.defer(() -> {
+            // The days of the archive are in the zone the rest of the data is stored in.
+            ZoneId zone = DateConverter.ZONE;
+            LocalDate today = LocalDate.now(zone);
+            long rawBefore = today.minusDays(Constants.ARCHIVE_RAW_RETENTION_DAYS).atStartOfDay(zone).toEpochSecond();
+            long chunkBefore = today.minusDays(Constants.ARCHIVE_CHUNK_RETENTION_DAYS).atStartOfDay(zone).toEpochSecond();
+            LocalDate aggregateBefore = today.minusDays(Constants.ARCHIVE_AGGREGATE_RETENTION_DAYS);
+            return archiveDao.compact(rawBefore, chunkBefore, aggregateBefore, zone);
+        }).subscribeOn(schedulers.write());
+    }
+
+    /**
+     * Retrieves the archived observations of a location within a time range, from both the
+     * compressed chunks and the rows that are not sealed yet, see
+     * {@link ArchiveDao#getObservationHistory(int, long, long)}.
+     *
+     * @param locationId ID of the {@link Location}
+     * @param from       Start of the range in seconds since epoch, inclusive
+     * @param to         End of the range in seconds since epoch, exclusive
+     * @return {@link Single} with the {@link List} of {@link Observation} in the range, sorted by time
+     */
+    public Single<List<Observation>> getObservationHistory(int locationId, long from, long to) {
+        return archiveDao.getObservationHistory(locationId, from, to)
+                .subscribeOn(schedulers.read());
+    }
+
+    /**
+     * Retrieves both the current weather and the forecast of all locations with a single One Call
+     * API request per location, used instead of the separate refreshes when
+     * {@link BuildConfig#USE_ONE_CALL} is set. Refreshing the current weather and the forecast at
+     * the same time shares this refresh.
+     *
+     * @return {@link Completable} that completes once the data is saved, shared with other
+     * subscribers while the refresh is running
+     */
+    private Completable refreshOneCall() {
+        return singleFlight(ONE_CALL, () -> locationDao.getAll()
+                .subscribeOn(schedulers.read())
+                .flatMapCompletable(locations -> Flowable.fromIterable(locations)
+                        .flatMapCompletable(this::refreshOneCall, true, Constants.MAX_CONCURRENT_REQUESTS))
+                .andThen(saveDisplaySnapshot())
+                .doOnComplete(() -> {
+                    Log.d(TAG, "refreshOneCall: inserted current weather and forecast into database successfully");
+                    FreshnessUtil.markRefreshed(context, FreshnessUtil.CURRENT_WEATHER);
+                    FreshnessUtil.markRefreshed(context, FreshnessUtil.DAILY_FORECAST);
+                }));
+    }
+
+    /**
+     * Retrieves the current weather and forecast of a single location and saves both.
+     */
+    private Completable refreshOneCall(Location location) {
+        return execute(weatherService.getOneCall(location.getLat(), location.getLon(), Constants.OPENWEATHER_API_EXCLUDE_VALUE,
+                BuildConfig.WEATHER_API_KEY, Constants.OPENWEATHER_API_UNITS_VALUE, Constants.OPENWEATHER_API_LANGUAGE_VALUE))
+                .flatMapCompletable(response -> {
+                    CurrentWeather weather = new CurrentWeather(response.getCurrent());
+                    weather.setLocationId(location.getId());
+                    long start = System.nanoTime();
+                    List<DailyForecast> dailyForecasts = ForecastUtil.oneCallResponseToDaily(response);
+                    metrics.recordSince(MetricsRegistry.AGGREGATE, start);
+                    return saveCurrentWeather(Collections.singletonList(weather))
+                            .andThen(dailyForecastDao.replaceAll(location.getId(), dailyForecasts)
+                                    .subscribeOn(schedulers.write())
+                                    .compose(metrics.timeCompletable(MetricsRegistry.DB_WRITE)));
+                });
+    }
+
+    /**
+     * Creates the API calls needed to refresh the current weather of the given locations, locations
+     * sharing a city ID are fetched once.
+     *
+     * @param locations {@link List} of {@link Location} to refresh
+     * @return {@link List} of requests that save their result in the application database
+     */
+    private List<Completable> currentWeatherRequests(List<Location> locations) {
+        List<Completable> requests = new ArrayList<>();
+        Map<Long, List<Location>> byCityId = new LinkedHashMap<>();
+        for (Location location : locations) {
+            if (location.getCityId() == null) {
+                requests.add(refreshCurrentWeather(location));
+            } else {
+                List<Location> sameCity = byCityId.get(location.getCityId());
+                if (sameCity == null) {
+                    sameCity = new ArrayList<>(1);
+                    byCityId.put(location.getCityId(), sameCity);
+                }
+                sameCity.add(location);
+            }
+        }
+
+        List<Long> cityIds = new ArrayList<>(byCityId.keySet());
+        for (int i = 0; i < cityIds.size(); i += Constants.OPENWEATHER_GROUP_MAX_IDS) {
+            List<Long> batch = cityIds.subList(i, Math.min(i + Constants.OPENWEATHER_GROUP_MAX_IDS, cityIds.size()));
+            requests.add(refreshCurrentWeatherGroup(batch, byCityId));
+        }
+        return requests;
+    }
+
+    /**
+     * Retrieves the current weather of a single location by its coordinates. The city ID in the
+     * response is saved, so the location is part of a group API call from then on.
+     */
+    private Completable refreshCurrentWeather(Location location) {
+        return execute(weatherService.getCurrentWeather(location.getLat(), location.getLon(), BuildConfig.WEATHER_API_KEY,
+                Constants.OPENWEATHER_API_UNITS_VALUE, Constants.OPENWEATHER_API_LANGUAGE_VALUE))
+                .flatMapCompletable(response -> {
+                    CurrentWeather weather = new CurrentWeather(response);
+                    weather.setLocationId(location.getId());
+                    Completable insert = saveCurrentWeather(Collections.singletonList(weather));
+                    if (response.getCityId() == 0) {
+                        return insert;
+                    }
+                    return insert.andThen(locationDao.setCityId(location.getId(), response.getCityId())
+                            .subscribeOn(schedulers.write()));
+                });
+    }
+
+    /**
+     * Retrieves the current weather of a batch of cities in a single group API call and saves it
+     * for every location of those cities in a single transaction.
+     */
+    private Completable refreshCurrentWeatherGroup(List<Long> cityIds, Map<Long, List<Location>> byCityId) {
+        return execute(weatherService.getCurrentWeatherGroup(StringUtils.join(cityIds, ','), BuildConfig.WEATHER_API_KEY,
+                Constants.OPENWEATHER_API_UNITS_VALUE, Constants.OPENWEATHER_API_LANGUAGE_VALUE))
+                .flatMapCompletable(response -> {
+                    List<CurrentWeather> weatherList = new ArrayList<>();
+                    for (CurrentWeatherResponse cityResponse : response.getList()) {
+                        List<Location> sameCity = byCityId.get(cityResponse.getCityId());
+                        if (sameCity == null) {
+                            continue;
+                        }
+                        for (Location location : sameCity) {
+                            CurrentWeather weather = new CurrentWeather(cityResponse);
+                            weather.setLocationId(location.getId());
+                            weatherList.add(weather);
+                        }
+                    }
+                    return saveCurrentWeather(weatherList);
+                });
+    }
+
+    /**
+     * Saves the current weather and adds it to the archive.
+     */
+    private Completable saveCurrentWeather(List<CurrentWeather> weatherList) {
+        List<Observation> observations = new ArrayList<>(weatherList.size());
+        for (CurrentWeather weather : weatherList) {
+            observations.add(new Observation(weather));
+        }
+        return currentWeatherDao.insertAll(weatherList)
+                .andThen(archiveDao.insertObservations(observations))
+                .subscribeOn(schedulers.write())
+                .compose(metrics.timeCompletable(MetricsRegistry.DB_WRITE));
+    }
+
+    /**
+     * Retrieves the forecast slots of a single location and saves them in the current
+     * {@link Constants#ARCHIVE_ISSUE_WINDOW_SECONDS}. The forecast per day is derived from the
+     * latest slots by {@link io.hoogland.weer2track.model.DailyForecastView}.
+     */
+    private Completable refreshDailyForecasts(Location location) {
+        return execute(weatherService.getForecastSlots(location.getLat(), location.getLon(), BuildConfig.WEATHER_API_KEY,
+                Constants.OPENWEATHER_API_UNITS_VALUE, Constants.OPENWEATHER_API_LANGUAGE_VALUE))
+                .flatMapCompletable(slots -> {
+                    long now = Instant.now().getEpochSecond();
+                    long issuedAt = now - now % Constants.ARCHIVE_ISSUE_WINDOW_SECONDS;
+                    return archiveDao.insertSlots(location.getId(), issuedAt, slots)
+                            .subscribeOn(schedulers.write())
+                            .compose(metrics.timeCompletable(MetricsRegistry.DB_WRITE));
+                });
+    }
+
+    /**
+     * Saves the data of the selected location as it is in the application database now, so the
+     * next cold start can show it before the database is opened, see {@link AppContainer#getDisplaySnapshot()}.
+     * Failing to save it does not fail the refresh.
+     */
+    private Completable saveDisplaySnapshot() {
+        return Completable.defer(() -> {
+            int locationId = LocationUtil.getSelectedLocationId(context);
+            return Single.zip(currentWeatherDao.observeCurrentWeather(locationId).firstOrError(),
+                            observeDailyForecastsFromDatabase(locationId).firstOrError(),
+                            (weather, dailyForecasts) -> new DisplaySnapshot(locationId,
+                                    weather.isEmpty() ? null : weather.get(0), dailyForecasts))
+                    .observeOn(Schedulers.io())
+                    .flatMapCompletable(snapshot -> Completable.fromAction(() ->
+                            DisplaySnapshotStore.write(AppContainer.getDisplaySnapshotFile(context), snapshot)));
+        }).subscribeOn(schedulers.read())
+                .doOnError(e -> Log.w(TAG, "saveDisplaySnapshot: ", e))
+                .onErrorComplete();
+    }
+
+    /**
+     * Observes the forecast of a location in the application database, from the table that is
+     * refreshed in this build, see {@link BuildConfig#USE_ONE_CALL}.
+     */
+    private Flowable<List<DailyForecast>> observeDailyForecastsFromDatabase(int locationId) {
+        return BuildConfig.USE_ONE_CALL ? dailyForecastDao.observeAll(locationId)
+                : dailyForecastDao.observeFromSlots(locationId).map(WeatherRepository::toDailyForecasts);
+    }
+
+    /**
+     * Returns the refresh that is running for the given key, or starts a new one. The refresh is
+     * removed once it terminates so the next call starts a new request. When all subscribers are
+     * disposed the refresh is cancelled, including its API calls and the writes that have not
+     * started yet.
+     *
+     * @param key     Key identifying the refresh
+     * @param refresh Creates the refresh if none is running
+     * @return {@link Completable} shared by all subscribers of the same refresh
+     */
+    private Completable singleFlight(String key, RefreshFactory refresh) {
+        return Completable.defer(() -> {
+            if (!connectivityMonitor.isOnline()) {
+                queueRefresh(key);
+                return Completable.error(new ConnectivityMonitor.OfflineException());
+            }
+            synchronized (inFlight) {
+                Completable running = inFlight.get(key);
+                if (running == null) {
+                    running = refresh.create()
+                            .doOnError(e -> {
+                                if (!connectivityMonitor.isOnline()) {
+                                    queueRefresh(key);
+                                }
+                            })
+                            .doFinally(() -> {
+                                synchronized (inFlight) {
+                                    inFlight.remove(key);
+                                }
+                            })
+                            .toObservable()
+                            .share()
+                            .ignoreElements();
+                    inFlight.put(key, running);
+                } else {
+                    Log.d(TAG, "singleFlight: joining running refresh for " + key);
+                    metrics.increment(MetricsRegistry.REFRESHES_JOINED);
+                }
+                return running;
+            }
+        });
+    }
+
+    /**
+     * Remembers a refresh that failed while offline, see {@link #runPendingRefreshes()}.
+     */
+    private void queueRefresh(String key) {
+        synchronized (pendingRefreshes) {
+            if (pendingRefreshes.add(key)) {
+                Log.d(TAG, "queueRefresh: offline, refreshing " + key + " once online");
+            }
+        }
+    }
+
+    /**
+     * Starts the refreshes that failed while offline. The screens show the result through the
+     * data they observe.
+     */
+    private void runPendingRefreshes() {
+        List<String> keys;
+        synchronized (pendingRefreshes) {
+            keys = new ArrayList<>(pendingRefreshes);
+            pendingRefreshes.clear();
+        }
+        for (String key : keys) {
+            Completable refresh;
+            if (ONE_CALL.equals(key)) {
+                refresh = refreshOneCall();
+            } else if (FreshnessUtil.CURRENT_WEATHER.equals(key)) {
+                refresh = refreshCurrentWeather();
+            } else {
+                refresh = refreshDailyForecasts();
+            }
+            refresh.subscribe(() -> Log.d(TAG, "runPendingRefreshes: refreshed " + key),
+                    e -> Log.w(TAG, "runPendingRefreshes: refreshing " + key + " failed", e));
+        }
+    }
+
+    /**
+     * Executes a Retrofit {@link Call} on the {@link AppSchedulers#network()} scheduler, cancelling the
+     * call when the subscriber is disposed. The call is skipped while there is no validated network
+     * or the {@link CircuitBreaker} is open. Network errors, server errors and unexpected exceptions
+     * count as failures of the circuit breaker, any other response shows the server can be reached.
+     * A call that is disposed before it has an outcome releases the circuit breaker.
+     *
+     * @param call Retrofit {@link Call} to execute
+     * @param <T>  Type of the response body
+     * @return {@link Single} with the response body, fails with an {@link HttpException} if the
+     * response was not successful, or an {@link java.io.IOException} if the call was skipped
+     */
+    private <T> Single<T> execute(Call<T> call) {
+        return Single.defer(() -> {
+            if (!connectivityMonitor.isOnline()) {
+                metrics.increment(MetricsRegistry.CALLS_SHORT_CIRCUITED);
+                return Single.<T>error(new ConnectivityMonitor.OfflineException());
+            }
+            return Single.<T>create(emitter -> {
+                // Acquired on the network thread, a call disposed while it is queued never holds the probe.
+                if (!circuitBreaker.tryAcquire()) {
+                    metrics.increment(MetricsRegistry.CALLS_SHORT_CIRCUITED);
+                    emitter.tryOnError(new CircuitBreaker.OpenException());
+                    return;
+                }
+                AtomicBoolean recorded = new AtomicBoolean();
+                emitter.setCancellable(() -> {
+                    call.cancel();
+                    if (recorded.compareAndSet(false, true)) {
+                        circuitBreaker.release();
+                    }
+                });
+                Response<T> response;
+                try {
+                    response = call.execute();
+                } catch (IOException | RuntimeException e) {
+                    if (recorded.compareAndSet(false, true)) {
+                        if (call.isCanceled()) {
+                            circuitBreaker.release();
+                        } else {
+                            circuitBreaker.onFailure();
+                        }
+                    }
+                    emitter.tryOnError(e);
+                    return;
+                }
+                if (recorded.compareAndSet(false, true)) {
+                    if (response.code() >= 500 || response.code() == 429) {
+                        circuitBreaker.onFailure();
+                    } else {
+                        circuitBreaker.onSuccess();
+                    }
+                }
+                if (response.isSuccessful() && response.body() != null) {
+                    emitter.onSuccess(response.body());
+                } else {
+                    emitter.tryOnError(new HttpException(response));
+                }
+            }).subscribeOn(schedulers.network());
+        });
+    }
+
+    /**
+     * Converts the forecast derived from the slots for the screens, which show {@link DailyForecast}s.
+     */
+    private static List<DailyForecast> toDailyForecasts(List<DailyForecastView> days) {
+        List<DailyForecast> dailyForecasts = new ArrayList<>(days.size());
+        for (DailyForecastView day : days) {
+            dailyForecasts.add(day.toDailyForecast());
+        }
+        return dailyForecasts;
+    }
+
+    /**
+     * Observed tables of a single location, replaying the latest data to every new subscriber. They
+     * stay connected to Room once subscribed to, until the location is evicted from the cache.
+     */
+    private class LocationSnapshot {
+        private final CompositeDisposable connections = new CompositeDisposable();
+        private final Flowable<Optional<CurrentWeather>> currentWeather;
+        private final Flowable<List<DailyForecast>> dailyForecasts;
+
+        private LocationSnapshot(int locationId) {
+            currentWeather = currentWeatherDao.observeCurrentWeather(locationId)
+                    .map(rows -> rows.isEmpty() ? Optional.<CurrentWeather>empty() : Optional.of(rows.get(0)))
+                    .replay(1).autoConnect(1, connections::add);
+            dailyForecasts = observeDailyForecastsFromDatabase(locationId)
+                    .replay(1).autoConnect(1, connections::add);
+        }
+    }
+
+    /**
+     * Creates the {@link Completable} for a refresh when none is running.
+     */
+    private interface RefreshFactory {
+        Completable create();
+    }
+}
@@ -1,8 +1,15 @@
 package io.hoogland.weer2track.service;
 
+import java.util.List;
+
+import io.hoogland.weer2track.model.DailyForecastView;
+import io.hoogland.weer2track.model.ForecastSlot;
 import io.hoogland.weer2track.model.response.CurrentWeatherResponse;
 import io.hoogland.weer2track.model.response.ForecastResponse;
+import io.hoogland.weer2track.model.response.GroupResponse;
+import io.hoogland.weer2track.model.response.OneCallResponse;
 import io.hoogland.weer2track.util.Constants;
+import io.hoogland.weer2track.util.ForecastStreamParser;
 import retrofit2.Call;
 import retrofit2.http.GET;
 import retrofit2.http.Query;
@@ -13,6 +20,8 @@ import retrofit2.http.Query;
  * @author dan
  * @see <a href="https://openweathermap.org/forecast5">OpenWeatherMap 5 day weather forecast</a>
  * @see <a href="https://openweathermap.org/current">OpenWeatherMap current weather data</a>
+ * @see <a href="https://openweathermap.org/current#severalid">OpenWeatherMap current weather for several city IDs</a>
+ * @see <a href="https://openweathermap.org/api/one-call-3">OpenWeatherMap One Call API</a>
  */
 public interface WeatherService {
 
@@ -52,4 +61,61 @@ public interface WeatherService {
                                               @Query(Constants.OPENWEATHER_API_UNITS) String unit,
                                               @Query(Constants.OPENWEATHER_API_LANGUAGE) String language);
 
+    /**
+     * Creates a Retrofit {@link Call} to get 5 day forecast data from OpenWeatherMap as raw 3-hour
+     * slots. They are grouped by day in the database by {@link DailyForecastView}. The response is
+     * parsed while it is being read, see {@link ForecastStreamParser}.
+     *
+     * @param lat      Latitude used in the API call
+     * @param lon      Longitude used in the API call
+     * @param apiKey   API key used to access the OpenWeatherMap API
+     * @param unit     Unit the temperature will be displayed in
+     * @param language Language the dates will be displayed in
+     * @return A Retrofit {@link Call} with a {@link List} of {@link ForecastSlot}
+     * @see <a href="https://openweathermap.org/forecast5">OpenWeatherMap 5 day weather forecast</a>
+     */
+    @GET(Constants.OPENWEATHER_API_FORECAST)
+    Call<List<ForecastSlot>> getForecastSlots(@Query(Constants.OPENWEATHER_API_LAT) double lat,
+                                              @Query(Constants.OPENWEATHER_API_LON) double lon,
+                                              @Query(Constants.OPENWEATHER_API_KEY_PARAM) String apiKey,
+                                              @Query(Constants.OPENWEATHER_API_UNITS) String unit,
+                                              @Query(Constants.OPENWEATHER_API_LANGUAGE) String language);
+
+    /**
+     * Creates a Retrofit {@link Call} to get the current weather data of several cities from
+     * OpenWeatherMap in a single request.
+     *
+     * @param ids      Comma separated OpenWeatherMap city IDs, at most {@link Constants#OPENWEATHER_GROUP_MAX_IDS}
+     * @param apiKey   API key used to access the OpenWeatherMap API
+     * @param unit     Unit the temperature will be displayed in
+     * @param language Language the dates will be displayed in
+     * @return A Retrofit {@link Call} with a {@link GroupResponse} model containing the retrieved data
+     * @see <a href="https://openweathermap.org/current#severalid">OpenWeatherMap current weather for several city IDs</a>
+     */
+    @GET(Constants.OPENWEATHER_API_GROUP)
+    Call<GroupResponse> getCurrentWeatherGroup(@Query(Constants.OPENWEATHER_API_ID) String ids,
+                                               @Query(Constants.OPENWEATHER_API_KEY_PARAM) String apiKey,
+                                               @Query(Constants.OPENWEATHER_API_UNITS) String unit,
+                                               @Query(Constants.OPENWEATHER_API_LANGUAGE) String language);
+
+    /**
+     * Creates a Retrofit {@link Call} to get both the current weather and the daily forecast from
+     * the OpenWeatherMap One Call API in a single request.
+     *
+     * @param lat      Latitude used in the API call
+     * @param lon      Longitude used in the API call
+     * @param exclude  Comma separated parts of the response to leave out
+     * @param apiKey   API key used to access the OpenWeatherMap API
+     * @param unit     Unit the temperature will be displayed in
+     * @param language Language the dates will be displayed in
+     * @return A Retrofit {@link Call} with a {@link OneCallResponse} model containing the retrieved data
+     * @see <a href="https://openweathermap.org/api/one-call-3">OpenWeatherMap One Call API</a>
+     */
+    @GET(Constants.OPENWEATHER_API_ONE_CALL)
+    Call<OneCallResponse> getOneCall(@Query(Constants.OPENWEATHER_API_LAT) double lat,
+                                     @Query(Constants.OPENWEATHER_API_LON) double lon,
+                                     @Query(Constants.OPENWEATHER_API_EXCLUDE) String exclude,
+                                     @Query(Constants.OPENWEATHER_API_KEY_PARAM) String apiKey,
+                                     @Query(Constants.OPENWEATHER_API_UNITS) String unit,
+                                     @Query(Constants.OPENWEATHER_API_LANGUAGE) String language);
 }
@@ -0,0 +1,39 @@
+package io.hoogland.weer2track.sync;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.RxWorker;
+import androidx.work.WorkerParameters;
+
+import io.hoogland.weer2track.repository.WeatherRepository;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Worker that compacts the archive of observations and forecast slots in the background, through
+ * {@link WeatherRepository#compactArchive()}. Scheduled by {@link SyncScheduler}.
+ *
+ * @author dan
+ */
+public class ArchiveCompactionWorker extends RxWorker {
+
+    private static final String TAG = "ArchiveCompactionWorker";
+
+    public ArchiveCompactionWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+        super(context, workerParams);
+    }
+
+    @NonNull
+    @Override
+    public Single<Result> createWork() {
+        // createWork is called on the main thread, the repository is opened in the background.
+        return WeatherRepository.getInstanceAsync(getApplicationContext())
+                .flatMapCompletable(WeatherRepository::compactArchive)
+                .toSingleDefault(Result.success())
+                .onErrorReturn(e -> {
+                    Log.e(TAG, "createWork: compaction failed", e);
+                    return Result.retry();
+                });
+    }
+}
@@ -0,0 +1,88 @@
+package io.hoogland.weer2track.sync;
+
+import android.content.Context;
+
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+
+import java.util.concurrent.TimeUnit;
+
+import io.hoogland.weer2track.util.Constants;
+
+/**
+ * Schedules the {@link WeatherSyncWorker}, so the data in the application database is kept up to
+ * date without the app having to wait for the network, and the {@link ArchiveCompactionWorker}
+ * that keeps the archive bounded.
+ *
+ * @author dan
+ */
+public class SyncScheduler {
+
+    /**
+     * Unique name of the periodic sync.
+     */
+    private static final String PERIODIC_SYNC = "weather_sync";
+
+    /**
+     * Unique name of the sync that is started when the app is opened with stale data.
+     */
+    private static final String IMMEDIATE_SYNC = "weather_sync_now";
+
+    /**
+     * Unique name of the periodic archive compaction.
+     */
+    private static final String ARCHIVE_COMPACTION = "archive_compaction";
+
+    /**
+     * Schedules the periodic sync every {@link Constants#SYNC_INTERVAL_MINUTES}. A sync that is
+     * already scheduled is kept, so this can be called on every launch.
+     *
+     * @param context Context used to access the {@link WorkManager}
+     */
+    public static void schedulePeriodicSync(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(Constants.SYNC_REQUIRE_UNMETERED ? NetworkType.UNMETERED : NetworkType.CONNECTED)
+                .setRequiresCharging(Constants.SYNC_REQUIRE_CHARGING)
+                .build();
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(WeatherSyncWorker.class,
+                Constants.SYNC_INTERVAL_MINUTES, TimeUnit.MINUTES)
+                .setConstraints(constraints)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, Constants.SYNC_BACKOFF_SECONDS, TimeUnit.SECONDS)
+                .build();
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(PERIODIC_SYNC, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    /**
+     * Starts a single sync as soon as there is a network connection, unless one is already pending.
+     *
+     * @param context Context used to access the {@link WorkManager}
+     */
+    public static void syncNow(Context context) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(WeatherSyncWorker.class)
+                .setConstraints(new Constraints.Builder().setRequiredNetworkType(NetworkType.CONNECTED).build())
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, Constants.SYNC_BACKOFF_SECONDS, TimeUnit.SECONDS)
+                .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(IMMEDIATE_SYNC, ExistingWorkPolicy.KEEP, request);
+    }
+
+    /**
+     * Schedules the archive compaction every {@link Constants#ARCHIVE_COMPACTION_INTERVAL_HOURS}
+     * while the battery is not low. A compaction that is already scheduled is kept, so this can be
+     * called on every launch.
+     *
+     * @param context Context used to access the {@link WorkManager}
+     */
+    public static void scheduleArchiveCompaction(Context context) {
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(ArchiveCompactionWorker.class,
+                Constants.ARCHIVE_COMPACTION_INTERVAL_HOURS, TimeUnit.HOURS)
+                .setConstraints(new Constraints.Builder().setRequiresBatteryNotLow(true).build())
+                .build();
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(ARCHIVE_COMPACTION, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+}
@@ -0,0 +1,61 @@
+package io.hoogland.weer2track.sync;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.RxWorker;
+import androidx.work.WorkerParameters;
+
+import io.hoogland.weer2track.model.SyncStatus;
+import io.hoogland.weer2track.repository.WeatherRepository;
+import io.hoogland.weer2track.util.Constants;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Worker that refreshes the current weather and forecast of all locations in the background,
+ * through the {@link WeatherRepository}. Failed attempts are retried with the backoff configured in
+ * {@link SyncScheduler}, up to {@link Constants#SYNC_MAX_ATTEMPTS} times. Every attempt is recorded
+ * as a {@link SyncStatus}.
+ *
+ * @author dan
+ */
+public class WeatherSyncWorker extends RxWorker {
+
+    private static final String TAG = "WeatherSyncWorker";
+
+    public WeatherSyncWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+        super(context, workerParams);
+    }
+
+    @NonNull
+    @Override
+    public Single<Result> createWork() {
+        int attempt = getRunAttemptCount();
+        // createWork is called on the main thread, the repository is opened in the background.
+        return WeatherRepository.getInstanceAsync(getApplicationContext())
+                .flatMap(repository -> sync(repository, attempt));
+    }
+
+    /**
+     * Refreshes the data of all locations and records the outcome of the attempt.
+     *
+     * @param repository {@link WeatherRepository} to refresh
+     * @param attempt    Number of the attempt, starting at 0
+     * @return {@link Single} with the {@link Result} of the attempt
+     */
+    private Single<Result> sync(WeatherRepository repository, int attempt) {
+        return repository.recordSyncStatus(SyncStatus.STATE_RUNNING, attempt, null)
+                .andThen(Completable.mergeArrayDelayError(repository.refreshCurrentWeather(), repository.refreshDailyForecasts()))
+                .andThen(Completable.defer(() -> repository.recordSyncStatus(SyncStatus.STATE_SUCCEEDED, attempt, null)))
+                .toSingleDefault(Result.success())
+                .onErrorResumeNext(e -> {
+                    Log.e(TAG, "createWork: sync attempt " + attempt + " failed", e);
+                    Result result = attempt + 1 < Constants.SYNC_MAX_ATTEMPTS ? Result.retry() : Result.failure();
+                    return repository.recordSyncStatus(SyncStatus.STATE_FAILED, attempt, e.getMessage())
+                            .onErrorComplete()
+                            .toSingleDefault(result);
+                });
+    }
+}
@@ -0,0 +1,172 @@
+package io.hoogland.weer2track.ui;
+
+import android.content.Context;
+
+import androidx.core.os.ConfigurationCompat;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.hoogland.weer2track.R;
+import io.hoogland.weer2track.model.CurrentWeather;
+import io.hoogland.weer2track.model.DailyForecast;
+import io.hoogland.weer2track.ui.currentweather.CurrentWeatherItem;
+import io.hoogland.weer2track.ui.forecast.DailyForecastItem;
+import io.hoogland.weer2track.util.ConditionUtil;
+import io.hoogland.weer2track.util.Constants;
+import io.hoogland.weer2track.util.IconUtil;
+import io.hoogland.weer2track.util.TemperatureUnit;
+
+/**
+ * Turns models into display models once per data change, so binding them to views is plain field
+ * assignment. Temperatures are converted from Kelvin to the {@link TemperatureUnit} of the formatter
+ * and descriptions are looked up by their condition ID in the language of the device. Formatters and
+ * String resources are looked up once when the formatter is created, formatters are kept per unit
+ * and language by {@link #get(Context, TemperatureUnit)}.
+ *
+ * @author dan
+ */
+public class DisplayFormatter {
+
+    /**
+     * Formatters by unit and language tag, there are only a few combinations.
+     */
+    private static final Map<String, DisplayFormatter> FORMATTERS = new ConcurrentHashMap<>();
+
+    /**
+     * Locale used to display dates and numbers.
+     */
+    private final Locale locale;
+    private final TemperatureUnit unit;
+
+    /**
+     * Formatters are immutable and thread-safe.
+     */
+    private final DateTimeFormatter dateFormatter;
+    private final DateTimeFormatter dateTimeFormatter;
+
+    /**
+     * Not thread-safe, only used inside the synchronized methods.
+     */
+    private final DecimalFormat decimalFormat;
+
+    private final Map<Integer, String> descriptions;
+
+    private final String minTempLabel;
+    private final String maxTempLabel;
+    private final String precipitationLabel;
+    private final String currentTempLabel;
+    private final String feelsLikeLabel;
+    private final String lastModifiedLabel;
+
+    /**
+     * @param context Context used to access String resources, its language is used
+     * @param unit    {@link TemperatureUnit} to show temperatures in
+     */
+    public DisplayFormatter(Context context, TemperatureUnit unit) {
+        this.unit = unit;
+        locale = getLocale(context);
+        dateFormatter = DateTimeFormatter.ofPattern(Constants.DATE_FORMAT, locale);
+        dateTimeFormatter = DateTimeFormatter.ofPattern(Constants.DATE_FORMAT_FULL, locale);
+        decimalFormat = new DecimalFormat(Constants.DECIMAL_FORMAT, DecimalFormatSymbols.getInstance(locale));
+        descriptions = ConditionUtil.getDescriptions(context);
+        minTempLabel = context.getString(R.string.label_mintemp);
+        maxTempLabel = context.getString(R.string.label_maxtemp);
+        precipitationLabel = context.getString(R.string.label_precipitation);
+        currentTempLabel = context.getString(R.string.label_current_temp);
+        feelsLikeLabel = context.getString(R.string.label_feels_like_temp);
+        lastModifiedLabel = context.getString(R.string.label_last_modified);
+    }
+
+    /**
+     * Supplies the formatter for the given unit and the language of the given context. A formatter
+     * is created once for every combination, so switching back and forth only formats the data.
+     *
+     * @param context Context used to access String resources, its language is used
+     * @param unit    {@link TemperatureUnit} to show temperatures in
+     * @return Shared {@link DisplayFormatter}
+     */
+    public static DisplayFormatter get(Context context, TemperatureUnit unit) {
+        String key = unit.name() + '_' + getLocale(context).toLanguageTag();
+        DisplayFormatter formatter = FORMATTERS.get(key);
+        if (formatter == null) {
+            formatter = new DisplayFormatter(context, unit);
+            FORMATTERS.put(key, formatter);
+        }
+        return formatter;
+    }
+
+    /**
+     * Creates display models for a {@link List} of {@link DailyForecast}, keeping the order.
+     *
+     * @param forecasts {@link List} of {@link DailyForecast} to be displayed
+     * @return {@link List} of {@link DailyForecastItem}
+     */
+    public synchronized List<DailyForecastItem> toForecastItems(List<DailyForecast> forecasts) {
+        List<DailyForecastItem> items = new ArrayList<>(forecasts.size());
+        for (DailyForecast forecast : forecasts) {
+            items.add(new DailyForecastItem(
+                    forecast.getDate().toEpochDay(),
+                    StringUtils.capitalize(dateFormatter.format(forecast.getDate())),
+                    describe(forecast.getConditionId(), forecast.getDescription()),
+                    String.format(locale, minTempLabel, formatTemp(forecast.getMinTemp())),
+                    String.format(locale, maxTempLabel, formatTemp(forecast.getMaxTemp())),
+                    String.format(locale, precipitationLabel, Math.round(forecast.getPrecipitationChance() * 100)),
+                    forecast.getIcon(),
+                    IconUtil.getIconResource(forecast.getIcon()),
+                    forecast.getModifiedAt() == null ? null
+                            : String.format(locale, lastModifiedLabel, dateTimeFormatter.format(forecast.getModifiedAt()))));
+        }
+        return items;
+    }
+
+    /**
+     * Creates the display model for a {@link CurrentWeather}.
+     *
+     * @param weather {@link CurrentWeather} to be displayed
+     * @return {@link CurrentWeatherItem}
+     */
+    public synchronized CurrentWeatherItem toCurrentWeatherItem(CurrentWeather weather) {
+        String dateTime = dateTimeFormatter.format(weather.getDateTime());
+        return new CurrentWeatherItem(
+                dateTime,
+                String.format(locale, lastModifiedLabel, dateTime),
+                String.format(locale, currentTempLabel, formatRoundedTemp(weather.getTemp())),
+                String.format(locale, feelsLikeLabel, formatRoundedTemp(weather.getFeelsLikeTemp())),
+                describe(weather.getConditionId(), weather.getDescription()),
+                weather.getIcon(),
+                IconUtil.getIconResource(weather.getIcon()));
+    }
+
+    private String formatTemp(double kelvin) {
+        return decimalFormat.format(unit.fromKelvin(kelvin)) + unit.getSymbol();
+    }
+
+    private String formatRoundedTemp(double kelvin) {
+        return Math.round(unit.fromKelvin(kelvin)) + unit.getSymbol();
+    }
+
+    /**
+     * Looks up the description of a condition in the language of the formatter.
+     *
+     * @param conditionId ID of the condition
+     * @param fallback    Description fetched from OpenWeatherMap, used for unknown conditions
+     * @return Capitalized description
+     */
+    private String describe(int conditionId, String fallback) {
+        String description = descriptions.get(conditionId);
+        return StringUtils.capitalize(description == null ? fallback : description);
+    }
+
+    private static Locale getLocale(Context context) {
+        return ConfigurationCompat.getLocales(context.getResources().getConfiguration()).get(0);
+    }
+}
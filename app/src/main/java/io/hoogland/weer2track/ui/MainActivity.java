@@ -1,7 +1,13 @@
 package io.hoogland.weer2track.ui;
 
+import android.content.Intent;
 import android.os.Bundle;
+import android.util.Log;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.widget.Toast;
 
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.navigation.NavController;
 import androidx.navigation.Navigation;
@@ -10,8 +16,18 @@ import androidx.navigation.ui.NavigationUI;
 
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 
+import java.util.List;
+
 import io.hoogland.weer2track.R;
 import io.hoogland.weer2track.databinding.ActivityMainBinding;
+import io.hoogland.weer2track.databinding.DialogAddLocationBinding;
+import io.hoogland.weer2track.model.Location;
+import io.hoogland.weer2track.repository.WeatherRepository;
+import io.hoogland.weer2track.util.LocationUtil;
+import io.hoogland.weer2track.util.SettingsUtil;
+import io.hoogland.weer2track.util.TemperatureUnit;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
 
 /**
  * Activity for the main screen of the application, showing current & forecast weather data.
@@ -20,12 +36,16 @@ import io.hoogland.weer2track.databinding.ActivityMainBinding;
  */
 public class MainActivity extends AppCompatActivity {
 
+    private static final String TAG = "MainActivity";
+
     /**
      * Variable used in the app to keep track of whether or not the data could be loaded
      * successfully.
      */
     public static boolean isOldData = false;
 
+    private final CompositeDisposable disposables = new CompositeDisposable();
+
     /**
      * Method called when the {@link AppCompatActivity} is loaded. Initiates parts of the UI that are
      * shared between the fragments, like the navbar.
@@ -48,5 +68,143 @@ public class MainActivity extends AppCompatActivity {
         NavController navController = Navigation.findNavController(this, R.id.nav_host_fragment_activity_main);
         NavigationUI.setupActionBarWithNavController(this, navController, appBarConfiguration);
         NavigationUI.setupWithNavController(binding.navView, navController);
+
+        // Hidden debug screen with the metrics of the app.
+        binding.navView.findViewById(R.id.navigation_forecast).setOnLongClickListener(view -> {
+            startActivity(new Intent(this, MetricsActivity.class));
+            return true;
+        });
+
+        // Data synced in the background is old when the latest sync failed.
+        disposables.add(WeatherRepository.getInstanceAsync(getApplicationContext())
+                .flatMapPublisher(WeatherRepository::observeSyncStatus)
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(status -> {
+                    if (status.isPresent()) {
+                        isOldData = status.get().isFailed();
+                    }
+                }, e -> isOldData = true));
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.main_menu, menu);
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == R.id.action_select_location) {
+            disposables.add(WeatherRepository.getInstanceAsync(getApplicationContext())
+                    .flatMap(repository -> repository.observeLocations().firstOrError())
+                    .observeOn(AndroidSchedulers.mainThread())
+                    .subscribe(this::showSelectLocationDialog, e -> Log.e(TAG, "onError: ", e)));
+            return true;
+        }
+        if (item.getItemId() == R.id.action_add_location) {
+            showAddLocationDialog();
+            return true;
+        }
+        if (item.getItemId() == R.id.action_temperature_unit) {
+            showTemperatureUnitDialog();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    /**
+     * Lets the user choose the {@link Location} shown on the screens. The activity is recreated, so
+     * the fragments observe the data of the chosen location.
+     *
+     * @param locations All {@link Location}s the weather is tracked for
+     */
+    private void showSelectLocationDialog(List<Location> locations) {
+        String[] names = new String[locations.size()];
+        int selected = -1;
+        int selectedId = LocationUtil.getSelectedLocationId(this);
+        for (int i = 0; i < locations.size(); i++) {
+            names[i] = locations.get(i).getName();
+            if (locations.get(i).getId() == selectedId) {
+                selected = i;
+            }
+        }
+        new AlertDialog.Builder(this)
+                .setTitle(R.string.action_select_location)
+                .setSingleChoiceItems(names, selected, (dialog, which) -> {
+                    dialog.dismiss();
+                    selectLocation(locations.get(which).getId());
+                })
+                .show();
+    }
+
+    /**
+     * Lets the user add a {@link Location} by its name and coordinates. The new location is shown
+     * once it is saved, its weather is shown once it is fetched.
+     */
+    private void showAddLocationDialog() {
+        DialogAddLocationBinding binding = DialogAddLocationBinding.inflate(getLayoutInflater());
+        new AlertDialog.Builder(this)
+                .setTitle(R.string.action_add_location)
+                .setView(binding.getRoot())
+                .setPositiveButton(android.R.string.ok, (dialog, which) -> {
+                    String name = binding.locationName.getText().toString().trim();
+                    double lat;
+                    double lon;
+                    try {
+                        lat = Double.parseDouble(binding.locationLat.getText().toString());
+                        lon = Double.parseDouble(binding.locationLon.getText().toString());
+                    } catch (NumberFormatException e) {
+                        lat = Double.NaN;
+                        lon = Double.NaN;
+                    }
+                    if (name.isEmpty() || !(Math.abs(lat) <= 90) || !(Math.abs(lon) <= 180)) {
+                        Toast.makeText(this, R.string.label_invalid_location, Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    Location location = new Location(name, lat, lon);
+                    disposables.add(WeatherRepository.getInstanceAsync(getApplicationContext())
+                            .flatMap(repository -> repository.addLocation(location))
+                            .observeOn(AndroidSchedulers.mainThread())
+                            .subscribe(this::selectLocation, e -> Log.e(TAG, "onError: ", e)));
+                })
+                .setNegativeButton(android.R.string.cancel, null)
+                .show();
+    }
+
+    /**
+     * Shows the given location on the screens from now on.
+     *
+     * @param locationId ID of the {@link Location} to show
+     */
+    private void selectLocation(int locationId) {
+        if (locationId != LocationUtil.getSelectedLocationId(this)) {
+            LocationUtil.setSelectedLocationId(this, locationId);
+            recreate();
+        }
+    }
+
+    /**
+     * Lets the user choose the {@link TemperatureUnit}. The fragments observe the setting and convert
+     * the data they already have, nothing is fetched again.
+     */
+    private void showTemperatureUnitDialog() {
+        TemperatureUnit[] units = TemperatureUnit.values();
+        String[] names = new String[units.length];
+        for (int i = 0; i < units.length; i++) {
+            names[i] = getString(units[i].getNameRes());
+        }
+        new AlertDialog.Builder(this)
+                .setTitle(R.string.action_temperature_unit)
+                .setSingleChoiceItems(names, SettingsUtil.getTemperatureUnit(this).ordinal(), (dialog, which) -> {
+                    SettingsUtil.setTemperatureUnit(this, units[which]);
+                    dialog.dismiss();
+                })
+                .show();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        disposables.dispose();
     }
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+package io.hoogland.weer2track.ui;
+
+import android.os.Bundle;
+import android.util.Log;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.hoogland.weer2track.R;
+import io.hoogland.weer2track.databinding.ActivityMetricsBinding;
+import io.hoogland.weer2track.util.Constants;
+import io.hoogland.weer2track.util.LatencyHistogram;
+import io.hoogland.weer2track.util.MetricsRegistry;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Hidden debug screen that shows the metrics of the {@link MetricsRegistry}, opened by long
+ * pressing the forecast tab of {@link MainActivity}. The metrics can be exported as a JSON
+ * snapshot to the external files directory of the app, from where it can be pulled with adb.
+ *
+ * @author dan
+ */
+public class MetricsActivity extends AppCompatActivity {
+
+    private static final String TAG = "MetricsActivity";
+
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private TextView metricsTextView;
+
+    /**
+     * Subscriptions while the screen is visible, cleared when it is paused.
+     */
+    private final CompositeDisposable disposables = new CompositeDisposable();
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        ActivityMetricsBinding binding = ActivityMetricsBinding.inflate(getLayoutInflater());
+        setContentView(binding.getRoot());
+
+        metricsTextView = binding.metricsText;
+        binding.exportButton.setOnClickListener(view -> exportSnapshot());
+    }
+
+    /**
+     * Shows the metrics and updates them every second while the screen is visible.
+     */
+    @Override
+    protected void onResume() {
+        super.onResume();
+        disposables.add(Observable.interval(0, 1, TimeUnit.SECONDS, AndroidSchedulers.mainThread())
+                .subscribe(tick -> metricsTextView.setText(formatMetrics())));
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        disposables.clear();
+    }
+
+    /**
+     * Writes a JSON snapshot of the metrics off the main thread, see
+     * {@link MetricsRegistry#writeSnapshot(File)}.
+     */
+    private void exportSnapshot() {
+        File directory = getExternalFilesDir(Constants.METRICS_DIR);
+        if (directory == null) {
+            directory = new File(getFilesDir(), Constants.METRICS_DIR);
+        }
+        File target = directory;
+        disposables.add(Single.fromCallable(() -> metrics.writeSnapshot(target))
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(file -> Toast.makeText(this, getString(R.string.label_metrics_exported, file.getPath()),
+                                Toast.LENGTH_LONG).show(),
+                        e -> {
+                            Log.e(TAG, "exportSnapshot: ", e);
+                            Toast.makeText(this, getString(R.string.label_metrics_export_failed, e.getMessage()),
+                                    Toast.LENGTH_LONG).show();
+                        }));
+    }
+
+    /**
+     * Formats the histograms as a table in milliseconds, followed by the counters and gauges.
+     */
+    private String formatMetrics() {
+        StringBuilder text = new StringBuilder(String.format(Locale.ROOT, "%-24s %6s %8s %8s %8s %8s%n",
+                "ms", "count", "p50", "p95", "p99", "max"));
+        for (Map.Entry<String, LatencyHistogram> entry : metrics.getHistograms().entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            text.append(String.format(Locale.ROOT, "%-24s %6d %8.1f %8.1f %8.1f %8.1f%n", entry.getKey(),
+                    histogram.getCount(), histogram.getPercentile(50) / 1000.0, histogram.getPercentile(95) / 1000.0,
+                    histogram.getPercentile(99) / 1000.0, histogram.getMax() / 1000.0));
+        }
+        text.append(System.lineSeparator());
+        for (Map.Entry<String, Long> counter : metrics.getCounters().entrySet()) {
+            text.append(String.format(Locale.ROOT, "%-24s %6d%n", counter.getKey(), counter.getValue()));
+        }
+        for (Map.Entry<String, Long> gauge : metrics.getGauges().entrySet()) {
+            text.append(String.format(Locale.ROOT, "%-24s %6d%n", gauge.getKey(), gauge.getValue()));
+        }
+        return text.toString();
+    }
+}
@@ -8,29 +8,17 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.splashscreen.SplashScreen;
 
-import java.util.List;
-
-import io.hoogland.weer2track.BuildConfig;
-import io.hoogland.weer2track.db.AppDatabase;
 import io.hoogland.weer2track.model.CurrentWeather;
 import io.hoogland.weer2track.model.DailyForecast;
-import io.hoogland.weer2track.model.dao.CurrentWeatherDao;
-import io.hoogland.weer2track.model.dao.DailyForecastDao;
-import io.hoogland.weer2track.model.response.CurrentWeatherResponse;
-import io.hoogland.weer2track.model.response.ForecastResponse;
-import io.hoogland.weer2track.service.WeatherService;
+import io.hoogland.weer2track.repository.WeatherRepository;
+import io.hoogland.weer2track.sync.SyncScheduler;
 import io.hoogland.weer2track.ui.currentweather.CurrentWeatherFragment;
 import io.hoogland.weer2track.ui.forecast.ForecastFragment;
 import io.hoogland.weer2track.util.Constants;
-import io.hoogland.weer2track.util.ForecastUtil;
-import io.hoogland.weer2track.util.NetworkUtil;
-import io.reactivex.rxjava3.annotations.NonNull;
-import io.reactivex.rxjava3.core.CompletableObserver;
-import io.reactivex.rxjava3.disposables.Disposable;
-import io.reactivex.rxjava3.schedulers.Schedulers;
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+import io.hoogland.weer2track.util.FreshnessUtil;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
 
 /**
  * Activity class for the splash screen, responsible for loading data on application startup.
@@ -42,8 +30,20 @@ public class SplashActivity extends AppCompatActivity {
     private static final String TAG = "SplashActivity";
 
     /**
-     * Method called when the {@link AppCompatActivity} is loaded. Responsible for executing OpenWeatherMap
-     * API calls and saving the results in the application database for display.
+     * Whether or not {@link MainActivity} has already been started.
+     */
+    private boolean started = false;
+
+    /**
+     * Refreshes started by the splash screen, cancelled when it is destroyed.
+     */
+    private final CompositeDisposable disposables = new CompositeDisposable();
+
+    /**
+     * Method called when the {@link AppCompatActivity} is loaded. Schedules the background sync of
+     * the data in the application database, see {@link SyncScheduler}. When there is data the app
+     * is opened straight away, data older than {@link Constants#CACHE_TTL_MINUTES} is synced in the
+     * background. Only on the first launch the splash screen waits for the network.
      *
      * @param savedInstanceState Previously saved state, if applicable (e.g. orientation change)
      */
@@ -51,136 +51,69 @@ public class SplashActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         // TODO: if time implement Android 12 splashscreen properly
         SplashScreen splashScreen = SplashScreen.installSplashScreen(this);
-        splashScreen.setKeepOnScreenCondition(() -> true);
+        splashScreen.setKeepOnScreenCondition(() -> !started);
         super.onCreate(savedInstanceState);
 
-        // Open application database connection & prepare DAO's
-        AppDatabase appDatabase = AppDatabase.getInstance(getApplicationContext());
-        DailyForecastDao dailyForecastDao = appDatabase.dailyForecastDao();
-        CurrentWeatherDao currentWeatherDao = appDatabase.currentWeatherDao();
-
-        // Prepare network calls for current weather
-        Call<CurrentWeatherResponse> wResponse = NetworkUtil.getWeatherServiceInstance()
-                .getCurrentWeather(Constants.OPENWEATHER_API_LAT_VALUE, Constants.OPENWEATHER_API_LON_VALUE,
-                        BuildConfig.WEATHER_API_KEY, Constants.OPENWEATHER_API_UNITS_VALUE, Constants.OPENWEATHER_API_LANGUAGE_VALUE);
+        SyncScheduler.schedulePeriodicSync(this);
+        SyncScheduler.scheduleArchiveCompaction(this);
 
-        Log.d(TAG, "wResponse: starting wResponse");
-        wResponse.enqueue(new Callback<CurrentWeatherResponse>() {
-
-            /**
-             * When the response is successful, convert the {@link CurrentWeatherResponse} into a
-             * {@link CurrentWeather} object and insert it into the application database.
-             *
-             * @param call The original call created using {@link WeatherService}
-             * @param response Response object containing data from the API call serialized as a
-             * {@link CurrentWeatherResponse}
-             */
-            @Override
-            public void onResponse(Call<CurrentWeatherResponse> call, Response<CurrentWeatherResponse> response) {
-                // process data to Room objects
-                CurrentWeather currentWeather = new CurrentWeather(response.body());
-                Log.d(TAG, "wResponse onResponse: retrieved current weather response body");
-                // Save data from response in Room
-                currentWeatherDao.insert(currentWeather).subscribeOn(Schedulers.io())
-                        .subscribe(new CompletableObserver() {
-                            @Override
-                            public void onSubscribe(@NonNull Disposable d) {
-                            }
-
-                            @Override
-                            public void onComplete() {
-                                Log.d(TAG, "wResponse onComplete: inserted current weather into database successfully");
-                            }
-
-                            @Override
-                            public void onError(@NonNull Throwable e) {
-                                Log.e(TAG, "onError: ", e);
-                            }
-                        });
-            }
-
-            @Override
-            public void onFailure(Call<CurrentWeatherResponse> call, Throwable t) {
-                call.cancel();
+        if (FreshnessUtil.wasRefreshed(this, FreshnessUtil.CURRENT_WEATHER)
+                && FreshnessUtil.wasRefreshed(this, FreshnessUtil.DAILY_FORECAST)) {
+            if (!FreshnessUtil.isFresh(this, FreshnessUtil.CURRENT_WEATHER)
+                    || !FreshnessUtil.isFresh(this, FreshnessUtil.DAILY_FORECAST)) {
+                Log.d(TAG, "onCreate: cached data is stale, syncing in background");
+                SyncScheduler.syncNow(this);
             }
-        });
-
-        // Prepare network calls for forecast
-        Call<ForecastResponse> fResponse = NetworkUtil.getWeatherServiceInstance()
-                .getWeatherForecast(Constants.OPENWEATHER_API_LAT_VALUE, Constants.OPENWEATHER_API_LON_VALUE,
-                        BuildConfig.WEATHER_API_KEY, Constants.OPENWEATHER_API_UNITS_VALUE, Constants.OPENWEATHER_API_LANGUAGE_VALUE);
-
-        // Execute forecast network call
-        Log.d(TAG, "fResponse: starting fResponse");
-        fResponse.enqueue(new Callback<ForecastResponse>() {
-
-            /**
-             * When the response is successful, delete old table entries, convert the
-             * {@link ForecastResponse} into a {@link DailyForecast} object and insert it into the
-             * application database.
-             *
-             * @param call The original call created using {@link WeatherService}
-             * @param response Response object containing data from the API call serialized as a
-             * {@link ForecastResponse}
-             */
-            @Override
-            public void onResponse(Call<ForecastResponse> call, Response<ForecastResponse> response) {
-                if (response.body() != null) {
-                    Log.d(TAG, "fResponse onResponse: retrieved forecast response body");
-                    // Delete existing rows if they exist.
-                    dailyForecastDao.deleteAll().subscribeOn(Schedulers.io()).subscribe(new CompletableObserver() {
-                        @Override
-                        public void onSubscribe(@NonNull Disposable d) {
-                        }
-
-                        @Override
-                        public void onComplete() {
-                            Log.d(TAG, "fResponse onComplete: deleted all rows in database");
-                            List<DailyForecast> forecastList = ForecastUtil.forecastResponseToDaily(response.body());
-                            dailyForecastDao.insertWithTimestamp(forecastList).subscribeOn(Schedulers.io())
-                                    .subscribe(new CompletableObserver() {
-                                        @Override
-                                        public void onSubscribe(@NonNull Disposable d) {
-                                        }
+            startMainActivity();
+            return;
+        }
+
+        Log.d(TAG, "onCreate: refreshing current weather and forecast");
+        disposables.add(WeatherRepository.getInstanceAsync(getApplicationContext())
+                .flatMapCompletable(repository -> Completable.mergeArrayDelayError(
+                        repository.refreshCurrentWeather(), repository.refreshDailyForecasts()))
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(this::onRefreshed, this::onRefreshFailed));
+    }
 
-                                        @Override
-                                        public void onComplete() {
-                                            Intent intent = new Intent(SplashActivity.this, MainActivity.class);
-                                            startActivity(intent);
-                                            finish();
-                                            Log.d(TAG, "fResponse onComplete: inserted forecast into database successfully");
-                                        }
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        disposables.dispose();
+    }
 
-                                        @Override
-                                        public void onError(@NonNull Throwable e) {
-                                            Log.e(TAG, "onError: ", e);
-                                        }
-                                    });
-                        }
+    /**
+     * Called when the {@link CurrentWeather} and the {@link DailyForecast} list have been retrieved
+     * and saved in the application database, opens {@link MainActivity}.
+     */
+    private void onRefreshed() {
+        Log.d(TAG, "onComplete: refreshed current weather and forecast");
+        startMainActivity();
+    }
 
-                        @Override
-                        public void onError(@NonNull Throwable e) {
-                        }
-                    });
-                }
-            }
+    /**
+     * Called when the refresh fails. Sets the variable that {@link CurrentWeatherFragment}
+     * and {@link ForecastFragment} use in order to show the no internet connection text.
+     *
+     * @param e Information as to why the refresh failed
+     */
+    private void onRefreshFailed(Throwable e) {
+        Log.e(TAG, "onError: error in network request", e);
+        MainActivity.isOldData = true;
+        Toast.makeText(SplashActivity.this, "No internet connection", Toast.LENGTH_SHORT).show();
+        startMainActivity();
+    }
 
-            /**
-             * Called when the network call fails. Sets the variable that {@link CurrentWeatherFragment}
-             * and {@link ForecastFragment} use in order to show the no internet connection text.
-             *
-             * @param call The original call created using {@link WeatherService}
-             * @param t Information as to why the call failed
-             */
-            @Override
-            public void onFailure(Call<ForecastResponse> call, Throwable t) {
-                Log.e(TAG, "onFailure: error in network request", t);
-                Toast.makeText(SplashActivity.this, "No internet connection", Toast.LENGTH_SHORT).show();
-                Intent intent = new Intent(SplashActivity.this, MainActivity.class);
-                MainActivity.isOldData = true;
-                startActivity(intent);
-            }
-        });
+    /**
+     * Opens {@link MainActivity} and closes the splash screen, if that hasn't happened yet.
+     */
+    private void startMainActivity() {
+        if (started) {
+            return;
+        }
+        started = true;
+        Intent intent = new Intent(SplashActivity.this, MainActivity.class);
+        startActivity(intent);
+        finish();
     }
 }
-
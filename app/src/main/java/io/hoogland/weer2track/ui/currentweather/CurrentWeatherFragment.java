@@ -10,32 +10,32 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.core.util.Pair;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
-import com.squareup.picasso.Picasso;
+import java.util.Optional;
 
-import io.hoogland.weer2track.BuildConfig;
-import io.hoogland.weer2track.R;
+import io.hoogland.weer2track.AppContainer;
 import io.hoogland.weer2track.databinding.FragmentCurrentweatherBinding;
-import io.hoogland.weer2track.db.AppDatabase;
 import io.hoogland.weer2track.model.CurrentWeather;
-import io.hoogland.weer2track.model.dao.CurrentWeatherDao;
-import io.hoogland.weer2track.model.response.CurrentWeatherResponse;
-import io.hoogland.weer2track.service.WeatherService;
+import io.hoogland.weer2track.model.DisplaySnapshot;
+import io.hoogland.weer2track.repository.WeatherRepository;
+import io.hoogland.weer2track.ui.DisplayFormatter;
 import io.hoogland.weer2track.ui.MainActivity;
 import io.hoogland.weer2track.ui.forecast.ForecastFragment;
-import io.hoogland.weer2track.util.Constants;
-import io.hoogland.weer2track.util.NetworkUtil;
+import io.hoogland.weer2track.util.IconUtil;
+import io.hoogland.weer2track.util.LocationUtil;
+import io.hoogland.weer2track.util.MetricsRegistry;
+import io.hoogland.weer2track.util.SettingsUtil;
+import io.hoogland.weer2track.util.TemperatureUnit;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
-import io.reactivex.rxjava3.core.CompletableObserver;
-import io.reactivex.rxjava3.core.SingleObserver;
-import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.core.BackpressureStrategy;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
 
 /**
  * Fragment class that shows the current weather.
@@ -45,8 +45,7 @@ import retrofit2.Response;
 public class CurrentWeatherFragment extends Fragment {
 
     private FragmentCurrentweatherBinding binding;
-    private final AppDatabase appDatabase = AppDatabase.getInstance(this.getContext());
-    private final CurrentWeatherDao currentWeatherDao = appDatabase.currentWeatherDao();
+    private Single<WeatherRepository> repository;
     private static final String TAG = "currentWeatherFragment";
 
     private TextView dateTimeView;
@@ -57,6 +56,14 @@ public class CurrentWeatherFragment extends Fragment {
     private TextView noDataView;
     private TextView oldDataView;
     private SwipeRefreshLayout refreshLayout;
+    private CurrentWeatherItem shownWeather;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+
+    /**
+     * Subscriptions of the current view, cleared when the view is destroyed so running refreshes are
+     * cancelled and no callback touches the views after that.
+     */
+    private final CompositeDisposable disposables = new CompositeDisposable();
 
     /**
      * @param inflater           The LayoutInflater object that can be used to inflate
@@ -73,14 +80,15 @@ public class CurrentWeatherFragment extends Fragment {
         CurrentWeatherViewModel currentWeatherViewModel =
                 new ViewModelProvider(this).get(CurrentWeatherViewModel.class);
 
+        repository = WeatherRepository.getInstanceAsync(inflater.getContext());
         binding = FragmentCurrentweatherBinding.inflate(inflater, container, false);
         View root = binding.getRoot();
 
         bindUiElements();
 
-        loadDataIntoView(currentWeatherViewModel, inflater.getContext());
+        loadDataIntoView(currentWeatherViewModel);
 
-        refreshLayout.setOnRefreshListener(() -> refreshData(currentWeatherViewModel, inflater.getContext()));
+        refreshLayout.setOnRefreshListener(() -> refreshData(currentWeatherViewModel));
 
         currentWeatherViewModel.getDateTime().observe(getViewLifecycleOwner(), dateTimeView::setText);
         currentWeatherViewModel.getCurrentTemp().observe(getViewLifecycleOwner(), currentTempView::setText);
@@ -93,6 +101,7 @@ public class CurrentWeatherFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        disposables.clear();
         binding = null;
     }
 
@@ -112,116 +121,122 @@ public class CurrentWeatherFragment extends Fragment {
     }
 
     /**
-     * Loads data from the application database using {@link CurrentWeatherDao}.
+     * Observes the latest data of the selected location through the {@link WeatherRepository}. The data in memory is shown
+     * straight away, and the views are updated every time a refresh changes the current weather.
+     * On a cold start the {@link DisplaySnapshot} is shown until the application database is opened.
+     * The data is formatted by the {@link DisplayFormatter} of the chosen {@link TemperatureUnit} on a
+     * computation thread before it reaches the main thread, and formatted again when the unit is changed.
      *
      * @param currentWeatherViewModel ViewModel that contains populates the Views inside the fragment
-     * @param context                 Context used to access String resources
      */
-    private void loadDataIntoView(CurrentWeatherViewModel currentWeatherViewModel, Context context) {
-        appDatabase.currentWeatherDao().getCurrentWeather().subscribeOn(Schedulers.io())
+    private void loadDataIntoView(CurrentWeatherViewModel currentWeatherViewModel) {
+        Context context = requireContext();
+        int locationId = LocationUtil.getSelectedLocationId(requireContext());
+        Flowable<Optional<CurrentWeather>> currentWeather = repository
+                .flatMapPublisher(weatherRepository -> weatherRepository.observeCurrentWeather(locationId));
+        AppContainer container = AppContainer.from(requireContext());
+        // The snapshot only helps while the database is opened, and is never waited for on the main thread.
+        DisplaySnapshot snapshot = !container.isWeatherRepositoryReady() && container.isDisplaySnapshotReady()
+                ? container.getDisplaySnapshot() : null;
+        if (snapshot != null && snapshot.getLocationId() == locationId && snapshot.getCurrentWeather() != null) {
+            currentWeather = currentWeather.startWithItem(Optional.of(snapshot.getCurrentWeather()));
+        }
+        disposables.add(Flowable.combineLatest(currentWeather,
+                        SettingsUtil.observeTemperatureUnit(context).toFlowable(BackpressureStrategy.LATEST), Pair::new)
+                .observeOn(Schedulers.computation())
+                .map(data -> data.first.map(DisplayFormatter.get(context, data.second)::toCurrentWeatherItem))
                 .observeOn(AndroidSchedulers.mainThread())
-                .subscribe(new SingleObserver<CurrentWeather>() {
-                    @Override
-                    public void onSubscribe(@io.reactivex.rxjava3.annotations.NonNull Disposable d) {
+                .subscribe(item -> {
+                    if (item.isPresent()) {
+                        showWeather(item.get(), currentWeatherViewModel);
+                    } else {
+                        showNoData();
                     }
+                }, e -> {
+                    Log.e(TAG, "onError: ", e);
+                    showNoData();
+                }));
+    }
 
-                    @Override
-                    public void onSuccess(@io.reactivex.rxjava3.annotations.NonNull CurrentWeather weather) {
-                        if (MainActivity.isOldData) {
-                            oldDataView.setVisibility(View.VISIBLE);
-                        }
-                        currentWeatherViewModel.populateWeatherData(weather, context);
-                        Picasso.get().load(String.format(Constants.OPENWEATHER_ICON_URL, weather.getIcon())).into(iconView);
-                        if (refreshLayout.isRefreshing()) {
-                            refreshLayout.setRefreshing(false);
-                        }
-                    }
+    /**
+     * Shows the given {@link CurrentWeatherItem}. The time it takes is recorded in
+     * {@link MetricsRegistry#UI_BIND}.
+     *
+     * @param weather                 {@link CurrentWeatherItem} to be displayed
+     * @param currentWeatherViewModel ViewModel that contains populates the Views inside the fragment
+     */
+    private void showWeather(CurrentWeatherItem weather, CurrentWeatherViewModel currentWeatherViewModel) {
+        long start = System.nanoTime();
+        shownWeather = weather;
+        oldDataView.setVisibility(MainActivity.isOldData ? View.VISIBLE : View.GONE);
+        noDataView.setVisibility(View.GONE);
+        dateTimeView.setVisibility(View.VISIBLE);
+        currentTempView.setVisibility(View.VISIBLE);
+        feelsLikeTempView.setVisibility(View.VISIBLE);
+        descriptionView.setVisibility(View.VISIBLE);
+        iconView.setVisibility(View.VISIBLE);
+
+        currentWeatherViewModel.populateWeatherData(weather);
+        IconUtil.loadIcon(iconView, weather.getIconRes(), weather.getIcon());
+        metrics.markFirstContent();
+        metrics.recordSince(MetricsRegistry.UI_BIND, start);
+    }
 
-                    @Override
-                    public void onError(@io.reactivex.rxjava3.annotations.NonNull Throwable e) {
-                        Log.e(TAG, "onError: ", e);
-                        oldDataView.setVisibility(View.VISIBLE);
-                        noDataView.setVisibility(View.VISIBLE);
-                        dateTimeView.setVisibility(View.GONE);
-                        currentTempView.setVisibility(View.GONE);
-                        feelsLikeTempView.setVisibility(View.GONE);
-                        descriptionView.setVisibility(View.GONE);
-                        iconView.setVisibility(View.GONE);
-                    }
-                });
+    /**
+     * Hides the weather views and shows that there is no data available.
+     */
+    private void showNoData() {
+        oldDataView.setVisibility(View.VISIBLE);
+        noDataView.setVisibility(View.VISIBLE);
+        dateTimeView.setVisibility(View.GONE);
+        currentTempView.setVisibility(View.GONE);
+        feelsLikeTempView.setVisibility(View.GONE);
+        descriptionView.setVisibility(View.GONE);
+        iconView.setVisibility(View.GONE);
     }
 
     /**
-     * Accesses the OpenWeatherMap API in order to refresh the {@link CurrentWeather} data available
-     * in the application database.
+     * Refreshes the {@link CurrentWeather} data through the {@link WeatherRepository}. The new data
+     * is shown by the subscription on {@link WeatherRepository#observeCurrentWeather(int)}. The
+     * refresh is cancelled when the view is destroyed before it finishes.
      *
      * @param currentWeatherViewModel ViewModel that contains populates the Views inside the fragment
-     * @param context                 Context used to access String resources
      */
-    private void refreshData(CurrentWeatherViewModel currentWeatherViewModel, Context context) {
-        Call<CurrentWeatherResponse> wResponse = NetworkUtil.getWeatherServiceInstance()
-                .getCurrentWeather(Constants.OPENWEATHER_API_LAT_VALUE, Constants.OPENWEATHER_API_LON_VALUE,
-                        BuildConfig.WEATHER_API_KEY, Constants.OPENWEATHER_API_UNITS_VALUE, Constants.OPENWEATHER_API_LANGUAGE_VALUE);
-
-        wResponse.enqueue(new Callback<CurrentWeatherResponse>() {
-
-            /**
-             * When the response is successful, convert the {@link CurrentWeatherResponse} into a
-             * {@link CurrentWeather} object and insert it into the application database.
-             *
-             * @param call The original call created using {@link WeatherService}
-             * @param response Response object containing data from the API call serialized as a
-             * {@link CurrentWeatherResponse}
-             */
-            @Override
-            public void onResponse(Call<CurrentWeatherResponse> call, Response<CurrentWeatherResponse> response) {
-                // process data to Room objects
-                CurrentWeather currentWeather = new CurrentWeather(response.body());
-                Log.d(TAG, "onResponse: retrieved current weather response body");
-                // Save data from response in Room
-                currentWeatherDao.insert(currentWeather).subscribeOn(Schedulers.io())
-                        .subscribe(new CompletableObserver() {
-                            @Override
-                            public void onSubscribe(@io.reactivex.rxjava3.annotations.NonNull Disposable d) {
-                            }
-
-                            @Override
-                            public void onComplete() {
-                                Log.d(TAG, "onComplete: inserted current weather into database successfully");
-                            }
-
-                            @Override
-                            public void onError(@io.reactivex.rxjava3.annotations.NonNull Throwable e) {
-                                Log.e(TAG, "onError: ", e);
-                            }
-                        });
-                MainActivity.isOldData = false;
-                oldDataView.setVisibility(View.GONE);
-
-                currentWeatherViewModel.populateWeatherData(currentWeather, context);
-                Picasso.get().load(String.format(Constants.OPENWEATHER_ICON_URL, currentWeather.getIcon())).into(iconView);
-                if (refreshLayout.isRefreshing()) {
-                    refreshLayout.setRefreshing(false);
-                }
-            }
-
-            /**
-             * Called when the network call fails. Sets the variable that {@link CurrentWeatherFragment}
-             * and {@link ForecastFragment} use in order to show the no internet connection text, as
-             * well as setting certain UI elements to visible in order to indicate a missing internet
-             * connection.
-             *
-             * @param call The original call created using {@link WeatherService}
-             * @param t Information as to why the call failed
-             */
-            @Override
-            public void onFailure(Call<CurrentWeatherResponse> call, Throwable t) {
-                Log.e(TAG, "onFailure: ", t);
-                MainActivity.isOldData = true;
-                oldDataView.setVisibility(View.VISIBLE);
-                dateTimeView.setText(getString(R.string.label_last_modified, dateTimeView.getText()));
-                refreshLayout.setRefreshing(false);
-            }
-        });
+    private void refreshData(CurrentWeatherViewModel currentWeatherViewModel) {
+        disposables.add(repository.flatMapCompletable(WeatherRepository::refreshCurrentWeather)
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(() -> onRefreshed(currentWeatherViewModel), this::onRefreshFailed));
+    }
+
+    /**
+     * Called when the refresh succeeded, shows the weather without the no internet connection text.
+     *
+     * @param currentWeatherViewModel ViewModel that contains populates the Views inside the fragment
+     */
+    private void onRefreshed(CurrentWeatherViewModel currentWeatherViewModel) {
+        Log.d(TAG, "onComplete: refreshed current weather");
+        MainActivity.isOldData = false;
+        if (shownWeather != null) {
+            showWeather(shownWeather, currentWeatherViewModel);
+        }
+        refreshLayout.setRefreshing(false);
+    }
+
+    /**
+     * Called when the refresh fails. Sets the variable that {@link CurrentWeatherFragment}
+     * and {@link ForecastFragment} use in order to show the no internet connection text, as
+     * well as setting certain UI elements to visible in order to indicate a missing internet
+     * connection.
+     *
+     * @param e Information as to why the refresh failed
+     */
+    private void onRefreshFailed(Throwable e) {
+        Log.e(TAG, "onError: ", e);
+        MainActivity.isOldData = true;
+        oldDataView.setVisibility(View.VISIBLE);
+        if (shownWeather != null) {
+            dateTimeView.setText(shownWeather.getLastModified());
+        }
+        refreshLayout.setRefreshing(false);
     }
-}
\ No newline at end of file
+}
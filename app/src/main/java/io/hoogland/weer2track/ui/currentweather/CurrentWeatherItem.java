@@ -0,0 +1,73 @@
+package io.hoogland.weer2track.ui.currentweather;
+
+import androidx.annotation.DrawableRes;
+
+import io.hoogland.weer2track.model.CurrentWeather;
+import io.hoogland.weer2track.ui.DisplayFormatter;
+
+/**
+ * Immutable display model of a {@link CurrentWeather}, with every value already formatted for the
+ * {@link CurrentWeatherFragment}. Created by {@link DisplayFormatter} off the main thread.
+ *
+ * @author dan
+ */
+public class CurrentWeatherItem {
+
+    private final String dateTime;
+    private final String lastModified;
+    private final String currentTemp;
+    private final String feelsLike;
+    private final String description;
+    private final String icon;
+    @DrawableRes
+    private final int iconRes;
+
+    public CurrentWeatherItem(String dateTime, String lastModified, String currentTemp, String feelsLike,
+                              String description, String icon, @DrawableRes int iconRes) {
+        this.dateTime = dateTime;
+        this.lastModified = lastModified;
+        this.currentTemp = currentTemp;
+        this.feelsLike = feelsLike;
+        this.description = description;
+        this.icon = icon;
+        this.iconRes = iconRes;
+    }
+
+    public String getDateTime() {
+        return dateTime;
+    }
+
+    /**
+     * @return Date and time of the data, labelled as old offline data
+     */
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public String getCurrentTemp() {
+        return currentTemp;
+    }
+
+    public String getFeelsLike() {
+        return feelsLike;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * @return Icon code of the primary weather condition
+     */
+    public String getIcon() {
+        return icon;
+    }
+
+    /**
+     * @return Bundled drawable of the icon, 0 if the icon code is not known
+     */
+    @DrawableRes
+    public int getIconRes() {
+        return iconRes;
+    }
+}
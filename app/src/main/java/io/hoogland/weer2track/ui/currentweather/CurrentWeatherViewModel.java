@@ -1,20 +1,10 @@
 package io.hoogland.weer2track.ui.currentweather;
 
-import android.content.Context;
-
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
-import org.apache.commons.lang3.StringUtils;
-
-import java.time.format.DateTimeFormatter;
-import java.util.Locale;
-
-import io.hoogland.weer2track.R;
-import io.hoogland.weer2track.model.CurrentWeather;
 import io.hoogland.weer2track.ui.MainActivity;
-import io.hoogland.weer2track.util.Constants;
 
 /**
  * ViewModel responsible for populating data in the {@link CurrentWeatherFragment}
@@ -34,20 +24,13 @@ public class CurrentWeatherViewModel extends ViewModel {
     /**
      * Assigns value to most of the UI elements.
      *
-     * @param weather {@link CurrentWeather} that contains the data to be displayed
-     * @param context Context used to access String resources
+     * @param item {@link CurrentWeatherItem} that contains the formatted data to be displayed
      */
-    public void populateWeatherData(CurrentWeather weather, Context context) {
-        mDescription.setValue(StringUtils.capitalize(weather.getDescription()));
-        if (MainActivity.isOldData) {
-            mDateTime.setValue(context.getString(R.string.label_last_modified, DateTimeFormatter.ofPattern(Constants.DATE_FORMAT_FULL,
-                    new Locale("nl", "NL")).format(weather.getDateTime())));
-        } else {
-            mDateTime.setValue(DateTimeFormatter.ofPattern(Constants.DATE_FORMAT_FULL,
-                    new Locale("nl", "NL")).format(weather.getDateTime()));
-        }
-        mCurrentTemp.setValue(context.getString(R.string.label_current_temp, (int) Math.round(weather.getTemp())));
-        mFeelsLike.setValue(context.getString(R.string.label_feels_like_temp, (int) Math.round(weather.getTemp())));
+    public void populateWeatherData(CurrentWeatherItem item) {
+        mDescription.setValue(item.getDescription());
+        mDateTime.setValue(MainActivity.isOldData ? item.getLastModified() : item.getDateTime());
+        mCurrentTemp.setValue(item.getCurrentTemp());
+        mFeelsLike.setValue(item.getFeelsLike());
     }
 
     public CurrentWeatherViewModel() {
@@ -0,0 +1,116 @@
+package io.hoogland.weer2track.ui.forecast;
+
+import androidx.annotation.DrawableRes;
+
+import java.util.Objects;
+
+import io.hoogland.weer2track.model.DailyForecast;
+import io.hoogland.weer2track.ui.DisplayFormatter;
+
+/**
+ * Immutable display model of a {@link DailyForecast}, with every value already formatted for a
+ * row in the {@link io.hoogland.weer2track.ui.forecast.adapter.ForecastAdapter}. Created by
+ * {@link DisplayFormatter} off the main thread.
+ *
+ * @author dan
+ */
+public class DailyForecastItem {
+
+    private final long epochDay;
+    private final String date;
+    private final String description;
+    private final String minTemp;
+    private final String maxTemp;
+    private final String precipitationChance;
+    private final String icon;
+    @DrawableRes
+    private final int iconRes;
+    private final String lastModified;
+
+    public DailyForecastItem(long epochDay, String date, String description, String minTemp, String maxTemp,
+                             String precipitationChance, String icon, @DrawableRes int iconRes, String lastModified) {
+        this.epochDay = epochDay;
+        this.date = date;
+        this.description = description;
+        this.minTemp = minTemp;
+        this.maxTemp = maxTemp;
+        this.precipitationChance = precipitationChance;
+        this.icon = icon;
+        this.iconRes = iconRes;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * @return Date of the forecast as days since epoch, identifies the row
+     */
+    public long getEpochDay() {
+        return epochDay;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getMinTemp() {
+        return minTemp;
+    }
+
+    public String getMaxTemp() {
+        return maxTemp;
+    }
+
+    public String getPrecipitationChance() {
+        return precipitationChance;
+    }
+
+    /**
+     * @return Icon code of the primary weather condition
+     */
+    public String getIcon() {
+        return icon;
+    }
+
+    /**
+     * @return Bundled drawable of the icon, 0 if the icon code is not known
+     */
+    @DrawableRes
+    public int getIconRes() {
+        return iconRes;
+    }
+
+    /**
+     * @return Label with the moment the forecast was last modified
+     */
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        DailyForecastItem that = (DailyForecastItem) o;
+        return epochDay == that.epochDay
+                && Objects.equals(date, that.date)
+                && Objects.equals(description, that.description)
+                && Objects.equals(minTemp, that.minTemp)
+                && Objects.equals(maxTemp, that.maxTemp)
+                && Objects.equals(precipitationChance, that.precipitationChance)
+                && Objects.equals(icon, that.icon)
+                && iconRes == that.iconRes
+                && Objects.equals(lastModified, that.lastModified);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(epochDay, date, description, minTemp, maxTemp, precipitationChance, icon, iconRes, lastModified);
+    }
+}
@@ -1,5 +1,6 @@
 package io.hoogland.weer2track.ui.forecast;
 
+import android.content.Context;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.LayoutInflater;
@@ -8,38 +9,34 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.core.util.Pair;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.DividerItemDecoration;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
-import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Locale;
 
-import io.hoogland.weer2track.BuildConfig;
-import io.hoogland.weer2track.R;
+import io.hoogland.weer2track.AppContainer;
 import io.hoogland.weer2track.databinding.FragmentForecastBinding;
-import io.hoogland.weer2track.db.AppDatabase;
 import io.hoogland.weer2track.model.DailyForecast;
-import io.hoogland.weer2track.model.dao.DailyForecastDao;
-import io.hoogland.weer2track.model.response.ForecastResponse;
-import io.hoogland.weer2track.service.WeatherService;
+import io.hoogland.weer2track.model.DisplaySnapshot;
+import io.hoogland.weer2track.repository.WeatherRepository;
+import io.hoogland.weer2track.ui.DisplayFormatter;
 import io.hoogland.weer2track.ui.MainActivity;
 import io.hoogland.weer2track.ui.currentweather.CurrentWeatherFragment;
 import io.hoogland.weer2track.ui.forecast.adapter.ForecastAdapter;
-import io.hoogland.weer2track.util.Constants;
-import io.hoogland.weer2track.util.ForecastUtil;
-import io.hoogland.weer2track.util.NetworkUtil;
+import io.hoogland.weer2track.util.LocationUtil;
+import io.hoogland.weer2track.util.MetricsRegistry;
+import io.hoogland.weer2track.util.SettingsUtil;
+import io.hoogland.weer2track.util.TemperatureUnit;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
-import io.reactivex.rxjava3.core.CompletableObserver;
-import io.reactivex.rxjava3.core.SingleObserver;
-import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.core.BackpressureStrategy;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
 
 /**
  * Fragment class that shows the weather forecast.
@@ -52,13 +49,20 @@ public class ForecastFragment extends Fragment {
 
     private static final String TAG = "forecastFragment";
 
-    private final AppDatabase appDatabase = AppDatabase.getInstance(this.getContext());
-    private final DailyForecastDao dailyForecastDao = appDatabase.dailyForecastDao();
+    private Single<WeatherRepository> repository;
     private SwipeRefreshLayout swipeRefreshLayout;
     private TextView emptyListTextView;
     private RecyclerView recyclerView;
     private TextView oldDataTextView;
     private TextView lastUpdatedTextView;
+    private ForecastAdapter adapter;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+
+    /**
+     * Subscriptions of the current view, cleared when the view is destroyed so running refreshes are
+     * cancelled and no callback touches the views after that.
+     */
+    private final CompositeDisposable disposables = new CompositeDisposable();
 
 
     public ForecastFragment() {
@@ -77,6 +81,7 @@ public class ForecastFragment extends Fragment {
     public View onCreateView(@NonNull LayoutInflater inflater,
                              ViewGroup container, Bundle savedInstanceState) {
 
+        repository = WeatherRepository.getInstanceAsync(inflater.getContext());
         binding = FragmentForecastBinding.inflate(inflater, container, false);
         View root = binding.getRoot();
 
@@ -91,6 +96,8 @@ public class ForecastFragment extends Fragment {
 
         recyclerView.setLayoutManager(new LinearLayoutManager(inflater.getContext()));
         recyclerView.addItemDecoration(new DividerItemDecoration(recyclerView.getContext(), LinearLayoutManager.VERTICAL));
+        adapter = new ForecastAdapter();
+        recyclerView.setAdapter(adapter);
         loadDataIntoView();
 
         return root;
@@ -99,6 +106,7 @@ public class ForecastFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        disposables.clear();
         binding = null;
     }
 
@@ -114,121 +122,88 @@ public class ForecastFragment extends Fragment {
     }
 
     /**
-     * Loads data from the application database using {@link DailyForecastDao}.
+     * Observes the latest data of the selected location through the {@link WeatherRepository}. The data in memory is shown
+     * straight away, and the list is updated every time a refresh changes the forecast. On a cold start the
+     * {@link DisplaySnapshot} is shown until the application database is opened, the rows of the
+     * database replace it without changes when they are the same. The rows are formatted by the
+     * {@link DisplayFormatter} of the chosen {@link TemperatureUnit} on a computation thread before
+     * they reach the main thread, and formatted again when the unit is changed.
      */
     public void loadDataIntoView() {
-        dailyForecastDao.getAll().subscribeOn(Schedulers.io())
+        Context context = requireContext();
+        int locationId = LocationUtil.getSelectedLocationId(requireContext());
+        Flowable<List<DailyForecast>> dailyForecasts = repository
+                .flatMapPublisher(weatherRepository -> weatherRepository.observeDailyForecasts(locationId));
+        AppContainer container = AppContainer.from(requireContext());
+        // The snapshot only helps while the database is opened, and is never waited for on the main thread.
+        DisplaySnapshot snapshot = !container.isWeatherRepositoryReady() && container.isDisplaySnapshotReady()
+                ? container.getDisplaySnapshot() : null;
+        if (snapshot != null && snapshot.getLocationId() == locationId) {
+            dailyForecasts = dailyForecasts.startWithItem(snapshot.getDailyForecasts());
+        }
+        disposables.add(Flowable.combineLatest(dailyForecasts,
+                        SettingsUtil.observeTemperatureUnit(context).toFlowable(BackpressureStrategy.LATEST), Pair::new)
+                .observeOn(Schedulers.computation())
+                .map(data -> DisplayFormatter.get(context, data.second).toForecastItems(data.first))
                 .observeOn(AndroidSchedulers.mainThread())
-                .subscribe(new SingleObserver<List<DailyForecast>>() {
-                    @Override
-                    public void onSubscribe(@io.reactivex.rxjava3.annotations.NonNull Disposable d) {
-                    }
-
-                    @Override
-                    public void onSuccess(@io.reactivex.rxjava3.annotations.NonNull List<DailyForecast> dailyForecastList) {
-                        Log.d(TAG, "onSuccess: creating adapter for recyclerview");
-                        if (dailyForecastList.isEmpty()) {
-                            emptyListTextView.setVisibility(View.VISIBLE);
-                        } else {
-                            ForecastAdapter adapter = new ForecastAdapter(dailyForecastList);
-                            recyclerView.setAdapter(adapter);
-                            emptyListTextView.setVisibility(View.INVISIBLE);
-                            lastUpdatedTextView.setText(getString(R.string.label_last_modified,
-                                    dailyForecastList.get(0).getModifiedAt().format(DateTimeFormatter
-                                            .ofPattern(Constants.DATE_FORMAT_FULL, new Locale("nl", "NL")))));
-                        }
-                    }
-
-                    @Override
-                    public void onError(@io.reactivex.rxjava3.annotations.NonNull Throwable e) {
-                        Log.e(TAG, "onError: ", e);
-                    }
-                });
+                .subscribe(this::showForecast, e -> Log.e(TAG, "onError: ", e)));
+    }
+
+    /**
+     * Shows a {@link List} of {@link DailyForecastItem}, only rows that changed are bound again.
+     * The time it takes is recorded in {@link MetricsRegistry#UI_BIND}.
+     *
+     * @param dailyForecastList {@link List} of {@link DailyForecastItem} sorted by date
+     */
+    private void showForecast(List<DailyForecastItem> dailyForecastList) {
+        long start = System.nanoTime();
+        Log.d(TAG, "showForecast: submitting " + dailyForecastList.size() + " forecasts to adapter");
+        adapter.submitList(dailyForecastList);
+        if (dailyForecastList.isEmpty()) {
+            emptyListTextView.setVisibility(View.VISIBLE);
+        } else {
+            emptyListTextView.setVisibility(View.INVISIBLE);
+            lastUpdatedTextView.setText(dailyForecastList.get(0).getLastModified());
+            metrics.markFirstContent();
+        }
+        metrics.recordSince(MetricsRegistry.UI_BIND, start);
     }
 
     /**
-     * Accesses the OpenWeatherMap API in order to refresh the {@link DailyForecast} data available
-     * in the application database.
+     * Refreshes the {@link DailyForecast} data through the {@link WeatherRepository}. The new data
+     * is shown by the subscription on {@link WeatherRepository#observeDailyForecasts(int)}. The
+     * refresh is cancelled when the view is destroyed before it finishes.
      */
     private void refreshData() {
-        Call<ForecastResponse> fResponse = NetworkUtil.getWeatherServiceInstance()
-                .getWeatherForecast(Constants.OPENWEATHER_API_LAT_VALUE, Constants.OPENWEATHER_API_LON_VALUE,
-                        BuildConfig.WEATHER_API_KEY, Constants.OPENWEATHER_API_UNITS_VALUE, Constants.OPENWEATHER_API_LANGUAGE_VALUE);
-
-        fResponse.enqueue(new Callback<ForecastResponse>() {
-
-            /**
-             * When the response is successful, convert the {@link ForecastResponse} into a
-             * {@link List} of {@link DailyForecast}, delete the old rows from the application database
-             * and insert it into the application database.
-             *
-             * @param call The original call created using {@link WeatherService}
-             * @param response Response object containing data from the API call serialized as a
-             * {@link ForecastResponse}
-             */
-            @Override
-            public void onResponse(@NonNull Call<ForecastResponse> call, @NonNull Response<ForecastResponse> response) {
-                if (response.body() != null) {
-                    Log.d(TAG, "onResponse: retrieved forecast response body");
-                    List<DailyForecast> forecastList = ForecastUtil.forecastResponseToDaily(response.body());
-                    dailyForecastDao.deleteAll().subscribeOn(Schedulers.io()).subscribe(new CompletableObserver() {
-                        @Override
-                        public void onSubscribe(@io.reactivex.rxjava3.annotations.NonNull Disposable d) {
-                        }
-
-                        @Override
-                        public void onComplete() {
-                            Log.d(TAG, "onComplete: deleted all rows in database");
-                            dailyForecastDao.insertWithTimestamp(forecastList).subscribeOn(Schedulers.io())
-                                    .subscribe(new CompletableObserver() {
-                                        @Override
-                                        public void onSubscribe(@io.reactivex.rxjava3.annotations.NonNull Disposable d) {
-                                        }
-
-                                        @Override
-                                        public void onComplete() {
-                                            Log.d(TAG, "onComplete: inserted forecast into database successfully");
-                                        }
-
-                                        @Override
-                                        public void onError(@io.reactivex.rxjava3.annotations.NonNull Throwable e) {
-                                            Log.e(TAG, "onError: ", e);
-                                        }
-                                    });
-                        }
-
-                        @Override
-                        public void onError(@io.reactivex.rxjava3.annotations.NonNull Throwable e) {
-                        }
-                    });
-                    ForecastAdapter adapter = new ForecastAdapter(forecastList);
-                    // TODO: if time, replace dataset and call notifyDataSetChanged() instead
-                    recyclerView.swapAdapter(adapter, true);
-                    MainActivity.isOldData = false;
-                    oldDataTextView.setVisibility(View.GONE);
-                    lastUpdatedTextView.setVisibility(View.GONE);
-                    swipeRefreshLayout.setRefreshing(false);
-                }
-            }
-
-            /**
-             * Called when the network call fails. Sets the variable that {@link CurrentWeatherFragment}
-             * and {@link ForecastFragment} use in order to show the no internet connection text, as
-             * well as setting certain UI elements to visible in order to indicate a missing internet
-             * connection.
-             *
-             * @param call The original call created using {@link WeatherService}
-             * @param t Information as to why the call failed
-             */
-            @Override
-            public void onFailure(@NonNull Call<ForecastResponse> call, @NonNull Throwable t) {
-                Log.e(TAG, "onFailure: error in network request", t);
-                MainActivity.isOldData = true;
-                oldDataTextView.setVisibility(View.VISIBLE);
-                lastUpdatedTextView.setVisibility(View.VISIBLE);
-                swipeRefreshLayout.setRefreshing(false);
-
-            }
-        });
+        disposables.add(repository.flatMapCompletable(WeatherRepository::refreshDailyForecasts)
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(this::onRefreshed, this::onRefreshFailed));
+    }
+
+    /**
+     * Called when the refresh succeeded, hides the no internet connection text.
+     */
+    private void onRefreshed() {
+        Log.d(TAG, "onComplete: refreshed forecast");
+        MainActivity.isOldData = false;
+        oldDataTextView.setVisibility(View.GONE);
+        lastUpdatedTextView.setVisibility(View.GONE);
+        swipeRefreshLayout.setRefreshing(false);
+    }
+
+    /**
+     * Called when the refresh fails. Sets the variable that {@link CurrentWeatherFragment}
+     * and {@link ForecastFragment} use in order to show the no internet connection text, as
+     * well as setting certain UI elements to visible in order to indicate a missing internet
+     * connection.
+     *
+     * @param e Information as to why the refresh failed
+     */
+    private void onRefreshFailed(Throwable e) {
+        Log.e(TAG, "onError: error in network request", e);
+        MainActivity.isOldData = true;
+        oldDataTextView.setVisibility(View.VISIBLE);
+        lastUpdatedTextView.setVisibility(View.VISIBLE);
+        swipeRefreshLayout.setRefreshing(false);
     }
-}
\ No newline at end of file
+}
@@ -7,29 +7,39 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.squareup.picasso.Picasso;
-
-import org.apache.commons.lang3.StringUtils;
-
-import java.time.format.DateTimeFormatter;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Locale;
-
 import io.hoogland.weer2track.R;
-import io.hoogland.weer2track.model.DailyForecast;
-import io.hoogland.weer2track.util.Constants;
+import io.hoogland.weer2track.ui.DisplayFormatter;
+import io.hoogland.weer2track.ui.forecast.DailyForecastItem;
+import io.hoogland.weer2track.util.IconUtil;
 
 /**
- * Adapter to display weather forecasts in a {@link RecyclerView}
+ * Adapter to display weather forecasts in a {@link RecyclerView}. New lists are diffed against the
+ * current one on a background thread, so only rows that changed are bound again. Items are
+ * formatted up front by the {@link DisplayFormatter}, binding only assigns the values.
  *
  * @author dan
  */
-public class ForecastAdapter extends RecyclerView.Adapter<ForecastAdapter.ViewHolder> {
+public class ForecastAdapter extends ListAdapter<DailyForecastItem, ForecastAdapter.ViewHolder> {
+
+    /**
+     * Compares {@link DailyForecastItem} rows by date, a row only has to be bound again when one of
+     * the displayed values for that date changed.
+     */
+    private static final DiffUtil.ItemCallback<DailyForecastItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<DailyForecastItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull DailyForecastItem oldItem, @NonNull DailyForecastItem newItem) {
+            return oldItem.getEpochDay() == newItem.getEpochDay();
+        }
 
-    private List<DailyForecast> forecastDataSet;
+        @Override
+        public boolean areContentsTheSame(@NonNull DailyForecastItem oldItem, @NonNull DailyForecastItem newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
 
     /**
      * Internal class for assigning values to each item in the {@link RecyclerView}
@@ -85,14 +95,11 @@ public class ForecastAdapter extends RecyclerView.Adapter<ForecastAdapter.ViewHo
     }
 
     /**
-     * Constructor for the adapter. Sorts the {@link List} of {@link DailyForecast} by date before
-     * being displayed.
-     *
-     * @param forecastDataSet {@link List} of {@link DailyForecast} to be displayed
+     * Constructor for the adapter. Lists of {@link DailyForecastItem} are supplied through
+     * {@link #submitList(java.util.List)}, already sorted by date.
      */
-    public ForecastAdapter(List<DailyForecast> forecastDataSet) {
-        forecastDataSet.sort(Comparator.comparing(DailyForecast::getDate));
-        this.forecastDataSet = forecastDataSet;
+    public ForecastAdapter() {
+        super(DIFF_CALLBACK);
     }
 
     /**
@@ -118,22 +125,12 @@ public class ForecastAdapter extends RecyclerView.Adapter<ForecastAdapter.ViewHo
      */
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        holder.getDescription().setText(StringUtils.capitalize(forecastDataSet.get(position).getDescription()));
-        holder.getDate().setText(StringUtils.capitalize(forecastDataSet.get(position).getDate()
-                .format(DateTimeFormatter.ofPattern(Constants.DATE_FORMAT, new Locale("nl", "NL")))));
-        holder.getMinTemp().setText(holder.itemView.getContext().getString(R.string.label_mintemp, Constants.DECIMAL_FORMAT.format(forecastDataSet.get(position).getMinTemp())));
-        holder.getMaxTemp().setText(holder.itemView.getContext().getString(R.string.label_maxtemp, Constants.DECIMAL_FORMAT.format(forecastDataSet.get(position).getMaxTemp())));
-        holder.getPrecipitationChance().setText(holder.itemView.getContext().getString(R.string.label_precipitation, Math.round(forecastDataSet.get(position).getPrecipitationChance() * 100)));
-        Picasso.get().load(String.format(Constants.OPENWEATHER_ICON_URL, forecastDataSet.get(position).getIcon())).into(holder.getIcon());
-    }
-
-    /**
-     * Gets the number of views to be displayed by the adapter.
-     *
-     * @return Number of items in the dataset
-     */
-    @Override
-    public int getItemCount() {
-        return forecastDataSet.size();
+        DailyForecastItem item = getItem(position);
+        holder.getDescription().setText(item.getDescription());
+        holder.getDate().setText(item.getDate());
+        holder.getMinTemp().setText(item.getMinTemp());
+        holder.getMaxTemp().setText(item.getMaxTemp());
+        holder.getPrecipitationChance().setText(item.getPrecipitationChance());
+        IconUtil.loadIcon(holder.getIcon(), item.getIconRes(), item.getIcon());
     }
 }
@@ -0,0 +1,159 @@
+package io.hoogland.weer2track.util;
+
+import android.os.Process;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Bounded schedulers for the database and network work of the app, used instead of the unbounded
+ * {@link Schedulers#io()}. Reads run on a small pool at default priority, so the screens are not
+ * held up by background work. Writes run on a single thread, which matches the single writer of
+ * SQLite, so they never wait on each other for the database lock. API calls run on a separate pool
+ * of {@link Constants#NETWORK_THREADS}. Writes and API calls run at background priority.
+ * <p>
+ * The read and write executors are also the query and transaction executors of Room, see
+ * {@link io.hoogland.weer2track.db.AppDatabase}. For every pool the time tasks wait in the queue is
+ * recorded in the {@link MetricsRegistry}, next to gauges with the current and the highest length
+ * of the queue.
+ *
+ * @author dan
+ */
+public class AppSchedulers {
+
+    /**
+     * Names of the pools, the metrics are named after them.
+     */
+    public static final String READ = "db_read";
+    public static final String WRITE = "db_write";
+    public static final String NETWORK = "network";
+
+    private static final AppSchedulers instance = new AppSchedulers(MetricsRegistry.getInstance());
+
+    private final InstrumentedExecutor readExecutor;
+    private final InstrumentedExecutor writeExecutor;
+    private final InstrumentedExecutor networkExecutor;
+    private final Scheduler read;
+    private final Scheduler write;
+    private final Scheduler network;
+
+    private AppSchedulers(MetricsRegistry metrics) {
+        readExecutor = new InstrumentedExecutor(READ, Constants.DB_READ_THREADS, Process.THREAD_PRIORITY_DEFAULT, metrics);
+        writeExecutor = new InstrumentedExecutor(WRITE, 1, Process.THREAD_PRIORITY_BACKGROUND, metrics);
+        networkExecutor = new InstrumentedExecutor(NETWORK, Constants.NETWORK_THREADS,
+                Process.THREAD_PRIORITY_BACKGROUND, metrics);
+        read = Schedulers.from(readExecutor);
+        write = Schedulers.from(writeExecutor);
+        network = Schedulers.from(networkExecutor);
+    }
+
+    /**
+     * Supplies the schedulers of the process. They are used by the {@link io.hoogland.weer2track.db.AppDatabase},
+     * which is created before anything else.
+     *
+     * @return Singleton of AppSchedulers
+     */
+    public static AppSchedulers getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return {@link Scheduler} for database queries
+     */
+    public Scheduler read() {
+        return read;
+    }
+
+    /**
+     * @return {@link Scheduler} for database writes, running one at a time in submission order
+     */
+    public Scheduler write() {
+        return write;
+    }
+
+    /**
+     * @return {@link Scheduler} for blocking API calls
+     */
+    public Scheduler network() {
+        return network;
+    }
+
+    /**
+     * @return Executor of {@link #read()}, the query executor of Room
+     */
+    public Executor getReadExecutor() {
+        return readExecutor;
+    }
+
+    /**
+     * @return Executor of {@link #write()}, the transaction executor of Room
+     */
+    public Executor getWriteExecutor() {
+        return writeExecutor;
+    }
+
+    /**
+     * Fixed size pool with an unbounded queue, idle threads are stopped after
+     * {@link Constants#SCHEDULER_KEEP_ALIVE_SECONDS}. Every task records how long it waited in the
+     * queue in the histogram {@code queue_wait_<name>}, the gauges {@code queue_depth_<name>} and
+     * {@code queue_peak_<name>} show the current and highest number of waiting tasks.
+     */
+    private static class InstrumentedExecutor extends ThreadPoolExecutor {
+        private final String waitHistogram;
+        private final MetricsRegistry metrics;
+        private final AtomicInteger peak = new AtomicInteger();
+
+        InstrumentedExecutor(String name, int threads, int priority, MetricsRegistry metrics) {
+            super(threads, threads, Constants.SCHEDULER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), new PriorityThreadFactory(name, priority));
+            allowCoreThreadTimeOut(true);
+            this.waitHistogram = "queue_wait_" + name;
+            this.metrics = metrics;
+            metrics.registerGauge("queue_depth_" + name, () -> getQueue().size());
+            metrics.registerGauge("queue_peak_" + name, peak::get);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            long queuedAt = System.nanoTime();
+            super.execute(() -> {
+                metrics.recordSince(waitHistogram, queuedAt);
+                command.run();
+            });
+            int depth = getQueue().size();
+            int highest = peak.get();
+            while (depth > highest && !peak.compareAndSet(highest, depth)) {
+                highest = peak.get();
+            }
+        }
+    }
+
+    /**
+     * Creates the named threads of a pool with the given priority.
+     */
+    private static class PriorityThreadFactory implements ThreadFactory {
+        private final String name;
+        private final int priority;
+        private final AtomicInteger count = new AtomicInteger();
+
+        PriorityThreadFactory(String name, int priority) {
+            this.name = name;
+            this.priority = priority;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(() -> {
+                Process.setThreadPriority(priority);
+                runnable.run();
+            }, name + "-" + count.incrementAndGet());
+        }
+    }
+}
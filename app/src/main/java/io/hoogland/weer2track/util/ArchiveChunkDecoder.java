@@ -0,0 +1,184 @@
+package io.hoogland.weer2track.util;
+
+/**
+ * Streaming decoder of the block format written by {@link ArchiveChunkEncoder}. Samples are decoded
+ * one at a time while iterating, without allocating, so a range query can stop as soon as it has
+ * passed the end of its range instead of decompressing the whole block.
+ * <pre>{@code
+ * ArchiveChunkDecoder decoder = new ArchiveChunkDecoder(chunk.getData());
+ * if (decoder.seek(from)) {
+ *     while (decoder.getTimestamp() < to) {
+ *         use(decoder.getTimestamp(), decoder.getValue(0));
+ *         if (!decoder.next()) {
+ *             break;
+ *         }
+ *     }
+ * }
+ * }</pre>
+ *
+ * @author dan
+ */
+public class ArchiveChunkDecoder {
+
+    private final byte[] data;
+    private final int columns;
+    private final int count;
+    private final long[] values;
+    private final int[] decimals;
+    private final int[] leading;
+    private final int[] trailing;
+
+    private int bitPosition;
+    private int index = -1;
+    private long timestamp;
+    private long delta;
+
+    /**
+     * @param data Block written by {@link ArchiveChunkEncoder#toByteArray()}
+     * @throws IllegalArgumentException If the block has an unknown version
+     */
+    public ArchiveChunkDecoder(byte[] data) {
+        if (data.length < ArchiveChunkEncoder.HEADER_BYTES || data[0] != ArchiveChunkEncoder.VERSION) {
+            throw new IllegalArgumentException("Unsupported archive chunk");
+        }
+        this.data = data;
+        this.columns = data[1] & 0xFF;
+        this.count = (data[2] & 0xFF) << 24 | (data[3] & 0xFF) << 16 | (data[4] & 0xFF) << 8 | (data[5] & 0xFF);
+        this.values = new long[columns];
+        this.decimals = new int[columns];
+        this.leading = new int[columns];
+        this.trailing = new int[columns];
+        for (int i = 0; i < columns; i++) {
+            decimals[i] = data[ArchiveChunkEncoder.HEADER_BYTES + i] & 0xFF;
+        }
+        bitPosition = (ArchiveChunkEncoder.HEADER_BYTES + columns) * 8;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Moves to the next sample.
+     *
+     * @return False if there are no more samples
+     */
+    public boolean next() {
+        if (index + 1 >= count) {
+            index = count;
+            return false;
+        }
+        index++;
+        if (index == 0) {
+            timestamp = readBits(64);
+            for (int i = 0; i < columns; i++) {
+                values[i] = readBits(64);
+            }
+        } else {
+            delta += readDeltaOfDelta();
+            timestamp += delta;
+            for (int i = 0; i < columns; i++) {
+                readValue(i);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Moves to the first sample at or after the given time. Samples before it are decoded but not
+     * returned.
+     *
+     * @param from Time in seconds since epoch
+     * @return False if there is no sample at or after the given time
+     */
+    public boolean seek(long from) {
+        while (next()) {
+            if (timestamp >= from) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Time of the current sample in seconds since epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @param column Index of the column
+     * @return Value of the column of the current sample
+     */
+    public double getValue(int column) {
+        double value = Double.longBitsToDouble(values[column]);
+        return decimals[column] == ArchiveChunkEncoder.RAW ? value : value / ArchiveChunkEncoder.SCALES[decimals[column]];
+    }
+
+    private long readDeltaOfDelta() {
+        if (readBit() == 0) {
+            return 0;
+        }
+        if (readBit() == 0) {
+            return readSigned(7);
+        }
+        if (readBit() == 0) {
+            return readSigned(9);
+        }
+        if (readBit() == 0) {
+            return readSigned(12);
+        }
+        return readBits(64);
+    }
+
+    private void readValue(int column) {
+        if (readBit() == 0) {
+            return;
+        }
+        if (readBit() == 1) {
+            leading[column] = (int) readBits(5);
+            int meaningful = (int) readBits(6);
+            if (meaningful == 0) {
+                meaningful = 64;
+            }
+            trailing[column] = 64 - leading[column] - meaningful;
+        }
+        int meaningful = 64 - leading[column] - trailing[column];
+        values[column] ^= readBits(meaningful) << trailing[column];
+    }
+
+    /**
+     * Reads a two's complement value of the given number of bits.
+     */
+    private long readSigned(int bits) {
+        long value = readBits(bits);
+        return (value << (64 - bits)) >> (64 - bits);
+    }
+
+    private int readBit() {
+        int bit = (data[bitPosition >>> 3] >>> (7 - (bitPosition & 7))) & 1;
+        bitPosition++;
+        return bit;
+    }
+
+    /**
+     * Reads the given number of bits, most significant bit first.
+     */
+    private long readBits(int bits) {
+        long value = 0;
+        for (int remaining = bits; remaining > 0; ) {
+            int available = 8 - (bitPosition & 7);
+            int read = Math.min(available, remaining);
+            int chunk = (data[bitPosition >>> 3] >>> (available - read)) & ((1 << read) - 1);
+            value = (value << read) | chunk;
+            bitPosition += read;
+            remaining -= read;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,236 @@
+package io.hoogland.weer2track.util;
+
+import java.util.Arrays;
+
+/**
+ * Encodes a time series with one or more value columns into the compact block format of an
+ * {@link io.hoogland.weer2track.model.ArchiveChunk}, as described in the Gorilla paper. Timestamps
+ * are stored as the difference between consecutive deltas, which is a single bit for samples at a
+ * regular interval. Values are stored as the XOR with the previous value of their column, only
+ * the bits in between the leading and trailing zeros of the XOR are written.
+ * <p>
+ * The API returns values with a few decimals, whose doubles have noisy mantissas that XOR badly.
+ * When all values of a column can be restored exactly from a whole number of hundredths (or
+ * another power of ten), the column stores that whole number as a double instead. This is decided
+ * per column when the block is finished, other columns are stored as they are, so the encoding is
+ * always lossless.
+ * <p>
+ * The block starts with a version byte, the number of columns, the number of samples and the
+ * decimals of every column, followed by the bit stream with the timestamp and the values of every
+ * sample. Read it with {@link ArchiveChunkDecoder}.
+ *
+ * @author dan
+ * @see <a href="https://www.vldb.org/pvldb/vol8/p1816-teller.pdf">Gorilla: A Fast, Scalable, In-Memory Time Series Database</a>
+ */
+public class ArchiveChunkEncoder {
+
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 6;
+
+    /**
+     * Decimals of a column whose values are stored as they are.
+     */
+    static final int RAW = 0xFF;
+
+    /**
+     * Powers of ten the values of a column can be scaled by, indexed by the number of decimals.
+     */
+    static final double[] SCALES = {1, 10, 100, 1000, 10000};
+
+    private final int columns;
+    private final long[] previousValues;
+    private final int[] previousLeading;
+    private final int[] previousTrailing;
+
+    private long[] timestamps = new long[16];
+    private double[] values;
+    private int count;
+
+    private byte[] buffer;
+    private int bitPosition;
+    private long previousDelta;
+
+    /**
+     * @param columns Number of values of every sample, at most 255
+     */
+    public ArchiveChunkEncoder(int columns) {
+        if (columns < 1 || columns > 255) {
+            throw new IllegalArgumentException("Unsupported number of columns: " + columns);
+        }
+        this.columns = columns;
+        this.previousValues = new long[columns];
+        this.previousLeading = new int[columns];
+        this.previousTrailing = new int[columns];
+        this.values = new double[timestamps.length * columns];
+    }
+
+    /**
+     * Adds a sample to the block. Samples must be added in order of time.
+     *
+     * @param timestamp Time of the sample in seconds since epoch
+     * @param values    Value of every column of the sample
+     */
+    public void add(long timestamp, double... values) {
+        if (values.length != columns) {
+            throw new IllegalArgumentException("Expected " + columns + " values, got " + values.length);
+        }
+        if (count > 0 && timestamp < timestamps[count - 1]) {
+            throw new IllegalArgumentException("Sample at " + timestamp + " is before " + timestamps[count - 1]);
+        }
+        if (count == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, count * 2);
+            this.values = Arrays.copyOf(this.values, count * 2 * columns);
+        }
+        timestamps[count] = timestamp;
+        System.arraycopy(values, 0, this.values, count * columns, columns);
+        count++;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Encodes the samples that were added.
+     *
+     * @return The encoded block, sized to its content
+     */
+    public byte[] toByteArray() {
+        buffer = new byte[HEADER_BYTES + columns + count * (1 + columns) * 2 + 16];
+        bitPosition = (HEADER_BYTES + columns) * 8;
+        previousDelta = 0;
+        buffer[0] = (byte) VERSION;
+        buffer[1] = (byte) columns;
+        buffer[2] = (byte) (count >>> 24);
+        buffer[3] = (byte) (count >>> 16);
+        buffer[4] = (byte) (count >>> 8);
+        buffer[5] = (byte) count;
+        int[] decimals = new int[columns];
+        for (int column = 0; column < columns; column++) {
+            decimals[column] = decimalsOf(column);
+            buffer[HEADER_BYTES + column] = (byte) decimals[column];
+        }
+
+        for (int sample = 0; sample < count; sample++) {
+            if (sample == 0) {
+                writeBits(timestamps[0], 64);
+            } else {
+                long delta = timestamps[sample] - timestamps[sample - 1];
+                writeDeltaOfDelta(delta - previousDelta);
+                previousDelta = delta;
+            }
+            for (int column = 0; column < columns; column++) {
+                double value = values[sample * columns + column];
+                if (decimals[column] != RAW) {
+                    value = Math.rint(value * SCALES[decimals[column]]);
+                }
+                long bits = Double.doubleToRawLongBits(value);
+                if (sample == 0) {
+                    previousValues[column] = bits;
+                    previousLeading[column] = Integer.MAX_VALUE;
+                    previousTrailing[column] = 0;
+                    writeBits(bits, 64);
+                } else {
+                    writeValue(column, bits);
+                }
+            }
+        }
+        return Arrays.copyOf(buffer, (bitPosition + 7) >>> 3);
+    }
+
+    /**
+     * Finds the lowest number of decimals all values of the column can be restored exactly from.
+     *
+     * @return Index in {@link #SCALES}, or {@link #RAW} if the values need to be stored as they are
+     */
+    private int decimalsOf(int column) {
+        for (int decimals = 0; decimals < SCALES.length; decimals++) {
+            boolean exact = true;
+            for (int sample = 0; sample < count && exact; sample++) {
+                double value = values[sample * columns + column];
+                double scaled = Math.rint(value * SCALES[decimals]);
+                exact = Double.doubleToRawLongBits(scaled / SCALES[decimals]) == Double.doubleToRawLongBits(value)
+                        && Math.abs(scaled) < 1L << 52;
+            }
+            if (exact) {
+                return decimals;
+            }
+        }
+        return RAW;
+    }
+
+    /**
+     * Writes the change in delta with a prefix code, most samples are at a regular interval and
+     * only take the single 0 bit.
+     */
+    private void writeDeltaOfDelta(long deltaOfDelta) {
+        if (deltaOfDelta == 0) {
+            writeBits(0b0, 1);
+        } else if (deltaOfDelta >= -64 && deltaOfDelta <= 63) {
+            writeBits(0b10, 2);
+            writeBits(deltaOfDelta, 7);
+        } else if (deltaOfDelta >= -256 && deltaOfDelta <= 255) {
+            writeBits(0b110, 3);
+            writeBits(deltaOfDelta, 9);
+        } else if (deltaOfDelta >= -2048 && deltaOfDelta <= 2047) {
+            writeBits(0b1110, 4);
+            writeBits(deltaOfDelta, 12);
+        } else {
+            writeBits(0b1111, 4);
+            writeBits(deltaOfDelta, 64);
+        }
+    }
+
+    /**
+     * Writes the XOR of the value with the previous value of the column. When the meaningful bits
+     * fit in the window of the previous XOR only those bits are written, otherwise the number of
+     * leading zeros and meaningful bits are written first.
+     */
+    private void writeValue(int column, long value) {
+        long xor = value ^ previousValues[column];
+        previousValues[column] = value;
+        if (xor == 0) {
+            writeBits(0b0, 1);
+            return;
+        }
+
+        int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int trailing = Long.numberOfTrailingZeros(xor);
+        if (leading >= previousLeading[column] && trailing >= previousTrailing[column]) {
+            writeBits(0b10, 2);
+            writeBits(xor >>> previousTrailing[column], 64 - previousLeading[column] - previousTrailing[column]);
+        } else {
+            int meaningful = 64 - leading - trailing;
+            writeBits(0b11, 2);
+            writeBits(leading, 5);
+            // 64 meaningful bits do not fit in 6 bits, it can't be 0 so that is used instead.
+            writeBits(meaningful & 0x3F, 6);
+            writeBits(xor >>> trailing, meaningful);
+            previousLeading[column] = leading;
+            previousTrailing[column] = trailing;
+        }
+    }
+
+    /**
+     * Writes the lowest bits of the given value, most significant bit first.
+     */
+    private void writeBits(long value, int bits) {
+        ensureCapacity(bits);
+        for (int remaining = bits; remaining > 0; ) {
+            int byteIndex = bitPosition >>> 3;
+            int free = 8 - (bitPosition & 7);
+            int written = Math.min(free, remaining);
+            int chunk = (int) (value >>> (remaining - written)) & ((1 << written) - 1);
+            buffer[byteIndex] |= (byte) (chunk << (free - written));
+            bitPosition += written;
+            remaining -= written;
+        }
+    }
+
+    private void ensureCapacity(int bits) {
+        int required = (bitPosition + bits + 7) >>> 3;
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length * 2));
+        }
+    }
+}
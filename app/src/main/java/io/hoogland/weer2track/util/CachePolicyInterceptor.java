@@ -0,0 +1,63 @@
+package io.hoogland.weer2track.util;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * OkHttp network interceptor that sets how long OpenWeatherMap responses may be served from the
+ * cache, based on how often the data behind an endpoint changes. Only responses without caching
+ * directives of the server get a lifetime, directives like no-store, private or max-age are left
+ * as they are. Once a response is stale OkHttp revalidates it with the ETag/Last-Modified headers of
+ * the cached response.
+ *
+ * @author dan
+ */
+public class CachePolicyInterceptor implements Interceptor {
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        int maxAge = maxAgeFor(chain.request().url().encodedPath());
+        if (!response.isSuccessful() || maxAge <= 0 || hasCachingDirectives(response)) {
+            return response;
+        }
+        return response.newBuilder()
+                .header("Cache-Control", "public, max-age=" + maxAge)
+                .build();
+    }
+
+    /**
+     * Checks whether the server said how the response may be cached, through Cache-Control, Pragma
+     * or Expires.
+     */
+    private static boolean hasCachingDirectives(Response response) {
+        CacheControl cacheControl = response.cacheControl();
+        return cacheControl.noStore() || cacheControl.noCache() || cacheControl.isPrivate()
+                || cacheControl.maxAgeSeconds() != -1 || cacheControl.sMaxAgeSeconds() != -1
+                || response.header("Expires") != null;
+    }
+
+    /**
+     * Gets the freshness lifetime for the given OpenWeatherMap endpoint.
+     *
+     * @param path Encoded path of the request URL
+     * @return Max age in seconds, or 0 if the response should not be cached
+     */
+    private static int maxAgeFor(String path) {
+        if (path.endsWith("/" + Constants.OPENWEATHER_API_FORECAST)) {
+            return Constants.OPENWEATHER_FORECAST_MAX_AGE;
+        } else if (path.endsWith("/" + Constants.OPENWEATHER_API_CURRENT)
+                || path.endsWith("/" + Constants.OPENWEATHER_API_GROUP)
+                // The One Call API also contains the current weather, so it expires as quickly.
+                || path.endsWith("/onecall")) {
+            return Constants.OPENWEATHER_CURRENT_MAX_AGE;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,118 @@
+package io.hoogland.weer2track.util;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker around the OpenWeatherMap API calls. After a number of failed calls in a row the
+ * circuit opens and calls are skipped, so a server that is down is not hammered and the screens
+ * don't wait for it. Once the open period has passed a single probe call is let through, the
+ * half-open state. The circuit closes again when the probe succeeds and opens for another period
+ * when it fails.
+ *
+ * @author dan
+ */
+public class CircuitBreaker {
+
+    /**
+     * States of the circuit, their ordinal is the value of the {@link MetricsRegistry#CIRCUIT_STATE} gauge.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final MetricsRegistry metrics;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean probing;
+
+    /**
+     * @param failureThreshold Number of failed calls in a row that opens the circuit
+     * @param openSeconds      Seconds the circuit stays open before a probe call is let through
+     * @param metrics          {@link MetricsRegistry} to record the state in
+     */
+    public CircuitBreaker(int failureThreshold, long openSeconds, MetricsRegistry metrics) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.SECONDS.toNanos(openSeconds);
+        this.metrics = metrics;
+        metrics.registerGauge(MetricsRegistry.CIRCUIT_STATE, () -> getState().ordinal());
+    }
+
+    /**
+     * Asks whether a call may be made. Every permitted call must be followed by
+     * {@link #onSuccess()}, {@link #onFailure()} or {@link #release()}.
+     *
+     * @return True if the call may be made, false if it should be skipped
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probing = true;
+                return true;
+            default:
+                if (probing) {
+                    return false;
+                }
+                probing = true;
+                return true;
+        }
+    }
+
+    /**
+     * Reports that a call reached the server, which closes the circuit.
+     */
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+        probing = false;
+    }
+
+    /**
+     * Reports that a call failed, opening the circuit after too many failures in a row or when the
+     * probe failed. Calls that were started before the circuit opened and fail while it is open are
+     * ignored, they would otherwise restart the open period.
+     */
+    public synchronized void onFailure() {
+        if (state == State.OPEN) {
+            return;
+        }
+        probing = false;
+        if (state == State.HALF_OPEN || ++failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            failures = 0;
+            metrics.increment(MetricsRegistry.CIRCUIT_OPENED);
+        }
+    }
+
+    /**
+     * Reports that a call ended without an outcome, like when it was cancelled. A probe that is
+     * released lets the next call probe instead.
+     */
+    public synchronized void release() {
+        probing = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Thrown instead of making an API call while the circuit is open.
+     */
+    public static class OpenException extends IOException {
+        public OpenException() {
+            super("Circuit open, skipping the call");
+        }
+    }
+}
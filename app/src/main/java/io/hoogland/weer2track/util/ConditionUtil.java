@@ -0,0 +1,106 @@
+package io.hoogland.weer2track.util;
+
+import android.content.Context;
+
+import androidx.annotation.StringRes;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.hoogland.weer2track.R;
+
+/**
+ * Util class that maps OpenWeatherMap condition IDs to bundled String resources, so descriptions
+ * are shown in the language of the device without fetching the data in that language.
+ *
+ * @author dan
+ * @see <a href="https://openweathermap.org/weather-conditions">OpenWeatherMap weather conditions</a>
+ */
+public class ConditionUtil {
+
+    private static final Map<Integer, Integer> CONDITIONS = new HashMap<>();
+
+    static {
+        CONDITIONS.put(200, R.string.condition_200);
+        CONDITIONS.put(201, R.string.condition_201);
+        CONDITIONS.put(202, R.string.condition_202);
+        CONDITIONS.put(210, R.string.condition_210);
+        CONDITIONS.put(211, R.string.condition_211);
+        CONDITIONS.put(212, R.string.condition_212);
+        CONDITIONS.put(221, R.string.condition_221);
+        CONDITIONS.put(230, R.string.condition_230);
+        CONDITIONS.put(231, R.string.condition_231);
+        CONDITIONS.put(232, R.string.condition_232);
+        CONDITIONS.put(300, R.string.condition_300);
+        CONDITIONS.put(301, R.string.condition_301);
+        CONDITIONS.put(302, R.string.condition_302);
+        CONDITIONS.put(310, R.string.condition_310);
+        CONDITIONS.put(311, R.string.condition_311);
+        CONDITIONS.put(312, R.string.condition_312);
+        CONDITIONS.put(313, R.string.condition_313);
+        CONDITIONS.put(314, R.string.condition_314);
+        CONDITIONS.put(321, R.string.condition_321);
+        CONDITIONS.put(500, R.string.condition_500);
+        CONDITIONS.put(501, R.string.condition_501);
+        CONDITIONS.put(502, R.string.condition_502);
+        CONDITIONS.put(503, R.string.condition_503);
+        CONDITIONS.put(504, R.string.condition_504);
+        CONDITIONS.put(511, R.string.condition_511);
+        CONDITIONS.put(520, R.string.condition_520);
+        CONDITIONS.put(521, R.string.condition_521);
+        CONDITIONS.put(522, R.string.condition_522);
+        CONDITIONS.put(531, R.string.condition_531);
+        CONDITIONS.put(600, R.string.condition_600);
+        CONDITIONS.put(601, R.string.condition_601);
+        CONDITIONS.put(602, R.string.condition_602);
+        CONDITIONS.put(611, R.string.condition_611);
+        CONDITIONS.put(612, R.string.condition_612);
+        CONDITIONS.put(613, R.string.condition_613);
+        CONDITIONS.put(615, R.string.condition_615);
+        CONDITIONS.put(616, R.string.condition_616);
+        CONDITIONS.put(620, R.string.condition_620);
+        CONDITIONS.put(621, R.string.condition_621);
+        CONDITIONS.put(622, R.string.condition_622);
+        CONDITIONS.put(701, R.string.condition_701);
+        CONDITIONS.put(711, R.string.condition_711);
+        CONDITIONS.put(721, R.string.condition_721);
+        CONDITIONS.put(731, R.string.condition_731);
+        CONDITIONS.put(741, R.string.condition_741);
+        CONDITIONS.put(751, R.string.condition_751);
+        CONDITIONS.put(761, R.string.condition_761);
+        CONDITIONS.put(762, R.string.condition_762);
+        CONDITIONS.put(771, R.string.condition_771);
+        CONDITIONS.put(781, R.string.condition_781);
+        CONDITIONS.put(800, R.string.condition_800);
+        CONDITIONS.put(801, R.string.condition_801);
+        CONDITIONS.put(802, R.string.condition_802);
+        CONDITIONS.put(803, R.string.condition_803);
+        CONDITIONS.put(804, R.string.condition_804);
+    }
+
+    /**
+     * Looks up the bundled description of a condition ID.
+     *
+     * @param conditionId OpenWeatherMap condition ID, for example 500
+     * @return String resource of the description, or 0 if the ID is not known
+     */
+    @StringRes
+    public static int getDescriptionResource(int conditionId) {
+        Integer resource = CONDITIONS.get(conditionId);
+        return resource == null ? 0 : resource;
+    }
+
+    /**
+     * Resolves the descriptions of all known condition IDs in the language of the given context.
+     *
+     * @param context Context used to access String resources
+     * @return {@link Map} of condition ID to description
+     */
+    public static Map<Integer, String> getDescriptions(Context context) {
+        Map<Integer, String> descriptions = new HashMap<>(CONDITIONS.size() * 2);
+        for (Map.Entry<Integer, Integer> condition : CONDITIONS.entrySet()) {
+            descriptions.put(condition.getKey(), context.getString(condition.getValue()));
+        }
+        return descriptions;
+    }
+}
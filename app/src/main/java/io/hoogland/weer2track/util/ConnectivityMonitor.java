@@ -0,0 +1,120 @@
+package io.hoogland.weer2track.util;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
+import android.os.Build;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.subjects.BehaviorSubject;
+
+/**
+ * Keeps track of whether the device has a validated network, one that Android has checked can
+ * reach the internet. API calls are not started without one, so they fail straight away instead of
+ * waiting for a DNS or connect timeout. The state is updated by a
+ * {@link ConnectivityManager.NetworkCallback} for as long as the process lives.
+ *
+ * @author dan
+ */
+public class ConnectivityMonitor {
+
+    private static final String TAG = "ConnectivityMonitor";
+
+    /**
+     * Networks that are validated right now, only the default network on Android N and up.
+     */
+    private final Set<Network> validatedNetworks = new HashSet<>();
+    private final BehaviorSubject<Boolean> online;
+
+    /**
+     * Reads the current state of the active network and starts listening for changes.
+     *
+     * @param context Application context
+     */
+    public ConnectivityMonitor(Context context) {
+        ConnectivityManager manager = context.getApplicationContext().getSystemService(ConnectivityManager.class);
+        Network active = manager.getActiveNetwork();
+        if (active != null && isValidated(manager.getNetworkCapabilities(active))) {
+            validatedNetworks.add(active);
+        }
+        online = BehaviorSubject.createDefault(!validatedNetworks.isEmpty());
+
+        ConnectivityManager.NetworkCallback callback = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onCapabilitiesChanged(@NonNull Network network, @NonNull NetworkCapabilities capabilities) {
+                update(network, isValidated(capabilities));
+            }
+
+            @Override
+            public void onLost(@NonNull Network network) {
+                update(network, false);
+            }
+        };
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            manager.registerDefaultNetworkCallback(callback);
+        } else {
+            manager.registerNetworkCallback(new NetworkRequest.Builder()
+                    .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+                    .build(), callback);
+        }
+    }
+
+    /**
+     * @return True if there is a validated network
+     */
+    public boolean isOnline() {
+        return online.getValue();
+    }
+
+    /**
+     * Observes whether there is a validated network.
+     *
+     * @return {@link Observable} with the current state, followed by every change
+     */
+    public Observable<Boolean> observeOnline() {
+        return online.distinctUntilChanged();
+    }
+
+    /**
+     * Overrides the state until the next network change, for tests without a real network.
+     *
+     * @param isOnline True if the device should be seen as online
+     */
+    @VisibleForTesting
+    public synchronized void setOnline(boolean isOnline) {
+        online.onNext(isOnline);
+    }
+
+    private synchronized void update(Network network, boolean validated) {
+        boolean changed = validated ? validatedNetworks.add(network) : validatedNetworks.remove(network);
+        if (changed) {
+            Log.d(TAG, "update: " + network + (validated ? " validated" : " lost"));
+            online.onNext(!validatedNetworks.isEmpty());
+        }
+    }
+
+    private static boolean isValidated(NetworkCapabilities capabilities) {
+        return capabilities != null
+                && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+                && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED);
+    }
+
+    /**
+     * Thrown instead of starting an API call while there is no validated network.
+     */
+    public static class OfflineException extends IOException {
+        public OfflineException() {
+            super("No validated network");
+        }
+    }
+}
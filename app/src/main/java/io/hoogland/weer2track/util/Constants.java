@@ -1,7 +1,5 @@
 package io.hoogland.weer2track.util;
 
-import java.text.DecimalFormat;
-
 /**
  * Class containing constants used in Java code.
  *
@@ -23,11 +21,6 @@ public class Constants {
      */
     public static final String DATE_FORMAT = "EEEE dd-MM-yyyy";
 
-    /**
-     * Temperature unit used to display temperature.
-     */
-    public static final String TEMP_UNIT = "°C";
-
     /**
      * Base URL used to retrieve an icon for a given weather condition ID as String from OpenWeatherMap.
      */
@@ -48,6 +41,37 @@ public class Constants {
      */
     public static final String OPENWEATHER_API_CURRENT = "weather";
 
+    /**
+     * URL subdirectory for the current weather API for several city IDs at once.
+     */
+    public static final String OPENWEATHER_API_GROUP = "group";
+
+    /**
+     * OpenWeatherMap API parameter for a comma separated list of city IDs.
+     */
+    public static final String OPENWEATHER_API_ID = "id";
+
+    /**
+     * Maximum number of city IDs OpenWeatherMap accepts in a single group API call.
+     */
+    public static final int OPENWEATHER_GROUP_MAX_IDS = 20;
+
+    /**
+     * URL of the One Call API, which returns the current weather and the daily forecast in a single
+     * response. It is not part of the 2.5 API, so the full URL is used.
+     */
+    public static final String OPENWEATHER_API_ONE_CALL = "https://api.openweathermap.org/data/3.0/onecall";
+
+    /**
+     * OpenWeatherMap API parameter for the parts of a One Call API response that are left out.
+     */
+    public static final String OPENWEATHER_API_EXCLUDE = "exclude";
+
+    /**
+     * Parts of the One Call API response that are not used by the app.
+     */
+    public static final String OPENWEATHER_API_EXCLUDE_VALUE = "minutely,hourly,alerts";
+
     /**
      * OpenWeatherMap API parameter for latitude.
      */
@@ -74,18 +98,153 @@ public class Constants {
     public static final String OPENWEATHER_API_LANGUAGE = "lang";
 
     /**
-     * Decimal format used to display min and max temp values.
+     * Seconds a forecast API response may be served from the HTTP cache, OpenWeatherMap updates
+     * the forecast every 3 hours.
+     */
+    public static final int OPENWEATHER_FORECAST_MAX_AGE = 3 * 60 * 60;
+
+    /**
+     * Seconds a current weather API response may be served from the HTTP cache, OpenWeatherMap
+     * updates current weather roughly every 10 minutes.
+     */
+    public static final int OPENWEATHER_CURRENT_MAX_AGE = 10 * 60;
+
+    /**
+     * Minutes the data in the application database is considered fresh enough to be shown on
+     * startup without waiting for the network, it is then refreshed in the background.
+     */
+    public static final long CACHE_TTL_MINUTES = 30;
+
+    /**
+     * Name of the directory, inside the application cache directory, used for the HTTP cache.
+     */
+    public static final String HTTP_CACHE_DIR = "http";
+
+    /**
+     * Name of the file, inside the application files directory, with the data last shown, see
+     * {@link DisplaySnapshotStore}.
+     */
+    public static final String DISPLAY_SNAPSHOT_FILE = "display_snapshot.bin";
+
+    /**
+     * Maximum size in bytes of the HTTP cache.
+     */
+    public static final long HTTP_CACHE_SIZE = 5 * 1024 * 1024;
+
+    /**
+     * Maximum number of OpenWeatherMap API calls that run at the same time while refreshing all
+     * locations.
+     */
+    public static final int MAX_CONCURRENT_REQUESTS = 4;
+
+    /**
+     * Number of failed API calls in a row after which the {@link CircuitBreaker} opens.
+     */
+    public static final int CIRCUIT_FAILURE_THRESHOLD = 3;
+
+    /**
+     * Seconds the {@link CircuitBreaker} stays open before it lets a probe call through.
+     */
+    public static final int CIRCUIT_OPEN_SECONDS = 30;
+
+    /**
+     * Number of threads of the {@link AppSchedulers#read()} pool, queries of the screens run here.
+     */
+    public static final int DB_READ_THREADS = 2;
+
+    /**
+     * Number of threads of the {@link AppSchedulers#network()} pool, shared by all refreshes that run
+     * at the same time.
+     */
+    public static final int NETWORK_THREADS = MAX_CONCURRENT_REQUESTS;
+
+    /**
+     * Seconds an idle thread of the {@link AppSchedulers} is kept before it is stopped.
+     */
+    public static final int SCHEDULER_KEEP_ALIVE_SECONDS = 30;
+
+    /**
+     * Number of locations whose latest data is kept in memory.
+     */
+    public static final int LOCATION_CACHE_SIZE = 8;
+
+    /**
+     * Minutes between two background syncs, WorkManager does not run periodic work more often than
+     * every 15 minutes.
+     */
+    public static final long SYNC_INTERVAL_MINUTES = 60;
+
+    /**
+     * Initial delay in seconds before a failed background sync is retried, doubled every attempt.
+     */
+    public static final long SYNC_BACKOFF_SECONDS = 30;
+
+    /**
+     * Number of attempts after which a failing background sync gives up until its next period.
+     */
+    public static final int SYNC_MAX_ATTEMPTS = 5;
+
+    /**
+     * Constraints of the periodic background sync.
      */
-    public static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("#.##");
+    public static final boolean SYNC_REQUIRE_UNMETERED = true;
+    public static final boolean SYNC_REQUIRE_CHARGING = false;
 
     /**
-     * Hardcoded values used in the OpenWeatherMap API calls.
-     * TODO: move to settings if enough time
+     * Number of days raw observations and forecast slots are kept in the archive as a row per
+     * sample, older data is sealed into compressed chunks and added to the daily aggregates.
      */
-    public static final String OPENWEATHER_API_UNITS_VALUE = "metric";
-    public static final String OPENWEATHER_API_LANGUAGE_VALUE = "nl";
+    public static final int ARCHIVE_RAW_RETENTION_DAYS = 1;
+
+    /**
+     * Number of days the compressed chunks of raw data are kept in the archive.
+     */
+    public static final int ARCHIVE_CHUNK_RETENTION_DAYS = 365;
+
+    /**
+     * Number of days the daily aggregates are kept in the archive.
+     */
+    public static final int ARCHIVE_AGGREGATE_RETENTION_DAYS = 2 * 365;
+
+    /**
+     * Length in seconds of the window forecasts are archived by. OpenWeatherMap updates its
+     * forecast every 3 hours, so fetches within the same window store the forecast only once.
+     */
+    public static final long ARCHIVE_ISSUE_WINDOW_SECONDS = 3 * 60 * 60;
+
+    /**
+     * Hours between two runs of the archive compaction.
+     */
+    public static final long ARCHIVE_COMPACTION_INTERVAL_HOURS = 24;
+
+    /**
+     * Name of the directory, inside the external files directory of the app, the metrics snapshots
+     * are exported to, see {@link MetricsRegistry#writeSnapshot(java.io.File)}.
+     */
+    public static final String METRICS_DIR = "metrics";
+
+    /**
+     * Decimal format pattern used to display min and max temp values.
+     */
+    public static final String DECIMAL_FORMAT = "#.##";
+
+    /**
+     * Units and language of the OpenWeatherMap API calls. Temperatures are fetched and stored in
+     * Kelvin and converted to the {@link TemperatureUnit} of the settings when they are shown.
+     * Descriptions are shown in the language of the device through {@link ConditionUtil}, the English
+     * description is only kept for unknown conditions. Neither depend on the settings, so changing
+     * them never fetches the data again.
+     */
+    public static final String OPENWEATHER_API_UNITS_VALUE = "standard";
+    public static final String OPENWEATHER_API_LANGUAGE_VALUE = "en";
     public static final double OPENWEATHER_API_LAT_VALUE = 52.128479;
     public static final double OPENWEATHER_API_LON_VALUE = 5.566180;
 
+    /**
+     * ID of the location that is created with the database, at the coordinates above.
+     */
+    public static final int DEFAULT_LOCATION_ID = 1;
+    public static final String DEFAULT_LOCATION_NAME = "Thuis";
+
 
 }
@@ -0,0 +1,215 @@
+package io.hoogland.weer2track.util;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import io.hoogland.weer2track.model.DailyForecast;
+
+/**
+ * Reusable accumulator that aggregates forecast slots of a single day into a {@link DailyForecast}.
+ * Temperatures and chance of precipitation are kept as primitives and descriptions/icons are
+ * counted in a small fixed-size table, so adding a slot does not allocate. Instances are reset and
+ * reused, see {@link #forCurrentThread()} and {@link ForecastUtil#accumulatorFor(java.util.List, long)}. The condition ID
+ * and icon are kept next to the description they were first added with, so the condition,
+ * description and icon written to the {@link DailyForecast} always belong together.
+ *
+ * @author dan
+ */
+public class DailyForecastAccumulator {
+
+    /**
+     * Number of 3-hour forecast slots in a day.
+     */
+    static final int SLOTS_PER_DAY = 8;
+
+    private static final ThreadLocal<DailyForecastAccumulator> SHARED = new ThreadLocal<>();
+
+    private final CodeCounter descriptionCount = new CodeCounter();
+    private long epochDay;
+    private double minTemp;
+    private double maxTemp;
+    private double precipitationSum;
+    private int count;
+
+    public DailyForecastAccumulator() {
+        reset(0);
+    }
+
+    /**
+     * Gets the accumulator of the current thread, for code that aggregates a single day at a time.
+     * It is only valid until the next call on the same thread.
+     *
+     * @param epochDay Day the slots belong to, as days since epoch
+     * @return Reset {@link DailyForecastAccumulator} for the given day
+     */
+    public static DailyForecastAccumulator forCurrentThread(long epochDay) {
+        DailyForecastAccumulator accumulator = SHARED.get();
+        if (accumulator == null) {
+            accumulator = new DailyForecastAccumulator();
+            SHARED.set(accumulator);
+        }
+        accumulator.reset(epochDay);
+        return accumulator;
+    }
+
+    /**
+     * Clears all values so the accumulator can be reused for another day.
+     *
+     * @param epochDay Day the next slots belong to, as days since epoch
+     */
+    public void reset(long epochDay) {
+        this.epochDay = epochDay;
+        minTemp = Double.POSITIVE_INFINITY;
+        maxTemp = Double.NEGATIVE_INFINITY;
+        precipitationSum = 0;
+        count = 0;
+        descriptionCount.clear();
+    }
+
+    /**
+     * Adds a single forecast slot to the aggregation.
+     *
+     * @param minTemp     Minimum temperature of the slot
+     * @param maxTemp     Maximum temperature of the slot
+     * @param pop         Chance of precipitation of the slot
+     * @param conditionId ID of the primary weather condition of the slot
+     * @param description Description of the primary weather condition of the slot
+     * @param icon        Icon of the primary weather condition of the slot
+     */
+    public void add(double minTemp, double maxTemp, double pop, int conditionId, String description, String icon) {
+        if (minTemp < this.minTemp) {
+            this.minTemp = minTemp;
+        }
+        if (maxTemp > this.maxTemp) {
+            this.maxTemp = maxTemp;
+        }
+        precipitationSum += pop;
+        count++;
+        descriptionCount.increment(description, conditionId, icon);
+    }
+
+    public long getEpochDay() {
+        return epochDay;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Writes the aggregated values into the given {@link DailyForecast}: the minimum and maximum
+     * temperature, the average chance of precipitation and the most occurring description, with the
+     * condition and icon it was first added with.
+     *
+     * @param dailyForecast {@link DailyForecast} to write the values to
+     */
+    public void writeTo(DailyForecast dailyForecast) {
+        dailyForecast.setDate(LocalDate.ofEpochDay(epochDay));
+        dailyForecast.setMinTemp(minTemp);
+        dailyForecast.setMaxTemp(maxTemp);
+        dailyForecast.setPrecipitationChance(precipitationSum / count);
+        dailyForecast.setConditionId(descriptionCount.mostFrequentTag());
+        dailyForecast.setDescription(descriptionCount.mostFrequent());
+        dailyForecast.setIcon(descriptionCount.mostFrequentLabel());
+    }
+
+    /**
+     * Creates a new {@link DailyForecast} with the aggregated values.
+     *
+     * @return {@link DailyForecast} for the accumulated day
+     * @see #writeTo(DailyForecast)
+     */
+    public DailyForecast toDailyForecast() {
+        DailyForecast dailyForecast = new DailyForecast();
+        writeTo(dailyForecast);
+        return dailyForecast;
+    }
+
+    /**
+     * Counter for the small set of descriptions of a day. A day has at most
+     * {@link #SLOTS_PER_DAY} forecast slots, so the arrays are sized for that many distinct codes
+     * and searched linearly. They only grow for a longer list of forecasts with more distinct codes.
+     * The most frequent code is tracked while counting, on a tie the code that got there first wins.
+     * Every code can carry a tag and a label, the ones it was first added with are kept.
+     */
+    private static class CodeCounter {
+        private String[] keys = new String[SLOTS_PER_DAY];
+        private int[] counts = new int[SLOTS_PER_DAY];
+        private int[] tags = new int[SLOTS_PER_DAY];
+        private String[] labels = new String[SLOTS_PER_DAY];
+        private int size;
+        private int nullCount;
+        private int nullTag;
+        private String nullLabel;
+        private String best;
+        private int bestCount;
+        private int bestTag;
+        private String bestLabel;
+
+        private void increment(String key, int tag, String label) {
+            int count;
+            if (key == null) {
+                if (nullCount == 0) {
+                    nullTag = tag;
+                    nullLabel = label;
+                }
+                count = ++nullCount;
+                tag = nullTag;
+                label = nullLabel;
+            } else {
+                int index = 0;
+                while (index < size && !keys[index].equals(key)) {
+                    index++;
+                }
+                if (index == size) {
+                    if (size == keys.length) {
+                        keys = Arrays.copyOf(keys, size * 2);
+                        counts = Arrays.copyOf(counts, size * 2);
+                        tags = Arrays.copyOf(tags, size * 2);
+                        labels = Arrays.copyOf(labels, size * 2);
+                    }
+                    keys[index] = key;
+                    counts[index] = 0;
+                    tags[index] = tag;
+                    labels[index] = label;
+                    size++;
+                }
+                count = ++counts[index];
+                tag = tags[index];
+                label = labels[index];
+            }
+            if (count > bestCount) {
+                bestCount = count;
+                best = key;
+                bestTag = tag;
+                bestLabel = label;
+            }
+        }
+
+        private String mostFrequent() {
+            return best;
+        }
+
+        private int mostFrequentTag() {
+            return bestTag;
+        }
+
+        private String mostFrequentLabel() {
+            return bestLabel;
+        }
+
+        private void clear() {
+            // Counts and tags are overwritten when a key is added again.
+            Arrays.fill(keys, 0, size, null);
+            Arrays.fill(labels, 0, size, null);
+            size = 0;
+            nullCount = 0;
+            nullTag = 0;
+            nullLabel = null;
+            best = null;
+            bestCount = 0;
+            bestTag = 0;
+            bestLabel = null;
+        }
+    }
+}
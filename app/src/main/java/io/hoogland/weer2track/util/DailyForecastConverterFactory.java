@@ -0,0 +1,59 @@
+package io.hoogland.weer2track.util;
+
+import com.google.gson.stream.JsonReader;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import io.hoogland.weer2track.model.DailyForecast;
+import io.hoogland.weer2track.model.ForecastSlot;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Retrofit {@link Converter.Factory} that converts forecast responses straight into a {@link List}
+ * of {@link DailyForecast} or {@link ForecastSlot} using {@link ForecastStreamParser}. Other types
+ * are left to the next converter factory.
+ *
+ * @author dan
+ */
+public class DailyForecastConverterFactory extends Converter.Factory {
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations, Retrofit retrofit) {
+        if (isListOf(type, DailyForecast.class)) {
+            return (Converter<ResponseBody, List<DailyForecast>>) body -> {
+                try (JsonReader reader = new JsonReader(body.charStream())) {
+                    return ForecastStreamParser.parseDailyForecasts(reader);
+                }
+            };
+        }
+        if (isListOf(type, ForecastSlot.class)) {
+            return (Converter<ResponseBody, List<ForecastSlot>>) body -> {
+                try (JsonReader reader = new JsonReader(body.charStream())) {
+                    return ForecastStreamParser.parseSlots(reader);
+                }
+            };
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether or not the given type is a {@link List} of the given element type.
+     *
+     * @param type    Return type of the Retrofit call
+     * @param element Type of the elements
+     * @return If the type should be handled by this factory
+     */
+    private static boolean isListOf(Type type, Class<?> element) {
+        if (!(type instanceof ParameterizedType)) {
+            return false;
+        }
+        ParameterizedType parameterizedType = (ParameterizedType) type;
+        return parameterizedType.getRawType() == List.class
+                && parameterizedType.getActualTypeArguments()[0] == element;
+    }
+}
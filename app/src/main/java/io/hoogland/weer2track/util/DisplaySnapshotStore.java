@@ -0,0 +1,252 @@
+package io.hoogland.weer2track.util;
+
+import android.os.Build;
+import android.util.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import io.hoogland.weer2track.model.CurrentWeather;
+import io.hoogland.weer2track.model.DailyForecast;
+import io.hoogland.weer2track.model.DisplaySnapshot;
+import io.hoogland.weer2track.model.converter.DateConverter;
+
+/**
+ * Reads and writes a {@link DisplaySnapshot} in a compact binary file. The file is read through a
+ * memory map, so showing the last data on a cold start needs no database, cursors or parsing of
+ * text. It starts with a header, followed by the payload:
+ * <pre>
+ * int    magic "W2TS"
+ * short  version
+ * int    length of the payload in bytes
+ * int    CRC32 of the payload
+ * int    location ID
+ * byte   1 if the current weather follows, 0 otherwise
+ *        long date time, double temp, double feels like temp, int condition ID, string description,
+ *        string icon
+ * short  number of daily forecasts, each:
+ *        long epoch day, double min temp, double max temp, double precipitation chance,
+ *        int condition ID, string description, string icon, long modified at
+ * </pre>
+ * Times are in seconds since epoch as stored by {@link DateConverter}, {@link Long#MIN_VALUE} if
+ * missing. A missing temperature is NaN and a string is its length in UTF-8 bytes as a short, -1
+ * for null, followed by the bytes. A file that is unknown, truncated or does not match its
+ * checksum is ignored.
+ *
+ * @author dan
+ */
+public class DisplaySnapshotStore {
+
+    private static final String TAG = "DisplaySnapshotStore";
+
+    private static final int MAGIC = 0x57325453;
+    private static final short VERSION = 2;
+    private static final int HEADER_BYTES = 14;
+    /**
+     * Larger files are not mapped, a snapshot of a week of forecasts is well below this.
+     */
+    private static final int MAX_BYTES = 64 * 1024;
+
+    /**
+     * Reads the snapshot in the given file.
+     *
+     * @param file File written by {@link #write(File, DisplaySnapshot)}
+     * @return {@link DisplaySnapshot}, null if there is none or it is corrupt
+     */
+    public static DisplaySnapshot read(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (FileInputStream input = new FileInputStream(file);
+             FileChannel channel = input.getChannel()) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > MAX_BYTES) {
+                throw new IOException("Unexpected size " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return decode(buffer);
+        } catch (IOException | RuntimeException e) {
+            // Truncated payloads throw a BufferUnderflowException.
+            Log.w(TAG, "read: ignoring corrupt snapshot " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the snapshot to the given file. It is written to a temporary file that is synced to
+     * disk and renamed over the existing file, so a crash never leaves a half written snapshot.
+     * Writes are serialized, so concurrent refreshes can't replace each other's temporary file or
+     * rename an older snapshot over a newer one.
+     *
+     * @param file     File to write to
+     * @param snapshot {@link DisplaySnapshot} to write
+     * @throws IOException If the file could not be written
+     */
+    public static synchronized void write(File file, DisplaySnapshot snapshot) throws IOException {
+        byte[] payload = encode(snapshot);
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC)
+                .putShort(VERSION)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue());
+
+        File temp = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+        try {
+            try (FileOutputStream output = new FileOutputStream(temp)) {
+                output.write(header.array());
+                output.write(payload);
+                output.getFD().sync();
+            }
+            if (!temp.renameTo(file)) {
+                throw new IOException("Could not rename " + temp + " to " + file);
+            }
+        } finally {
+            if (temp.exists() && !temp.delete()) {
+                Log.w(TAG, "write: could not delete " + temp);
+            }
+        }
+    }
+
+    private static byte[] encode(DisplaySnapshot snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(snapshot.getLocationId());
+
+        CurrentWeather weather = snapshot.getCurrentWeather();
+        output.writeBoolean(weather != null);
+        if (weather != null) {
+            writeDateTime(output, weather.getDateTime());
+            output.writeDouble(weather.getTemp());
+            output.writeDouble(weather.getFeelsLikeTemp());
+            output.writeInt(weather.getConditionId());
+            writeString(output, weather.getDescription());
+            writeString(output, weather.getIcon());
+        }
+
+        List<DailyForecast> dailyForecasts = snapshot.getDailyForecasts();
+        output.writeShort(dailyForecasts.size());
+        for (DailyForecast dailyForecast : dailyForecasts) {
+            output.writeLong(dailyForecast.getDate().toEpochDay());
+            output.writeDouble(dailyForecast.getMinTemp() == null ? Double.NaN : dailyForecast.getMinTemp());
+            output.writeDouble(dailyForecast.getMaxTemp() == null ? Double.NaN : dailyForecast.getMaxTemp());
+            output.writeDouble(dailyForecast.getPrecipitationChance());
+            output.writeInt(dailyForecast.getConditionId());
+            writeString(output, dailyForecast.getDescription());
+            writeString(output, dailyForecast.getIcon());
+            writeDateTime(output, dailyForecast.getModifiedAt());
+        }
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    private static DisplaySnapshot decode(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a display snapshot");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported version " + version);
+        }
+        int length = buffer.getInt();
+        int expectedCrc = buffer.getInt();
+        if (length != buffer.remaining()) {
+            throw new IOException("Expected " + length + " bytes, found " + buffer.remaining());
+        }
+        if (crcOf(buffer) != expectedCrc) {
+            throw new IOException("Checksum mismatch");
+        }
+
+        int locationId = buffer.getInt();
+        CurrentWeather weather = null;
+        if (buffer.get() != 0) {
+            weather = new CurrentWeather();
+            weather.setLocationId(locationId);
+            weather.setDateTime(readDateTime(buffer));
+            weather.setTemp(buffer.getDouble());
+            weather.setFeelsLikeTemp(buffer.getDouble());
+            weather.setConditionId(buffer.getInt());
+            weather.setDescription(readString(buffer));
+            weather.setIcon(readString(buffer));
+        }
+
+        int count = buffer.getShort();
+        List<DailyForecast> dailyForecasts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            DailyForecast dailyForecast = new DailyForecast();
+            dailyForecast.setLocationId(locationId);
+            dailyForecast.setDate(LocalDate.ofEpochDay(buffer.getLong()));
+            double minTemp = buffer.getDouble();
+            double maxTemp = buffer.getDouble();
+            dailyForecast.setMinTemp(Double.isNaN(minTemp) ? null : minTemp);
+            dailyForecast.setMaxTemp(Double.isNaN(maxTemp) ? null : maxTemp);
+            dailyForecast.setPrecipitationChance(buffer.getDouble());
+            dailyForecast.setConditionId(buffer.getInt());
+            dailyForecast.setDescription(readString(buffer));
+            dailyForecast.setIcon(readString(buffer));
+            dailyForecast.setModifiedAt(readDateTime(buffer));
+            dailyForecasts.add(dailyForecast);
+        }
+        return new DisplaySnapshot(locationId, weather, dailyForecasts);
+    }
+
+    /**
+     * Calculates the CRC32 of the remaining bytes, without moving the position of the buffer.
+     */
+    private static int crcOf(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            crc.update(buffer.duplicate());
+        } else {
+            for (int i = buffer.position(); i < buffer.limit(); i++) {
+                crc.update(buffer.get(i));
+            }
+        }
+        return (int) crc.getValue();
+    }
+
+    private static void writeDateTime(DataOutputStream output, LocalDateTime dateTime) throws IOException {
+        Long epoch = DateConverter.localDateTimeToEpoch(dateTime);
+        output.writeLong(epoch == null ? Long.MIN_VALUE : epoch);
+    }
+
+    private static LocalDateTime readDateTime(ByteBuffer buffer) {
+        long epoch = buffer.getLong();
+        return epoch == Long.MIN_VALUE ? null : DateConverter.epochToLocalDateTime(epoch);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeShort(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeShort(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
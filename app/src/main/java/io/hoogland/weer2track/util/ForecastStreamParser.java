@@ -0,0 +1,187 @@
+package io.hoogland.weer2track.util;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.hoogland.weer2track.model.DailyForecast;
+import io.hoogland.weer2track.model.ForecastSlot;
+import io.hoogland.weer2track.model.converter.DateConverter;
+
+/**
+ * Streaming parser for the OpenWeatherMap forecast API. Every 3-hour slot is folded into a
+ * {@link DailyForecastAccumulator} for its day while the JSON is being read, so no intermediate
+ * {@link io.hoogland.weer2track.model.response.ForecastResponse} object graph is created. Days are
+ * taken in the {@link DateConverter#ZONE}, like every other stored date.
+ *
+ * @author dan
+ * @see <a href="https://openweathermap.org/forecast5">OpenWeatherMap 5 day weather forecast</a>
+ */
+public class ForecastStreamParser {
+
+    private static final int SECONDS_PER_DAY = 86400;
+
+    /**
+     * Reads a forecast response and returns it grouped by day with average/min/max values, with the
+     * same rules as {@link ForecastUtil#forecastResponseToDaily}.
+     *
+     * @param reader {@link JsonReader} positioned at the start of the forecast response
+     * @return {@link List} of {@link DailyForecast} grouped by day
+     * @throws IOException If the response could not be read
+     */
+    public static List<DailyForecast> parseDailyForecasts(JsonReader reader) throws IOException {
+        List<DailyForecastAccumulator> days = new ArrayList<>();
+        parse(reader, days, null);
+
+        List<DailyForecast> resultList = new ArrayList<>(days.size());
+        for (DailyForecastAccumulator day : days) {
+            resultList.add(day.toDailyForecast());
+        }
+        return resultList;
+    }
+
+    /**
+     * Reads every 3-hour slot of a forecast response, including the weekend ones, without grouping
+     * them by day. They are grouped by {@link io.hoogland.weer2track.model.DailyForecastView} once
+     * they are saved.
+     *
+     * @param reader {@link JsonReader} positioned at the start of the forecast response
+     * @return {@link List} of {@link ForecastSlot} in the order of the response
+     * @throws IOException If the response could not be read
+     */
+    public static List<ForecastSlot> parseSlots(JsonReader reader) throws IOException {
+        List<ForecastSlot> slots = new ArrayList<>();
+        parse(reader, null, slots);
+        return slots;
+    }
+
+    /**
+     * Reads a forecast response, folding every slot into the given accumulators and adding it to
+     * the given slots, if they are not null.
+     */
+    private static void parse(JsonReader reader, List<DailyForecastAccumulator> days, List<ForecastSlot> slots) throws IOException {
+        ZoneRules zoneRules = DateConverter.ZONE.getRules();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("list".equals(reader.nextName())) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    readSlot(reader, zoneRules, days, slots);
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Reads a single 3-hour slot and folds it into the accumulator of its day, weekend slots are
+     * skipped. The slot is added to the given list if it is not null.
+     */
+    private static void readSlot(JsonReader reader, ZoneRules zoneRules, List<DailyForecastAccumulator> days,
+                                 List<ForecastSlot> slots) throws IOException {
+        long dt = Long.MIN_VALUE;
+        double minTemp = 0;
+        double maxTemp = 0;
+        double pop = 0;
+        int conditionId = 0;
+        String description = null;
+        String icon = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "dt":
+                    dt = reader.nextLong();
+                    break;
+                case "pop":
+                    pop = reader.nextDouble();
+                    break;
+                case "main":
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        switch (reader.nextName()) {
+                            case "temp_min":
+                                minTemp = reader.nextDouble();
+                                break;
+                            case "temp_max":
+                                maxTemp = reader.nextDouble();
+                                break;
+                            default:
+                                reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    break;
+                case "weather":
+                    reader.beginArray();
+                    // Only the first weather condition is the primary one.
+                    if (reader.hasNext()) {
+                        reader.beginObject();
+                        while (reader.hasNext()) {
+                            switch (reader.nextName()) {
+                                case "id":
+                                    conditionId = reader.nextInt();
+                                    break;
+                                case "description":
+                                    description = nextNullableString(reader);
+                                    break;
+                                case "icon":
+                                    icon = nextNullableString(reader);
+                                    break;
+                                default:
+                                    reader.skipValue();
+                            }
+                        }
+                        reader.endObject();
+                    }
+                    while (reader.hasNext()) {
+                        reader.skipValue();
+                    }
+                    reader.endArray();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (dt == Long.MIN_VALUE) {
+            return;
+        }
+        long offset = zoneRules.isFixedOffset() ? zoneRules.getOffset(Instant.EPOCH).getTotalSeconds()
+                : zoneRules.getOffset(Instant.ofEpochSecond(dt)).getTotalSeconds();
+        long epochDay = Math.floorDiv(dt + offset, SECONDS_PER_DAY);
+        if (slots != null) {
+            slots.add(new ForecastSlot(dt, LocalDate.ofEpochDay(epochDay), minTemp, maxTemp, pop, conditionId,
+                    description, icon));
+        }
+        if (days == null) {
+            return;
+        }
+        // Epoch day 0 was a thursday, shift it so monday maps to 0.
+        if (DateUtils.isWeekend(DayOfWeek.of((int) Math.floorMod(epochDay + 3, 7L) + 1))) {
+            return;
+        }
+
+        ForecastUtil.accumulatorFor(days, epochDay).add(minTemp, maxTemp, pop, conditionId, description, icon);
+    }
+
+    private static String nextNullableString(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+}
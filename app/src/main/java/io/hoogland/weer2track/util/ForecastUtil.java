@@ -2,13 +2,13 @@ package io.hoogland.weer2track.util;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import io.hoogland.weer2track.model.DailyForecast;
 import io.hoogland.weer2track.model.response.Forecast;
 import io.hoogland.weer2track.model.response.ForecastResponse;
+import io.hoogland.weer2track.model.response.OneCallDaily;
+import io.hoogland.weer2track.model.response.OneCallResponse;
 
 /**
  * Util class for common tasks executed on {@link DailyForecast} objects.
@@ -17,6 +17,13 @@ import io.hoogland.weer2track.model.response.ForecastResponse;
  */
 public class ForecastUtil {
 
+    /**
+     * Accumulators reused by the conversions of every thread, indexed by their position in the
+     * list of days being converted.
+     */
+    private static final ThreadLocal<List<DailyForecastAccumulator>> ACCUMULATORS =
+            ThreadLocal.withInitial(ArrayList::new);
+
     /**
      * Converts a {@link ForecastResponse} to a {@link List} of {@link DailyForecast} grouped by day with
      * average/min/max values based on the field.
@@ -26,34 +33,69 @@ public class ForecastUtil {
      * based on the field.
      */
     public static List<DailyForecast> forecastResponseToDaily(ForecastResponse response) {
-        Map<LocalDate, List<DailyForecast>> resultMap = new HashMap<>();
+        List<DailyForecastAccumulator> days = new ArrayList<>();
 
         // Sort the results by day
         for (Forecast forecast : response.getForecasts()) {
-            DailyForecast dailyForecast = new DailyForecast(forecast);
-            LocalDate date = dailyForecast.getDate();
+            LocalDate date = forecast.getDateTime();
 
             // Check if it's a weekday before continuing.
             if (!DateUtils.isWeekend(date.getDayOfWeek())) {
-                List<DailyForecast> dailyForecastList;
-
-                /* Check if list already exists for date key, if it does append to
-                the existing values, if not create a new list. */
-                if (resultMap.containsKey(date)) {
-                    dailyForecastList = resultMap.get(date);
-                } else {
-                    dailyForecastList = new ArrayList<>();
-                }
-                dailyForecastList.add(dailyForecast);
-                resultMap.put(dailyForecast.getDate(), dailyForecastList);
+                accumulatorFor(days, date.toEpochDay()).add(forecast.getMainResponse().getMinTemp(),
+                        forecast.getMainResponse().getMaxTemp(), forecast.getPercentOfPrecipitation(),
+                        forecast.getWeather().get(0).getId(), forecast.getWeather().get(0).getDescription(),
+                        forecast.getWeather().get(0).getIcon());
             }
         }
 
         // Get average of each day and return the list of results.
-        List<DailyForecast> resultList = new ArrayList<>();
-        resultMap.forEach((date, forecastList) -> {
-            resultList.add(new DailyForecast(forecastList));
-        });
+        List<DailyForecast> resultList = new ArrayList<>(days.size());
+        for (DailyForecastAccumulator day : days) {
+            resultList.add(day.toDailyForecast());
+        }
+        return resultList;
+    }
+
+    /**
+     * Converts the daily forecast of a {@link OneCallResponse} to a {@link List} of
+     * {@link DailyForecast}, leaving out the weekend like {@link #forecastResponseToDaily}.
+     *
+     * @param response {@link OneCallResponse} received from an OpenWeatherMap API call
+     * @return {@link List} of {@link DailyForecast}, one per day
+     */
+    public static List<DailyForecast> oneCallResponseToDaily(OneCallResponse response) {
+        List<DailyForecast> resultList = new ArrayList<>(response.getDaily().size());
+        for (OneCallDaily daily : response.getDaily()) {
+            if (!DateUtils.isWeekend(daily.getDate().getDayOfWeek())) {
+                resultList.add(new DailyForecast(daily));
+            }
+        }
         return resultList;
     }
+
+    /**
+     * Finds the {@link DailyForecastAccumulator} for the given day, or adds one if there is none
+     * yet. Forecasts are sent in chronological order, so the last accumulator is checked first. The
+     * added accumulators are reset instances of the current thread, so they are only valid until
+     * the next conversion on the same thread; the days must be converted before it starts.
+     *
+     * @param days     Accumulators found so far
+     * @param epochDay Day to find the accumulator for, as days since epoch
+     * @return {@link DailyForecastAccumulator} for the given day
+     */
+    public static DailyForecastAccumulator accumulatorFor(List<DailyForecastAccumulator> days, long epochDay) {
+        for (int i = days.size() - 1; i >= 0; i--) {
+            if (days.get(i).getEpochDay() == epochDay) {
+                return days.get(i);
+            }
+        }
+        List<DailyForecastAccumulator> pool = ACCUMULATORS.get();
+        if (pool.size() == days.size()) {
+            pool.add(new DailyForecastAccumulator());
+        }
+        DailyForecastAccumulator day = pool.get(days.size());
+        day.reset(epochDay);
+        days.add(day);
+        return day;
+    }
 }
@@ -0,0 +1,72 @@
+package io.hoogland.weer2track.util;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * Util class that keeps track of when the data in the application database was last refreshed
+ * from the OpenWeatherMap API, used to decide whether or not cached data can be shown without
+ * waiting for the network.
+ *
+ * @author dan
+ */
+public class FreshnessUtil {
+
+    /**
+     * Key for the current_weather table.
+     */
+    public static final String CURRENT_WEATHER = "current_weather";
+
+    /**
+     * Key for the daily_forecast table.
+     */
+    public static final String DAILY_FORECAST = "daily_forecast";
+
+    private static final String PREFERENCES_NAME = "freshness";
+
+    /**
+     * Stores the current time as the moment the given table was last refreshed successfully.
+     *
+     * @param context Context used to access the shared preferences
+     * @param table   Key of the table that was refreshed
+     */
+    public static void markRefreshed(Context context, String table) {
+        getPreferences(context).edit().putLong(table, System.currentTimeMillis()).apply();
+    }
+
+    /**
+     * Checks whether or not the given table was refreshed within {@link Constants#CACHE_TTL_MINUTES}.
+     *
+     * @param context Context used to access the shared preferences
+     * @param table   Key of the table to check
+     * @return If the data in the table is younger than the TTL
+     */
+    public static boolean isFresh(Context context, String table) {
+        long refreshedAt = getPreferences(context).getLong(table, 0L);
+        return System.currentTimeMillis() - refreshedAt < Constants.CACHE_TTL_MINUTES * 60_000L;
+    }
+
+    /**
+     * Checks whether or not the given table was ever refreshed successfully.
+     *
+     * @param context Context used to access the shared preferences
+     * @param table   Key of the table to check
+     * @return If there is data in the table to show
+     */
+    public static boolean wasRefreshed(Context context, String table) {
+        return getPreferences(context).getLong(table, 0L) != 0L;
+    }
+
+    /**
+     * Forgets when the tables were refreshed, for when the data in them was deleted.
+     *
+     * @param context Context used to access the shared preferences
+     */
+    public static void clear(Context context) {
+        getPreferences(context).edit().clear().apply();
+    }
+
+    private static SharedPreferences getPreferences(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+    }
+}
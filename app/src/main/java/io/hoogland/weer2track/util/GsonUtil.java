@@ -0,0 +1,36 @@
+package io.hoogland.weer2track.util;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import io.hoogland.weer2track.model.converter.EpochLocalDateAdapter;
+import io.hoogland.weer2track.model.converter.EpochLocalDateTimeAdapter;
+import io.hoogland.weer2track.model.response.Stag;
+
+/**
+ * Util class for creating the {@link Gson} instance used to deserialize OpenWeatherMap responses.
+ * Kept free of Android dependencies so it can also be used by the benchmarks.
+ *
+ * @author dan
+ */
+public class GsonUtil {
+
+    /**
+     * Creates a {@link Gson} instance with adapters to convert {@link Long} to {@link LocalDate}
+     * and {@link LocalDateTime}. The response models are read by the adapters Stag generates at
+     * compile time, so no reflection is needed to create them on first use.
+     *
+     * @return {@link Gson} usable for OpenWeatherMap responses
+     * @see <a href="https://github.com/vimeo/stag-java">Stag</a>
+     */
+    public static Gson createGson() {
+        return new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new EpochLocalDateTimeAdapter().nullSafe())
+                .registerTypeAdapter(LocalDate.class, new EpochLocalDateAdapter().nullSafe())
+                .registerTypeAdapterFactory(new Stag.Factory())
+                .create();
+    }
+}
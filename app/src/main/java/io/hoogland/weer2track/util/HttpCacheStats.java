@@ -0,0 +1,44 @@
+package io.hoogland.weer2track.util;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * OkHttp application interceptor that counts how OpenWeatherMap calls were served by the HTTP
+ * cache, in {@link MetricsRegistry#HTTP_CACHE_HITS}, {@link MetricsRegistry#HTTP_CACHE_REVALIDATIONS}
+ * and {@link MetricsRegistry#HTTP_CACHE_MISSES}.
+ *
+ * @author dan
+ */
+public class HttpCacheStats implements Interceptor {
+
+    private static final String TAG = "HttpCacheStats";
+
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        String outcome;
+        if (response.networkResponse() == null) {
+            outcome = MetricsRegistry.HTTP_CACHE_HITS;
+        } else if (response.cacheResponse() != null) {
+            // Conditional request answered with 304, the body was served from the cache.
+            outcome = MetricsRegistry.HTTP_CACHE_REVALIDATIONS;
+        } else {
+            outcome = MetricsRegistry.HTTP_CACHE_MISSES;
+        }
+        metrics.increment(outcome);
+        if (Log.isLoggable(TAG, Log.DEBUG)) {
+            Log.d(TAG, "intercept: " + chain.request().url().encodedPath() + " " + outcome);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,75 @@
+package io.hoogland.weer2track.util;
+
+import android.widget.ImageView;
+
+import androidx.annotation.DrawableRes;
+
+import com.squareup.picasso.Picasso;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.hoogland.weer2track.R;
+
+/**
+ * Util class that maps OpenWeatherMap icon codes to the bundled vector drawables, so icons do not
+ * have to be downloaded and are also shown while offline.
+ *
+ * @author dan
+ * @see <a href="https://openweathermap.org/weather-conditions">OpenWeatherMap weather conditions</a>
+ */
+public class IconUtil {
+
+    private static final Map<String, Integer> ICONS = new HashMap<>();
+
+    static {
+        ICONS.put("01d", R.drawable.ic_weather_clear_day);
+        ICONS.put("01n", R.drawable.ic_weather_clear_night);
+        ICONS.put("02d", R.drawable.ic_weather_few_clouds_day);
+        ICONS.put("02n", R.drawable.ic_weather_few_clouds_night);
+        ICONS.put("03d", R.drawable.ic_weather_clouds);
+        ICONS.put("03n", R.drawable.ic_weather_clouds);
+        ICONS.put("04d", R.drawable.ic_weather_broken_clouds);
+        ICONS.put("04n", R.drawable.ic_weather_broken_clouds);
+        ICONS.put("09d", R.drawable.ic_weather_shower_rain);
+        ICONS.put("09n", R.drawable.ic_weather_shower_rain);
+        ICONS.put("10d", R.drawable.ic_weather_rain_day);
+        ICONS.put("10n", R.drawable.ic_weather_rain_night);
+        ICONS.put("11d", R.drawable.ic_weather_thunderstorm);
+        ICONS.put("11n", R.drawable.ic_weather_thunderstorm);
+        ICONS.put("13d", R.drawable.ic_weather_snow);
+        ICONS.put("13n", R.drawable.ic_weather_snow);
+        ICONS.put("50d", R.drawable.ic_weather_mist);
+        ICONS.put("50n", R.drawable.ic_weather_mist);
+    }
+
+    /**
+     * Looks up the bundled drawable of an icon code.
+     *
+     * @param icon OpenWeatherMap icon code, for example "10d"
+     * @return Drawable resource of the icon, or 0 if the code is not known
+     */
+    @DrawableRes
+    public static int getIconResource(String icon) {
+        Integer resource = icon == null ? null : ICONS.get(icon);
+        return resource == null ? 0 : resource;
+    }
+
+    /**
+     * Shows an icon in the given {@link ImageView}. The bundled drawable is used when there is one,
+     * otherwise the icon is loaded from {@link Constants#OPENWEATHER_ICON_URL}.
+     *
+     * @param view     {@link ImageView} to show the icon in
+     * @param iconRes  Drawable resource of the icon, 0 if there is none
+     * @param icon     OpenWeatherMap icon code used for the remote fallback
+     */
+    public static void loadIcon(ImageView view, @DrawableRes int iconRes, String icon) {
+        if (iconRes != 0) {
+            // A recycled view might still have a pending download for another icon.
+            Picasso.get().cancelRequest(view);
+            view.setImageResource(iconRes);
+        } else {
+            Picasso.get().load(String.format(Constants.OPENWEATHER_ICON_URL, icon)).into(view);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package io.hoogland.weer2track.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations with fixed buckets. Every power of two from 64 up to 2^27
+ * microseconds (about 2 minutes) is split in 4 buckets, so a percentile is at most 25% above the
+ * real value.
+ * Shorter durations share the first bucket and longer ones the last. Because the buckets are the
+ * same on every device, the bucket counts of exported snapshots can simply be added up.
+ *
+ * @author dan
+ */
+public class LatencyHistogram {
+
+    /**
+     * Upper bound of the first bucket in microseconds, as a power of two.
+     */
+    private static final int MIN_SHIFT = 6;
+    private static final int MAX_SHIFT = 27;
+    private static final int SUB_BUCKETS = 4;
+    public static final int BUCKETS = 2 + (MAX_SHIFT - MIN_SHIFT) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Adds a duration to the histogram.
+     *
+     * @param nanos Duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        buckets.incrementAndGet(bucketOf(micros));
+        count.incrementAndGet();
+        sum.addAndGet(micros);
+        long current;
+        while (micros > (current = max.get()) && !max.compareAndSet(current, micros)) {
+            // Another thread raised the maximum in the meantime, try again with its value.
+        }
+    }
+
+    /**
+     * @return Number of recorded durations
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return Sum of the recorded durations in microseconds
+     */
+    public long getSum() {
+        return sum.get();
+    }
+
+    /**
+     * @return Longest recorded duration in microseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param bucket Index of the bucket
+     * @return Number of durations in the bucket
+     */
+    public long getBucketCount(int bucket) {
+        return buckets.get(bucket);
+    }
+
+    /**
+     * Estimates a percentile as the upper bound of the bucket it falls in, never more than the
+     * longest recorded duration. Durations recorded while reading are counted or not, the result
+     * stays within the bounds of the histogram either way.
+     *
+     * @param percentile Percentile between 0 and 100
+     * @return Duration in microseconds, 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Finds the bucket of a duration.
+     *
+     * @param micros Duration in microseconds
+     * @return Index of the bucket
+     */
+    static int bucketOf(long micros) {
+        if (micros < 1L << MIN_SHIFT) {
+            return 0;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros);
+        if (shift >= MAX_SHIFT) {
+            return BUCKETS - 1;
+        }
+        // The 2 bits after the highest bit select the quarter within the power of two.
+        int sub = (int) (micros >>> (shift - 2)) & (SUB_BUCKETS - 1);
+        return 1 + (shift - MIN_SHIFT) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @param bucket Index of the bucket
+     * @return Exclusive upper bound of the bucket in microseconds, {@link Long#MAX_VALUE} for the last bucket
+     */
+    public static long upperBoundOf(int bucket) {
+        if (bucket == 0) {
+            return 1L << MIN_SHIFT;
+        }
+        if (bucket == BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        int shift = MIN_SHIFT + (bucket - 1) / SUB_BUCKETS;
+        int sub = (bucket - 1) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub + 1) << (shift - 2);
+    }
+}
@@ -0,0 +1,41 @@
+package io.hoogland.weer2track.util;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * Util class that keeps track of the {@link io.hoogland.weer2track.model.Location} shown on the
+ * screens.
+ *
+ * @author dan
+ */
+public class LocationUtil {
+
+    private static final String PREFERENCES_NAME = "location";
+
+    private static final String SELECTED_LOCATION = "selected_location";
+
+    /**
+     * Gets the ID of the location shown on the screens.
+     *
+     * @param context Context used to access the shared preferences
+     * @return ID of the selected location, {@link Constants#DEFAULT_LOCATION_ID} if none was selected
+     */
+    public static int getSelectedLocationId(Context context) {
+        return getPreferences(context).getInt(SELECTED_LOCATION, Constants.DEFAULT_LOCATION_ID);
+    }
+
+    /**
+     * Stores the ID of the location that should be shown on the screens.
+     *
+     * @param context    Context used to access the shared preferences
+     * @param locationId ID of the location to show
+     */
+    public static void setSelectedLocationId(Context context, int locationId) {
+        getPreferences(context).edit().putInt(SELECTED_LOCATION, locationId).apply();
+    }
+
+    private static SharedPreferences getPreferences(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+    }
+}
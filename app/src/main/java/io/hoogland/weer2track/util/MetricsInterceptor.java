@@ -0,0 +1,39 @@
+package io.hoogland.weer2track.util;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * OkHttp application interceptor that records the duration of every OpenWeatherMap call in
+ * {@link MetricsRegistry#HTTP_CALL}, until the response headers are received. Calls served by the
+ * HTTP cache are included, as that is the time the app waits for them. Calls that fail or get an
+ * unsuccessful response are counted in {@link MetricsRegistry#HTTP_ERRORS}.
+ *
+ * @author dan
+ */
+public class MetricsInterceptor implements Interceptor {
+
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(chain.request());
+        } catch (IOException e) {
+            metrics.increment(MetricsRegistry.HTTP_ERRORS);
+            throw e;
+        }
+        metrics.recordSince(MetricsRegistry.HTTP_CALL, start);
+        if (!response.isSuccessful()) {
+            metrics.increment(MetricsRegistry.HTTP_ERRORS);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,309 @@
+package io.hoogland.weer2track.util;
+
+import android.os.Build;
+import android.os.SystemClock;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import io.hoogland.weer2track.BuildConfig;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.CompletableTransformer;
+
+/**
+ * Registry of counters, gauges and {@link LatencyHistogram}s for the stages of a refresh, from the
+ * HTTP call to binding the data to the screen, and of the time from process start to the first
+ * content on screen. Recording is lock-free so it can be used on the hot paths. The metrics live as long
+ * as the process and can be exported as a JSON snapshot, see {@link #writeSnapshot(File)}, or
+ * viewed on {@link io.hoogland.weer2track.ui.MetricsActivity}.
+ *
+ * @author dan
+ */
+public class MetricsRegistry {
+
+    /**
+     * Histograms of the stages of a refresh and of the start of the app.
+     */
+    public static final String HTTP_CALL = "http_call";
+    public static final String PARSE = "parse";
+    public static final String AGGREGATE = "aggregate";
+    public static final String DB_WRITE = "db_write";
+    public static final String UI_BIND = "ui_bind";
+    public static final String FIRST_CONTENT = "cold_start_first_content";
+
+    /**
+     * Counters of failed HTTP calls and of refreshes that joined one that was already running.
+     */
+    public static final String HTTP_ERRORS = "http_errors";
+    public static final String REFRESHES_JOINED = "refreshes_joined";
+
+    /**
+     * Counters of API calls skipped while offline or while the {@link CircuitBreaker} was open, and
+     * of the times it opened. The gauge holds the ordinal of its {@link CircuitBreaker.State}.
+     */
+    public static final String CALLS_SHORT_CIRCUITED = "calls_short_circuited";
+    public static final String CIRCUIT_OPENED = "circuit_opened";
+    public static final String CIRCUIT_STATE = "circuit_state";
+
+    /**
+     * Counters of API calls served from the HTTP cache, served from it after the server confirmed it
+     * was still valid and downloaded in full, see {@link HttpCacheStats}.
+     */
+    public static final String HTTP_CACHE_HITS = "http_cache_hits";
+    public static final String HTTP_CACHE_REVALIDATIONS = "http_cache_revalidations";
+    public static final String HTTP_CACHE_MISSES = "http_cache_misses";
+
+    private static final MetricsRegistry instance = new MetricsRegistry();
+
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private final AtomicBoolean firstContentShown = new AtomicBoolean();
+    private volatile long processStartMillis;
+
+    private MetricsRegistry() {
+    }
+
+    /**
+     * Supplies the registry of the process. It is used from places that are not created by the
+     * {@link io.hoogland.weer2track.AppContainer}, like the Retrofit converters and the fragments.
+     *
+     * @return Singleton of MetricsRegistry
+     */
+    public static MetricsRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Adds one to a counter.
+     *
+     * @param name Name of the counter
+     */
+    public void increment(String name) {
+        AtomicLong counter = counters.get(name);
+        if (counter == null) {
+            AtomicLong created = new AtomicLong();
+            counter = counters.putIfAbsent(name, created);
+            if (counter == null) {
+                counter = created;
+            }
+        }
+        counter.incrementAndGet();
+    }
+
+    /**
+     * Adds a gauge, a value that is read when the metrics are shown or exported, like the length
+     * of a queue. A gauge with the same name is replaced.
+     *
+     * @param name  Name of the gauge
+     * @param gauge Supplies the current value, called from any thread
+     */
+    public void registerGauge(String name, LongSupplier gauge) {
+        gauges.put(name, gauge);
+    }
+
+    /**
+     * Adds a duration to a histogram.
+     *
+     * @param name  Name of the histogram
+     * @param nanos Duration in nanoseconds
+     */
+    public void record(String name, long nanos) {
+        histogram(name).record(nanos);
+    }
+
+    /**
+     * Adds the time passed since the given start to a histogram.
+     *
+     * @param name       Name of the histogram
+     * @param startNanos Start from {@link System#nanoTime()}
+     */
+    public void recordSince(String name, long startNanos) {
+        record(name, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Times every subscription to a {@link Completable}, from subscribing until it completes.
+     * Failed and cancelled subscriptions are not recorded.
+     *
+     * @param name Name of the histogram
+     * @return {@link CompletableTransformer} to use with {@link Completable#compose(CompletableTransformer)}
+     */
+    public CompletableTransformer timeCompletable(String name) {
+        return upstream -> Completable.defer(() -> {
+            long start = System.nanoTime();
+            return upstream.doOnComplete(() -> recordSince(name, start));
+        });
+    }
+
+    /**
+     * Sets the time the process started, which {@link #markFirstContent()} measures from.
+     *
+     * @param elapsedRealtimeMillis Start of the process in {@link SystemClock#elapsedRealtime()}
+     */
+    public void markProcessStart(long elapsedRealtimeMillis) {
+        processStartMillis = elapsedRealtimeMillis;
+    }
+
+    /**
+     * Records the time from process start until now in {@link #FIRST_CONTENT}, only the first time
+     * it is called in the process. Call it once data is shown on screen.
+     */
+    public void markFirstContent() {
+        if (processStartMillis != 0 && firstContentShown.compareAndSet(false, true)) {
+            record(FIRST_CONTENT, (SystemClock.elapsedRealtime() - processStartMillis) * 1_000_000);
+        }
+    }
+
+    /**
+     * @return Histograms by name, sorted by name
+     */
+    public Map<String, LatencyHistogram> getHistograms() {
+        return new TreeMap<>(histograms);
+    }
+
+    /**
+     * @return Value of every counter by name, sorted by name
+     */
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : counters.entrySet()) {
+            values.put(entry.getKey(), entry.getValue().get());
+        }
+        return values;
+    }
+
+    /**
+     * @return Current value of every gauge by name, sorted by name
+     */
+    public Map<String, Long> getGauges() {
+        Map<String, Long> values = new TreeMap<>();
+        for (Map.Entry<String, LongSupplier> entry : gauges.entrySet()) {
+            values.put(entry.getKey(), entry.getValue().getAsLong());
+        }
+        return values;
+    }
+
+    /**
+     * Creates a JSON snapshot of all metrics. Durations are in microseconds. Next to the
+     * percentiles every histogram has its non-empty buckets by exclusive upper bound, so snapshots
+     * of several devices can be merged into a single histogram.
+     *
+     * @return Snapshot as JSON
+     */
+    public String toJson() {
+        StringWriter writer = new StringWriter();
+        try {
+            writeJson(writer);
+        } catch (IOException e) {
+            // A StringWriter does not throw.
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Writes a JSON snapshot of all metrics, see {@link #toJson()}, to a file named after the time
+     * the process started. The file is replaced atomically, so it is never read half written.
+     *
+     * @param directory Directory to write the snapshot to, created if needed
+     * @return The written file
+     * @throws IOException If the file could not be written
+     */
+    public File writeSnapshot(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        long startedAt = System.currentTimeMillis() - (SystemClock.elapsedRealtime() - processStartMillis);
+        File file = new File(directory, "metrics-" + startedAt + ".json");
+        File temp = new File(directory, file.getName() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+            writeJson(writer);
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Could not rename " + temp + " to " + file);
+        }
+        return file;
+    }
+
+    private void writeJson(Writer out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.setIndent("  ");
+        writer.beginObject();
+        writer.name("created_at").value(System.currentTimeMillis());
+        writer.name("uptime_ms").value(SystemClock.elapsedRealtime() - processStartMillis);
+        writer.name("device").beginObject()
+                .name("manufacturer").value(Build.MANUFACTURER)
+                .name("model").value(Build.MODEL)
+                .name("sdk").value(Build.VERSION.SDK_INT)
+                .name("app_version").value(BuildConfig.VERSION_NAME)
+                .endObject();
+
+        writer.name("counters").beginObject();
+        for (Map.Entry<String, Long> counter : getCounters().entrySet()) {
+            writer.name(counter.getKey()).value(counter.getValue());
+        }
+        writer.endObject();
+
+        writer.name("gauges").beginObject();
+        for (Map.Entry<String, Long> gauge : getGauges().entrySet()) {
+            writer.name(gauge.getKey()).value(gauge.getValue());
+        }
+        writer.endObject();
+
+        writer.name("histograms").beginObject();
+        for (Map.Entry<String, LatencyHistogram> entry : getHistograms().entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            writer.name(entry.getKey()).beginObject()
+                    .name("count").value(histogram.getCount())
+                    .name("sum_us").value(histogram.getSum())
+                    .name("max_us").value(histogram.getMax())
+                    .name("p50_us").value(histogram.getPercentile(50))
+                    .name("p95_us").value(histogram.getPercentile(95))
+                    .name("p99_us").value(histogram.getPercentile(99));
+            writer.name("buckets").beginObject();
+            for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+                long count = histogram.getBucketCount(i);
+                if (count > 0) {
+                    long upperBound = LatencyHistogram.upperBoundOf(i);
+                    writer.name(upperBound == Long.MAX_VALUE ? "inf" : String.valueOf(upperBound)).value(count);
+                }
+            }
+            writer.endObject();
+            writer.endObject();
+        }
+        writer.endObject();
+
+        writer.endObject();
+        writer.flush();
+    }
+
+    /**
+     * Finds the histogram with the given name, creating it on first use.
+     */
+    private LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram == null) {
+            LatencyHistogram created = new LatencyHistogram();
+            histogram = histograms.putIfAbsent(name, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        return histogram;
+    }
+}
@@ -1,45 +1,106 @@
 package io.hoogland.weer2track.util;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializer;
+import android.content.Context;
+import android.util.Log;
 
-import java.time.Instant;
+import java.io.File;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
 
+import io.hoogland.weer2track.AppContainer;
 import io.hoogland.weer2track.service.WeatherService;
+import okhttp3.Cache;
+import okhttp3.CacheControl;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
 /**
- * Util class for common network tasks
+ * Util class for common network tasks. The instances are created once by the {@link AppContainer}.
  *
  * @author dan
  */
 public class NetworkUtil {
 
-    private static WeatherService weatherService;
+    private static final String TAG = "NetworkUtil";
 
     /**
-     * Creates and/or returns a WeatherService singleton with adapters to convert {@link Long}
-     * to {@link LocalDate}, {@link LocalDateTime} and the other way around.
+     * Creates the {@link OkHttpClient} used for all OpenWeatherMap calls. Responses are kept in a
+     * disk cache, see {@link CachePolicyInterceptor}. The duration of every call is recorded, see
+     * {@link MetricsInterceptor}, and how it was served by the cache, see {@link HttpCacheStats}.
      *
+     * @param context Context used to access the cache directory
+     * @return OkHttpClient with the HTTP cache and interceptors
+     */
+    public static OkHttpClient createHttpClient(Context context) {
+        return new OkHttpClient.Builder()
+                .cache(new Cache(new File(context.getApplicationContext().getCacheDir(), Constants.HTTP_CACHE_DIR),
+                        Constants.HTTP_CACHE_SIZE))
+                .addInterceptor(new MetricsInterceptor())
+                .addInterceptor(new HttpCacheStats())
+                .addNetworkInterceptor(new CachePolicyInterceptor())
+                .build();
+    }
+
+    /**
+     * Creates a WeatherService with adapters to convert {@link Long} to {@link LocalDate},
+     * {@link LocalDateTime} and the other way around. The service methods are validated straight
+     * away, so the first call doesn't have to parse the annotations of {@link WeatherService}. The
+     * duration of the conversion of every response is recorded, see {@link TimingConverterFactory}.
+     *
+     * @param client {@link OkHttpClient} to execute the calls with
+     * @return WeatherService usable for OpenWeatherMap API calls
+     */
+    public static WeatherService createWeatherService(OkHttpClient client) {
+        return createWeatherService(client, HttpUrl.get(Constants.OPENWEATHER_API_BASE_URL));
+    }
+
+    /**
+     * Creates a WeatherService like {@link #createWeatherService(OkHttpClient)} for another host,
+     * like a local stand-in of OpenWeatherMap in tests.
+     *
+     * @param client  {@link OkHttpClient} to execute the calls with
+     * @param baseUrl URL the paths of {@link WeatherService} are relative to
      * @return WeatherService usable for OpenWeatherMap API calls
      */
-    public static synchronized WeatherService getWeatherServiceInstance() {
-        if (weatherService == null) {
-            Gson gson = new GsonBuilder()
-                    .registerTypeAdapter(LocalDateTime.class, (JsonDeserializer<LocalDateTime>) (json, typeOfT, context) -> LocalDateTime.ofInstant(Instant.ofEpochSecond(json.getAsJsonPrimitive().getAsLong()), ZoneId.systemDefault()))
-                    .registerTypeAdapter(LocalDate.class, (JsonDeserializer<LocalDate>) (json, typeOfT, context) -> Instant.ofEpochSecond(json.getAsJsonPrimitive().getAsLong()).atZone(ZoneId.systemDefault()).toLocalDate())
-                    .create();
-            Retrofit retrofit = new Retrofit.Builder()
-                    .baseUrl(Constants.OPENWEATHER_API_BASE_URL)
-                    .addConverterFactory(GsonConverterFactory.create(gson))
-                    .build();
-            weatherService = retrofit.create(WeatherService.class);
+    public static WeatherService createWeatherService(OkHttpClient client, HttpUrl baseUrl) {
+        Retrofit retrofit = new Retrofit.Builder()
+                .baseUrl(baseUrl)
+                .client(client)
+                .addConverterFactory(new TimingConverterFactory())
+                // Must be added before Gson, which would otherwise claim List<DailyForecast>.
+                .addConverterFactory(new DailyForecastConverterFactory())
+                .addConverterFactory(GsonConverterFactory.create(GsonUtil.createGson()))
+                .validateEagerly(true)
+                .build();
+        return retrofit.create(WeatherService.class);
+    }
+
+    /**
+     * Opens a connection to the OpenWeatherMap host with a HEAD request, so the DNS lookup and TLS
+     * handshake are done and the connection is in the pool of the client before the first API call.
+     * The request bypasses the cache and the interceptors, so it is not counted in
+     * the {@link MetricsRegistry}. Must not be called on the main thread.
+     *
+     * @param client {@link OkHttpClient} whose connection pool should be warmed
+     */
+    public static void warmConnectionPool(OkHttpClient client) {
+        OkHttpClient.Builder builder = client.newBuilder().cache(null);
+        builder.interceptors().clear();
+        builder.networkInterceptors().clear();
+        Request request = new Request.Builder()
+                .url(Constants.OPENWEATHER_API_BASE_URL)
+                .head()
+                .cacheControl(CacheControl.FORCE_NETWORK)
+                .build();
+        try (Response response = builder.build().newCall(request).execute()) {
+            Log.d(TAG, "warmConnectionPool: " + response.code());
+        } catch (IOException e) {
+            Log.w(TAG, "warmConnectionPool: ", e);
         }
-        return weatherService;
     }
 }
@@ -0,0 +1,69 @@
+package io.hoogland.weer2track.util;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import io.reactivex.rxjava3.core.Observable;
+
+/**
+ * Util class that keeps the settings of the user.
+ *
+ * @author dan
+ */
+public class SettingsUtil {
+
+    private static final String PREFERENCES_NAME = "settings";
+
+    private static final String TEMPERATURE_UNIT = "temperature_unit";
+
+    /**
+     * Gets the unit temperatures are shown in.
+     *
+     * @param context Context used to access the shared preferences
+     * @return {@link TemperatureUnit} of the settings, {@link TemperatureUnit#CELSIUS} if none was chosen
+     */
+    public static TemperatureUnit getTemperatureUnit(Context context) {
+        String unit = getPreferences(context).getString(TEMPERATURE_UNIT, null);
+        try {
+            return unit == null ? TemperatureUnit.CELSIUS : TemperatureUnit.valueOf(unit);
+        } catch (IllegalArgumentException e) {
+            return TemperatureUnit.CELSIUS;
+        }
+    }
+
+    /**
+     * Stores the unit temperatures should be shown in. The screens convert the stored data, nothing
+     * is fetched again.
+     *
+     * @param context Context used to access the shared preferences
+     * @param unit    {@link TemperatureUnit} to show temperatures in
+     */
+    public static void setTemperatureUnit(Context context, TemperatureUnit unit) {
+        getPreferences(context).edit().putString(TEMPERATURE_UNIT, unit.name()).apply();
+    }
+
+    /**
+     * Observes the unit temperatures are shown in.
+     *
+     * @param context Context used to access the shared preferences
+     * @return {@link Observable} with the current {@link TemperatureUnit}, followed by every change
+     */
+    public static Observable<TemperatureUnit> observeTemperatureUnit(Context context) {
+        Context appContext = context.getApplicationContext();
+        return Observable.<TemperatureUnit>create(emitter -> {
+            // The preferences only keep a weak reference, the emitter keeps the listener alive.
+            SharedPreferences.OnSharedPreferenceChangeListener listener = (preferences, key) -> {
+                if (TEMPERATURE_UNIT.equals(key)) {
+                    emitter.onNext(getTemperatureUnit(appContext));
+                }
+            };
+            getPreferences(appContext).registerOnSharedPreferenceChangeListener(listener);
+            emitter.setCancellable(() -> getPreferences(appContext).unregisterOnSharedPreferenceChangeListener(listener));
+            emitter.onNext(getTemperatureUnit(appContext));
+        }).distinctUntilChanged();
+    }
+
+    private static SharedPreferences getPreferences(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,59 @@
+package io.hoogland.weer2track.util;
+
+import androidx.annotation.StringRes;
+
+import io.hoogland.weer2track.R;
+
+/**
+ * Units temperatures can be shown in. Temperatures are stored in Kelvin, as fetched with
+ * {@link Constants#OPENWEATHER_API_UNITS_VALUE}, and only converted when they are shown.
+ *
+ * @author dan
+ */
+public enum TemperatureUnit {
+    CELSIUS("°C", R.string.unit_celsius),
+    FAHRENHEIT("°F", R.string.unit_fahrenheit),
+    KELVIN(" K", R.string.unit_kelvin);
+
+    private static final double ZERO_CELSIUS = 273.15;
+
+    private final String symbol;
+    private final int nameRes;
+
+    TemperatureUnit(String symbol, @StringRes int nameRes) {
+        this.symbol = symbol;
+        this.nameRes = nameRes;
+    }
+
+    /**
+     * Converts a stored temperature to this unit.
+     *
+     * @param kelvin Temperature in Kelvin
+     * @return Temperature in this unit
+     */
+    public double fromKelvin(double kelvin) {
+        switch (this) {
+            case CELSIUS:
+                return kelvin - ZERO_CELSIUS;
+            case FAHRENHEIT:
+                return (kelvin - ZERO_CELSIUS) * 9 / 5 + 32;
+            default:
+                return kelvin;
+        }
+    }
+
+    /**
+     * @return Symbol shown after a temperature, including the space if there should be one
+     */
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * @return String resource with the name of the unit, shown in the settings
+     */
+    @StringRes
+    public int getNameRes() {
+        return nameRes;
+    }
+}
@@ -0,0 +1,31 @@
+package io.hoogland.weer2track.util;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Retrofit {@link Converter.Factory} that records how long the converter of the next factory takes
+ * to convert a response body in {@link MetricsRegistry#PARSE}. Response bodies are streamed, so
+ * this includes reading the body from the network or the HTTP cache. Must be added before the
+ * other converter factories.
+ *
+ * @author dan
+ */
+public class TimingConverterFactory extends Converter.Factory {
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations, Retrofit retrofit) {
+        Converter<ResponseBody, ?> delegate = retrofit.nextResponseBodyConverter(this, type, annotations);
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        return (Converter<ResponseBody, Object>) body -> {
+            long start = System.nanoTime();
+            Object result = delegate.convert(body);
+            metrics.recordSince(MetricsRegistry.PARSE, start);
+            return result;
+        };
+    }
+}
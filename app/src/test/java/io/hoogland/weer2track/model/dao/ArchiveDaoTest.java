@@ -0,0 +1,181 @@
+package io.hoogland.weer2track.model.dao;
+
+import android.app.Application;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.hoogland.weer2track.db.AppDatabase;
+import io.hoogland.weer2track.model.ArchiveChunk;
+import io.hoogland.weer2track.model.Observation;
+import io.hoogland.weer2track.model.ObservationDay;
+import io.hoogland.weer2track.model.converter.DateConverter;
+import io.hoogland.weer2track.util.Constants;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compacts observations into {@link ArchiveChunk}s and {@link ObservationDay}s of an in-memory
+ * database and reads them back.
+ *
+ * @author dan
+ */
+@RunWith(RobolectricTestRunner.class)
+// The plain Application, so the AppContainer does not open the real database or network.
+@Config(application = Application.class, sdk = 33)
+public class ArchiveDaoTest {
+
+    private static final ZoneId ZONE = DateConverter.ZONE;
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 12);
+
+    private AppDatabase appDatabase;
+    private ArchiveDao archiveDao;
+
+    @Before
+    public void setUp() {
+        appDatabase = AppDatabase.createInMemory(ApplicationProvider.getApplicationContext());
+        archiveDao = appDatabase.archiveDao();
+    }
+
+    @After
+    public void tearDown() {
+        appDatabase.close();
+    }
+
+    @Test
+    public void compact_sealsObservationsIntoChunk() {
+        insert(observation(10, 283.15, 281.5), observation(11, 284.05, 282.25));
+
+        compact();
+
+        assertHistory(observation(10, 283.15, 281.5), observation(11, 284.05, 282.25));
+    }
+
+    @Test
+    public void compactAgain_mergesIntoExistingChunk() {
+        insert(observation(10, 283.15, 281.5), observation(11, 284.05, 282.25));
+        compact();
+        // A sample at the same time replaces the sealed one, the others are merged in order.
+        insert(observation(9, 282.95, Double.NaN), observation(11, 284.1, -0.0), observation(12, 285.0, 283.3333));
+        compact();
+
+        assertHistory(observation(9, 282.95, Double.NaN), observation(10, 283.15, 281.5),
+                observation(11, 284.1, -0.0), observation(12, 285.0, 283.3333));
+        List<ArchiveChunk> chunks = archiveDao.getChunks(Constants.DEFAULT_LOCATION_ID, ArchiveChunk.SERIES_OBSERVATION,
+                start(), end()).subscribeOn(Schedulers.io()).blockingGet();
+        assertEquals(1, chunks.size());
+        assertEquals(4, chunks.get(0).getCount());
+        // The replaced sample at 11:00 is no longer part of the aggregate of the day.
+        List<ObservationDay> days = archiveDao.getObservationDays(Constants.DEFAULT_LOCATION_ID, DAY, DAY.plusDays(1))
+                .subscribeOn(Schedulers.io()).blockingGet();
+        assertEquals(1, days.size());
+        assertEquals(4, days.get(0).getCount());
+        assertEquals(282.95, days.get(0).getMinTemp(), 0);
+        assertEquals(285.0, days.get(0).getMaxTemp(), 0);
+        assertEquals(282.95 + 283.15 + 284.1 + 285.0, days.get(0).getTempSum(), 1e-9);
+    }
+
+    @Test
+    public void historyWithinDay_onlyReturnsSamplesInRange() {
+        insert(observation(9, 282.95, 281.5), observation(11, 284.05, 282.25), observation(12, 285.0, 283.3));
+        compact();
+
+        // No sample between 10:00 and 10:30, the next one at 11:00 is after the range.
+        assertHistory(DAY.atTime(10, 0), DAY.atTime(10, 30));
+        assertHistory(DAY.atTime(10, 0), DAY.atTime(11, 30), observation(11, 284.05, 282.25));
+        assertHistory(DAY.atTime(9, 0), DAY.atTime(11, 0), observation(9, 282.95, 281.5));
+    }
+
+    @Test
+    public void compact_takesDayOfEveryObservationInZone() {
+        // Summer time ends on October 27, the offset of the zone changes during the compacted range.
+        LocalDate lastSummerDay = LocalDate.of(2024, 10, 26);
+        Observation summer = observation(lastSummerDay.plusDays(1).atTime(0, 30), 280, 279);
+        Observation winter = observation(lastSummerDay.plusDays(1).atTime(23, 30), 276, 275);
+        insert(summer, winter);
+
+        archiveDao.compact(lastSummerDay.plusDays(2).atStartOfDay(ZONE).toEpochSecond(), 0, lastSummerDay, ZONE)
+                .subscribeOn(Schedulers.io()).blockingAwait();
+
+        List<ObservationDay> days = archiveDao.getObservationDays(Constants.DEFAULT_LOCATION_ID, lastSummerDay,
+                lastSummerDay.plusDays(3)).subscribeOn(Schedulers.io()).blockingGet();
+        assertEquals(1, days.size());
+        assertEquals(lastSummerDay.plusDays(1), days.get(0).getDate());
+        assertEquals(2, days.get(0).getCount());
+        assertEquals(276, days.get(0).getMinTemp(), 0);
+        assertEquals(280, days.get(0).getMaxTemp(), 0);
+    }
+
+    private void insert(Observation... observations) {
+        archiveDao.insertObservations(Arrays.asList(observations)).subscribeOn(Schedulers.io()).blockingAwait();
+    }
+
+    /**
+     * Compacts every raw row of {@link #DAY}, without deleting chunks or aggregates.
+     */
+    private void compact() {
+        archiveDao.compact(end(), 0, DAY.minusDays(1), ZONE).subscribeOn(Schedulers.io()).blockingAwait();
+    }
+
+    private void assertHistory(Observation... expected) {
+        assertHistory(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay(), expected);
+    }
+
+    private void assertHistory(LocalDateTime from, LocalDateTime to, Observation... expected) {
+        List<Observation> history = archiveDao.getObservationHistory(Constants.DEFAULT_LOCATION_ID,
+                from.atZone(ZONE).toEpochSecond(), to.atZone(ZONE).toEpochSecond())
+                .subscribeOn(Schedulers.io()).blockingGet();
+        List<String> actual = new ArrayList<>();
+        for (Observation observation : history) {
+            actual.add(describe(observation));
+        }
+        List<String> wanted = new ArrayList<>();
+        for (Observation observation : expected) {
+            wanted.add(describe(observation));
+        }
+        assertEquals(wanted, actual);
+    }
+
+    /**
+     * Describes the bits of the archived fields, so values only match when they are exactly equal.
+     */
+    private static String describe(Observation observation) {
+        return observation.getObservedAt() + " " + Long.toHexString(Double.doubleToRawLongBits(observation.getTemp()))
+                + " " + Long.toHexString(Double.doubleToRawLongBits(observation.getFeelsLikeTemp()));
+    }
+
+    private static Observation observation(int hour, double temp, double feelsLikeTemp) {
+        return observation(DAY.atTime(hour, 0), temp, feelsLikeTemp);
+    }
+
+    private static Observation observation(LocalDateTime observedAt, double temp, double feelsLikeTemp) {
+        Observation observation = new Observation();
+        observation.setLocationId(Constants.DEFAULT_LOCATION_ID);
+        observation.setObservedAt(observedAt.atZone(ZONE).toEpochSecond());
+        observation.setTemp(temp);
+        observation.setFeelsLikeTemp(feelsLikeTemp);
+        return observation;
+    }
+
+    private static long start() {
+        return DAY.atStartOfDay(ZONE).toEpochSecond();
+    }
+
+    private static long end() {
+        return DAY.plusDays(1).atStartOfDay(ZONE).toEpochSecond();
+    }
+}
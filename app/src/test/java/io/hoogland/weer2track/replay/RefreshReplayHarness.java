@@ -0,0 +1,167 @@
+package io.hoogland.weer2track.replay;
+
+import android.content.Context;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+
+import io.hoogland.weer2track.db.AppDatabase;
+import io.hoogland.weer2track.model.Location;
+import io.hoogland.weer2track.repository.WeatherRepository;
+import io.hoogland.weer2track.util.ConnectivityMonitor;
+import io.hoogland.weer2track.util.LatencyHistogram;
+import io.hoogland.weer2track.util.MetricsInterceptor;
+import io.hoogland.weer2track.util.MetricsRegistry;
+import io.hoogland.weer2track.util.NetworkUtil;
+import io.reactivex.rxjava3.core.Completable;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * Drives the full refresh path of the app against a {@link ReplayDispatcher}: the
+ * {@link io.hoogland.weer2track.service.WeatherService} with the converters of the app, the
+ * {@link WeatherRepository} and the DAOs of an in-memory {@link AppDatabase}. Every run refreshes
+ * the current weather and the forecast of all locations at the same time, like the splash screen,
+ * and measures how long that takes from start until everything is saved.
+ *
+ * @author dan
+ */
+public class RefreshReplayHarness implements Closeable {
+
+    private final MockWebServer server = new MockWebServer();
+    private final ReplayDispatcher dispatcher;
+    private final AppDatabase appDatabase;
+    private final ConnectivityMonitor connectivityMonitor;
+    private final WeatherRepository repository;
+
+    /**
+     * Starts the stand-in server and creates the repository with the default location and the
+     * given number of extra locations.
+     *
+     * @param context        Application context
+     * @param dispatcher     {@link ReplayDispatcher} serving the recorded payloads
+     * @param extraLocations Number of locations to add next to the default location
+     * @throws IOException If the server could not be started
+     */
+    public RefreshReplayHarness(Context context, ReplayDispatcher dispatcher, int extraLocations) throws IOException {
+        this.dispatcher = dispatcher;
+        server.setDispatcher(dispatcher);
+        server.start();
+
+        // No HTTP cache, so every refresh goes through the whole pipeline.
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new MetricsInterceptor())
+                .build();
+        appDatabase = AppDatabase.createInMemory(context);
+        // The stand-in server is always reachable, whatever network the test device reports.
+        connectivityMonitor = new ConnectivityMonitor(context);
+        connectivityMonitor.setOnline(true);
+        repository = new WeatherRepository(context, appDatabase,
+                NetworkUtil.createWeatherService(client, server.url("/data/2.5/")), connectivityMonitor);
+        for (int i = 0; i < extraLocations; i++) {
+            appDatabase.locationDao().insert(new Location("Replay " + i, 52 + i * 0.1, 5 + i * 0.1)).blockingGet();
+        }
+    }
+
+    public ReplayDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    public AppDatabase getAppDatabase() {
+        return appDatabase;
+    }
+
+    public ConnectivityMonitor getConnectivityMonitor() {
+        return connectivityMonitor;
+    }
+
+    public WeatherRepository getRepository() {
+        return repository;
+    }
+
+    /**
+     * Refreshes the current weather and the forecast of all locations the given number of times,
+     * one refresh after the other.
+     *
+     * @param runs Number of refreshes
+     * @return {@link Report} of the refreshes
+     */
+    public Report run(int runs) {
+        Report report = new Report();
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            long runStart = System.nanoTime();
+            try {
+                Completable.mergeArrayDelayError(repository.refreshCurrentWeather(), repository.refreshDailyForecasts())
+                        .blockingAwait();
+                report.refreshes.record(System.nanoTime() - runStart);
+            } catch (RuntimeException e) {
+                report.failures++;
+            }
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    @Override
+    public void close() throws IOException {
+        appDatabase.close();
+        server.shutdown();
+    }
+
+    /**
+     * Outcome of {@link #run(int)}: the latency of the successful refreshes and the throughput of
+     * the whole run.
+     */
+    public static class Report {
+        private final LatencyHistogram refreshes = new LatencyHistogram();
+        private int failures;
+        private long elapsedNanos;
+
+        /**
+         * @return Latency of the successful refreshes
+         */
+        public LatencyHistogram getRefreshes() {
+            return refreshes;
+        }
+
+        public long getSuccesses() {
+            return refreshes.getCount();
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        /**
+         * @return Refreshes per second, including the failed ones
+         */
+        public double getThroughput() {
+            return (getSuccesses() + failures) / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * Formats the report as a table in milliseconds, followed by the stages recorded in the
+         * {@link MetricsRegistry} during the whole test run.
+         */
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(String.format(Locale.ROOT,
+                    "refreshes: %d ok, %d failed, %.1f/s%n", getSuccesses(), failures, getThroughput()));
+            text.append(String.format(Locale.ROOT, "%-24s %6s %8s %8s %8s %8s%n", "ms", "count", "p50", "p95", "p99", "max"));
+            append(text, "refresh", refreshes);
+            for (Map.Entry<String, LatencyHistogram> stage : MetricsRegistry.getInstance().getHistograms().entrySet()) {
+                append(text, stage.getKey(), stage.getValue());
+            }
+            return text.toString();
+        }
+
+        private static void append(StringBuilder text, String name, LatencyHistogram histogram) {
+            text.append(String.format(Locale.ROOT, "%-24s %6d %8.1f %8.1f %8.1f %8.1f%n", name, histogram.getCount(),
+                    histogram.getPercentile(50) / 1000.0, histogram.getPercentile(95) / 1000.0,
+                    histogram.getPercentile(99) / 1000.0, histogram.getMax() / 1000.0));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package io.hoogland.weer2track.replay;
+
+import android.app.Application;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.util.List;
+
+import io.hoogland.weer2track.model.CurrentWeather;
+import io.hoogland.weer2track.model.DailyForecastView;
+import io.hoogland.weer2track.util.Constants;
+import io.hoogland.weer2track.util.LatencyHistogram;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays recorded OpenWeatherMap responses through the whole refresh path with
+ * {@link RefreshReplayHarness}, without network or a device. The replay run can be tuned from the
+ * command line, for example:
+ * <pre>{@code
+ * ./gradlew :app:testDebugUnitTest --tests '*RefreshReplayTest' -Dreplay.runs=200 -Dreplay.latencyMs=80 \
+ *     -Dreplay.jitterMs=40 -Dreplay.errorRate=0.1 -Dreplay.forecastRepeat=4 -Dreplay.locations=5
+ * }</pre>
+ *
+ * @author dan
+ */
+@RunWith(RobolectricTestRunner.class)
+// The plain Application, so the AppContainer does not open the real database or network.
+@Config(application = Application.class, sdk = 33)
+public class RefreshReplayTest {
+
+    private RefreshReplayHarness harness;
+
+    @Before
+    public void setUp() throws IOException {
+        harness = new RefreshReplayHarness(ApplicationProvider.getApplicationContext(), new ReplayDispatcher(),
+                Integer.getInteger("replay.locations", 2));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        harness.close();
+    }
+
+    @Test
+    public void refresh_savesCurrentWeatherAndForecast() {
+        RefreshReplayHarness.Report report = harness.run(1);
+
+        assertEquals(0, report.getFailures());
+        CurrentWeather weather = harness.getAppDatabase().currentWeatherDao()
+                .getCurrentWeather(Constants.DEFAULT_LOCATION_ID).blockingGet();
+        assertEquals(10.52, weather.getTemp(), 0);
+        List<DailyForecastView> days = harness.getAppDatabase().dailyForecastDao()
+                .observeFromSlots(Constants.DEFAULT_LOCATION_ID).blockingFirst();
+        assertFalse(days.isEmpty());
+    }
+
+    @Test
+    public void secondRefresh_usesGroupCall() {
+        harness.run(2);
+
+        ReplayDispatcher dispatcher = harness.getDispatcher();
+        // The first refresh learns the city ID of every location, the second fetches them at once.
+        assertEquals(Integer.getInteger("replay.locations", 2) + 1, dispatcher.getRequestCount(Constants.OPENWEATHER_API_CURRENT));
+        assertEquals(1, dispatcher.getRequestCount(Constants.OPENWEATHER_API_GROUP));
+    }
+
+    @Test
+    public void failingServer_failsRefresh() {
+        harness.getDispatcher().setErrorRate(1);
+
+        RefreshReplayHarness.Report report = harness.run(1);
+
+        assertEquals(1, report.getFailures());
+        assertTrue(harness.getAppDatabase().currentWeatherDao()
+                .observeCurrentWeather(Constants.DEFAULT_LOCATION_ID).blockingFirst().isEmpty());
+    }
+
+    @Test
+    public void offline_failsWithoutRequests() {
+        harness.getConnectivityMonitor().setOnline(false);
+
+        RefreshReplayHarness.Report report = harness.run(1);
+
+        assertEquals(1, report.getFailures());
+        assertEquals(0, harness.getDispatcher().getRequestCount(Constants.OPENWEATHER_API_CURRENT));
+        assertEquals(0, harness.getDispatcher().getRequestCount(Constants.OPENWEATHER_API_FORECAST));
+    }
+
+    @Test
+    public void failingServer_opensCircuit() {
+        harness.getDispatcher().setErrorRate(1);
+
+        harness.run(3);
+
+        // The circuit opens after the first failures, the later calls are not sent.
+        int requests = harness.getDispatcher().getRequestCount(Constants.OPENWEATHER_API_CURRENT)
+                + harness.getDispatcher().getRequestCount(Constants.OPENWEATHER_API_FORECAST);
+        assertTrue(requests < 3 * 2 * (Integer.getInteger("replay.locations", 2) + 1));
+    }
+
+    @Test
+    public void replay_reportsLatencyPercentiles() {
+        ReplayDispatcher dispatcher = harness.getDispatcher();
+        dispatcher.setLatency(Long.getLong("replay.latencyMs", 20), Long.getLong("replay.jitterMs", 10));
+        dispatcher.setErrorRate(Double.parseDouble(System.getProperty("replay.errorRate", "0.05")));
+        dispatcher.setForecastRepeat(Integer.getInteger("replay.forecastRepeat", 1));
+        int runs = Integer.getInteger("replay.runs", 30);
+
+        RefreshReplayHarness.Report report = harness.run(runs);
+        System.out.println(report);
+
+        LatencyHistogram refreshes = report.getRefreshes();
+        assertEquals(runs, report.getSuccesses() + report.getFailures());
+        assertTrue(report.getSuccesses() > 0);
+        assertTrue(refreshes.getPercentile(50) <= refreshes.getPercentile(99));
+    }
+}
@@ -0,0 +1,156 @@
+package io.hoogland.weer2track.replay;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.hoogland.weer2track.util.Constants;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * {@link Dispatcher} that stands in for OpenWeatherMap by serving the recorded payloads of the
+ * benchmarks for the {@code weather}, {@code group} and {@code forecast} paths. Latency, jitter,
+ * error rate and the size of the forecast can be configured, the randomness is seeded so a run can
+ * be repeated.
+ *
+ * @author dan
+ */
+public class ReplayDispatcher extends Dispatcher {
+
+    /**
+     * Seconds between the repeated copies of the forecast slots, the 5 days a forecast covers.
+     */
+    private static final long FORECAST_PERIOD_SECONDS = 5 * 24 * 60 * 60;
+
+    private final JsonObject weather;
+    private final JsonObject forecast;
+    private final Random random = new Random(42);
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+    private volatile long latencyMillis;
+    private volatile long jitterMillis;
+    private volatile double errorRate;
+    private volatile String forecastBody;
+
+    /**
+     * Creates a dispatcher without latency or errors, serving the recorded forecast as is.
+     *
+     * @throws IOException If the recorded payloads could not be read
+     */
+    public ReplayDispatcher() throws IOException {
+        weather = readPayload("payloads/weather.json");
+        forecast = readPayload("payloads/forecast.json");
+        setForecastRepeat(1);
+    }
+
+    /**
+     * Delays every response by the given latency plus a uniformly random jitter.
+     *
+     * @param latencyMillis Fixed delay in milliseconds before the response headers are sent
+     * @param jitterMillis  Maximum extra random delay in milliseconds
+     */
+    public void setLatency(long latencyMillis, long jitterMillis) {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+    }
+
+    /**
+     * Answers the given fraction of the requests with a 503 instead of the payload.
+     *
+     * @param errorRate Fraction between 0 and 1
+     */
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * Serves a forecast with the recorded slots repeated the given number of times, each copy 5 days
+     * after the previous one, to replay larger payloads.
+     *
+     * @param repeat Number of copies of the recorded slots, at least 1
+     */
+    public void setForecastRepeat(int repeat) {
+        JsonArray slots = forecast.getAsJsonArray("list");
+        JsonArray repeated = new JsonArray();
+        for (int copy = 0; copy < repeat; copy++) {
+            for (JsonElement element : slots) {
+                JsonObject slot = element.getAsJsonObject().deepCopy();
+                slot.addProperty("dt", slot.get("dt").getAsLong() + copy * FORECAST_PERIOD_SECONDS);
+                repeated.add(slot);
+            }
+        }
+        JsonObject body = forecast.deepCopy();
+        body.add("list", repeated);
+        body.addProperty("cnt", repeated.size());
+        forecastBody = body.toString();
+    }
+
+    /**
+     * @param path Last segment of the path, like {@link Constants#OPENWEATHER_API_FORECAST}
+     * @return Number of requests received for the path, including the failed ones
+     */
+    public int getRequestCount(String path) {
+        AtomicInteger count = requests.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    @Override
+    public MockResponse dispatch(RecordedRequest request) {
+        String path = request.getRequestUrl().pathSegments().get(request.getRequestUrl().pathSize() - 1);
+        AtomicInteger count = requests.get(path);
+        if (count == null) {
+            requests.putIfAbsent(path, new AtomicInteger());
+            count = requests.get(path);
+        }
+        count.incrementAndGet();
+
+        long delay;
+        boolean failed;
+        synchronized (random) {
+            delay = latencyMillis + (jitterMillis > 0 ? (long) (random.nextDouble() * jitterMillis) : 0);
+            failed = random.nextDouble() < errorRate;
+        }
+        MockResponse response = new MockResponse().setHeadersDelay(delay, TimeUnit.MILLISECONDS);
+        if (failed) {
+            return response.setResponseCode(503);
+        }
+        switch (path) {
+            case Constants.OPENWEATHER_API_CURRENT:
+                return response.setBody(weather.toString());
+            case Constants.OPENWEATHER_API_GROUP:
+                JsonObject group = new JsonObject();
+                JsonArray list = new JsonArray();
+                list.add(weather);
+                group.addProperty("cnt", list.size());
+                group.add("list", list);
+                return response.setBody(group.toString());
+            case Constants.OPENWEATHER_API_FORECAST:
+                return response.setBody(forecastBody);
+            default:
+                return response.setResponseCode(404);
+        }
+    }
+
+    private static JsonObject readPayload(String name) throws IOException {
+        InputStream stream = ReplayDispatcher.class.getClassLoader().getResourceAsStream(name);
+        if (stream == null) {
+            throw new IOException("Missing payload " + name);
+        }
+        try (InputStreamReader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+            return new JsonParser().parse(reader).getAsJsonObject();
+        }
+    }
+}
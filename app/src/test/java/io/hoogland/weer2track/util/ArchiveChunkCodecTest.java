@@ -0,0 +1,143 @@
+package io.hoogland.weer2track.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Round trips of {@link ArchiveChunkEncoder} and {@link ArchiveChunkDecoder}. The encoding is
+ * lossless, so every timestamp and every value must come back with exactly the same bits.
+ *
+ * @author dan
+ */
+public class ArchiveChunkCodecTest {
+
+    private static final long START = 1_700_000_000L;
+
+    @Test
+    public void regularInterval_roundTrips() {
+        long[] timestamps = new long[50];
+        double[][] values = new double[50][];
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamps[i] = START + i * 600L;
+            values[i] = new double[]{283.15 + i * 0.01, 281.5 - i * 0.25};
+        }
+        assertRoundTrip(timestamps, values);
+    }
+
+    @Test
+    public void deltaOfDeltaInEveryBucket_roundTrips() {
+        // Changes in delta of 0, at the edges of the 7, 9 and 12 bit buckets and beyond.
+        long[] changes = {0, 63, -64, 64, -65, 255, -256, 256, -257, 2047, -2048, 2048, -2049,
+                1L << 40, -(1L << 40)};
+        long[] timestamps = new long[changes.length + 2];
+        timestamps[0] = START;
+        timestamps[1] = START + 3000;
+        long delta = 3000;
+        for (int i = 0; i < changes.length; i++) {
+            delta += changes[i];
+            timestamps[i + 2] = timestamps[i + 1] + delta;
+        }
+        double[][] values = new double[timestamps.length][];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new double[]{i};
+        }
+        assertRoundTrip(timestamps, values);
+    }
+
+    @Test
+    public void negativeZeroAndNaN_roundTrip() {
+        long[] timestamps = {START, START + 600, START + 1200, START + 1800};
+        double[][] values = {
+                {0.0, 1.5, Double.NaN},
+                {-0.0, -0.0, 12.25},
+                {-0.0, Double.NaN, Double.NaN},
+                {0.0, 1.5, -0.0}
+        };
+        assertRoundTrip(timestamps, values);
+    }
+
+    @Test
+    public void valuesWithoutFewDecimals_areStoredRaw() {
+        long[] timestamps = {START, START + 600, START + 1200};
+        double[][] values = {{Math.PI, 1.0 / 3}, {Math.E, -2.0 / 7}, {Math.PI, Double.MAX_VALUE}};
+        byte[] data = assertRoundTrip(timestamps, values);
+        assertEquals(ArchiveChunkEncoder.RAW, data[ArchiveChunkEncoder.HEADER_BYTES] & 0xFF);
+        assertEquals(ArchiveChunkEncoder.RAW, data[ArchiveChunkEncoder.HEADER_BYTES + 1] & 0xFF);
+    }
+
+    @Test
+    public void xorWithAllBitsMeaningful_roundTrips() {
+        // Differs in the sign bit and the lowest mantissa bit, so the XOR has no leading or trailing
+        // zeros and its 64 meaningful bits are written as 0.
+        double first = Double.longBitsToDouble(0x3FF0000000000001L);
+        double second = Double.longBitsToDouble(0xBFF0000000000000L);
+        long xor = Double.doubleToRawLongBits(first) ^ Double.doubleToRawLongBits(second);
+        assertEquals(0, Long.numberOfLeadingZeros(xor));
+        assertEquals(0, Long.numberOfTrailingZeros(xor));
+        long[] timestamps = {START, START + 600, START + 1200, START + 1800};
+        double[][] values = {{first}, {second}, {first}, {Math.PI}};
+        assertRoundTrip(timestamps, values);
+    }
+
+    @Test
+    public void seek_findsFirstSampleAtOrAfter() {
+        ArchiveChunkDecoder decoder = new ArchiveChunkDecoder(encode(
+                new long[]{START, START + 600, START + 1200}, new double[][]{{1}, {2}, {3}}));
+
+        assertTrue(decoder.seek(START + 1));
+        assertEquals(START + 600, decoder.getTimestamp());
+        assertEquals(2, decoder.getValue(0), 0);
+    }
+
+    @Test
+    public void seekPastEnd_returnsFalse() {
+        ArchiveChunkDecoder decoder = new ArchiveChunkDecoder(encode(
+                new long[]{START, START + 600, START + 1200}, new double[][]{{1}, {2}, {3}}));
+
+        assertFalse(decoder.seek(START + 1201));
+        assertFalse(decoder.next());
+    }
+
+    @Test
+    public void emptyChunk_hasNoSamples() {
+        ArchiveChunkDecoder decoder = new ArchiveChunkDecoder(new ArchiveChunkEncoder(2).toByteArray());
+
+        assertEquals(0, decoder.getCount());
+        assertFalse(decoder.next());
+        assertFalse(decoder.seek(0));
+    }
+
+    private static byte[] encode(long[] timestamps, double[][] values) {
+        ArchiveChunkEncoder encoder = new ArchiveChunkEncoder(values[0].length);
+        for (int i = 0; i < timestamps.length; i++) {
+            encoder.add(timestamps[i], values[i]);
+        }
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Encodes the samples, decodes them again and asserts every timestamp and the bits of every
+     * value are the same.
+     *
+     * @return The encoded block
+     */
+    private static byte[] assertRoundTrip(long[] timestamps, double[][] values) {
+        byte[] data = encode(timestamps, values);
+        ArchiveChunkDecoder decoder = new ArchiveChunkDecoder(data);
+        assertEquals(timestamps.length, decoder.getCount());
+        assertEquals(values[0].length, decoder.getColumns());
+        for (int i = 0; i < timestamps.length; i++) {
+            assertTrue("Missing sample " + i, decoder.next());
+            assertEquals("Timestamp of sample " + i, timestamps[i], decoder.getTimestamp());
+            for (int column = 0; column < values[i].length; column++) {
+                assertEquals("Value " + column + " of sample " + i, Double.doubleToRawLongBits(values[i][column]),
+                        Double.doubleToRawLongBits(decoder.getValue(column)));
+            }
+        }
+        assertFalse(decoder.next());
+        return data;
+    }
+}
@@ -0,0 +1,80 @@
+package io.hoogland.weer2track.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * State changes of the {@link CircuitBreaker}, including calls that are still in flight when the
+ * circuit opens.
+ *
+ * @author dan
+ */
+public class CircuitBreakerTest {
+
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+
+    @Test
+    public void failuresInARow_openCircuit() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 60, metrics);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        // The success in between reset the count.
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    public void inFlightCallsFailingAfterOpen_doNotOpenAgain() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 60, metrics);
+        long opened = openedCount();
+        // Four calls are started while the circuit is closed.
+        for (int i = 0; i < 4; i++) {
+            assertTrue(breaker.tryAcquire());
+        }
+
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        breaker.onFailure();
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(opened + 1, openedCount());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    public void failedProbe_opensAgain() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 0, metrics);
+        long opened = openedCount();
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+
+        // The open period has passed, so a single probe is let through.
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(opened + 2, openedCount());
+    }
+
+    private long openedCount() {
+        Long count = metrics.getCounters().get(MetricsRegistry.CIRCUIT_OPENED);
+        return count == null ? 0 : count;
+    }
+}
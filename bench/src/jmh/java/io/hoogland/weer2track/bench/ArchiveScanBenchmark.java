@@ -0,0 +1,176 @@
+package io.hoogland.weer2track.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+
+import io.hoogland.weer2track.model.ArchiveChunk;
+import io.hoogland.weer2track.util.ArchiveChunkDecoder;
+import io.hoogland.weer2track.util.ArchiveChunkEncoder;
+
+/**
+ * Compares the archive of observations stored as a row per sample with the same samples stored as
+ * compressed {@link ArchiveChunk}s of a day, in SQLite with the tables Room creates. Both databases
+ * hold a year of samples at a 10 minute interval, the size of both is printed during setup. The
+ * benchmarks scan the temperatures of a week.
+ *
+ * @author dan
+ */
+@State(Scope.Benchmark)
+public class ArchiveScanBenchmark {
+
+    private static final int LOCATION_ID = 1;
+    private static final long START = 1672527600L;
+    private static final long INTERVAL = 600;
+    private static final int DAYS = 365;
+    private static final long DAY = 86400;
+    private static final long WEEK_FROM = START + 180 * DAY;
+    private static final long WEEK_TO = WEEK_FROM + 7 * DAY;
+
+    private File rowsFile;
+    private File chunksFile;
+    private Connection rows;
+    private Connection chunks;
+    private PreparedStatement rowsQuery;
+    private PreparedStatement chunksQuery;
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        rowsFile = File.createTempFile("rows", ".db");
+        chunksFile = File.createTempFile("chunks", ".db");
+        rows = DriverManager.getConnection("jdbc:sqlite:" + rowsFile.getPath());
+        chunks = DriverManager.getConnection("jdbc:sqlite:" + chunksFile.getPath());
+        try (Statement statement = rows.createStatement()) {
+            statement.execute("CREATE TABLE observation (location_id INTEGER NOT NULL, observed_at INTEGER NOT NULL, "
+                    + "temp REAL NOT NULL, feels_like_temp REAL NOT NULL, description TEXT, icon TEXT, "
+                    + "PRIMARY KEY(location_id, observed_at))");
+            statement.execute("CREATE INDEX index_observation_observed_at ON observation (observed_at)");
+        }
+        try (Statement statement = chunks.createStatement()) {
+            statement.execute("CREATE TABLE archive_chunk (location_id INTEGER NOT NULL, series INTEGER NOT NULL, "
+                    + "start_at INTEGER NOT NULL, end_at INTEGER NOT NULL, count INTEGER NOT NULL, data BLOB NOT NULL, "
+                    + "PRIMARY KEY(location_id, series, start_at))");
+        }
+
+        rows.setAutoCommit(false);
+        chunks.setAutoCommit(false);
+        Random random = new Random(42);
+        double temp = 8;
+        try (PreparedStatement insertRow = rows.prepareStatement("INSERT INTO observation VALUES (?, ?, ?, ?, ?, ?)");
+             PreparedStatement insertChunk = chunks.prepareStatement("INSERT INTO archive_chunk VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int day = 0; day < DAYS; day++) {
+                long dayStart = START + day * DAY;
+                ArchiveChunkEncoder encoder = new ArchiveChunkEncoder(ArchiveChunk.OBSERVATION_COLUMNS);
+                for (long time = dayStart; time < dayStart + DAY; time += INTERVAL) {
+                    // OpenWeatherMap updates the observation every 10 minutes with 2 decimals.
+                    temp += (random.nextDouble() - 0.5) * 0.4 + 0.01 * (12 - temp);
+                    double rounded = Math.round(temp * 100) / 100.0;
+                    double feelsLike = Math.round((temp - 1.5 - random.nextDouble()) * 100) / 100.0;
+                    insertRow.setInt(1, LOCATION_ID);
+                    insertRow.setLong(2, time);
+                    insertRow.setDouble(3, rounded);
+                    insertRow.setDouble(4, feelsLike);
+                    insertRow.setString(5, "licht bewolkt");
+                    insertRow.setString(6, "02d");
+                    insertRow.addBatch();
+                    encoder.add(time, rounded, feelsLike);
+                }
+                ArchiveChunk chunk = new ArchiveChunk(LOCATION_ID, ArchiveChunk.SERIES_OBSERVATION, dayStart, dayStart + DAY, encoder);
+                insertChunk.setInt(1, chunk.getLocationId());
+                insertChunk.setInt(2, chunk.getSeries());
+                insertChunk.setLong(3, chunk.getStartAt());
+                insertChunk.setLong(4, chunk.getEndAt());
+                insertChunk.setInt(5, chunk.getCount());
+                insertChunk.setBytes(6, chunk.getData());
+                insertChunk.addBatch();
+            }
+            insertRow.executeBatch();
+            insertChunk.executeBatch();
+        }
+        rows.commit();
+        chunks.commit();
+        rows.setAutoCommit(true);
+        chunks.setAutoCommit(true);
+
+        long rowsSize = vacuumedSize(rows);
+        long chunksSize = vacuumedSize(chunks);
+        long samples = DAYS * DAY / INTERVAL;
+        System.out.printf("%nrows: %d bytes (%.1f bytes/sample), chunks: %d bytes (%.1f bytes/sample), %.1fx smaller%n",
+                rowsSize, (double) rowsSize / samples, chunksSize, (double) chunksSize / samples, (double) rowsSize / chunksSize);
+
+        rowsQuery = rows.prepareStatement("SELECT observed_at, temp FROM observation WHERE location_id = ? "
+                + "AND observed_at >= ? AND observed_at < ? ORDER BY observed_at");
+        chunksQuery = chunks.prepareStatement("SELECT data FROM archive_chunk WHERE location_id = ? AND series = ? "
+                + "AND start_at < ? AND end_at > ? ORDER BY start_at");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        rows.close();
+        chunks.close();
+        rowsFile.delete();
+        chunksFile.delete();
+    }
+
+    @Benchmark
+    public double scanWeekRows() throws SQLException {
+        double sum = 0;
+        rowsQuery.setInt(1, LOCATION_ID);
+        rowsQuery.setLong(2, WEEK_FROM);
+        rowsQuery.setLong(3, WEEK_TO);
+        try (ResultSet resultSet = rowsQuery.executeQuery()) {
+            while (resultSet.next()) {
+                sum += resultSet.getLong(1) + resultSet.getDouble(2);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double scanWeekChunks() throws SQLException {
+        double sum = 0;
+        chunksQuery.setInt(1, LOCATION_ID);
+        chunksQuery.setInt(2, ArchiveChunk.SERIES_OBSERVATION);
+        chunksQuery.setLong(3, WEEK_TO);
+        chunksQuery.setLong(4, WEEK_FROM);
+        try (ResultSet resultSet = chunksQuery.executeQuery()) {
+            while (resultSet.next()) {
+                ArchiveChunkDecoder decoder = new ArchiveChunkDecoder(resultSet.getBytes(1));
+                if (!decoder.seek(WEEK_FROM)) {
+                    continue;
+                }
+                while (decoder.getTimestamp() < WEEK_TO) {
+                    sum += decoder.getTimestamp() + decoder.getValue(ArchiveChunk.COLUMN_TEMP);
+                    if (!decoder.next()) {
+                        break;
+                    }
+                }
+            }
+        }
+        return sum;
+    }
+
+    private static long vacuumedSize(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("VACUUM");
+            try (ResultSet pages = statement.executeQuery("PRAGMA page_count");
+                 ResultSet pageSize = connection.createStatement().executeQuery("PRAGMA page_size")) {
+                pages.next();
+                pageSize.next();
+                return pages.getLong(1) * pageSize.getLong(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.hoogland.weer2track.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import io.hoogland.weer2track.model.converter.DateConverter;
+
+/**
+ * Benchmarks the Room type converters in {@link DateConverter}, which run for every row that is
+ * read or written.
+ *
+ * @author dan
+ */
+@State(Scope.Benchmark)
+public class DateConverterBenchmark {
+
+    private long epochSecond;
+    private long epochDay;
+    private LocalDateTime dateTime;
+    private LocalDate date;
+
+    @Setup
+    public void setUp() {
+        epochSecond = 1698583017L;
+        dateTime = DateConverter.epochToLocalDateTime(epochSecond);
+        date = dateTime.toLocalDate();
+        epochDay = date.toEpochDay();
+    }
+
+    @Benchmark
+    public LocalDateTime epochToLocalDateTime() {
+        return DateConverter.epochToLocalDateTime(epochSecond);
+    }
+
+    @Benchmark
+    public Long localDateTimeToEpoch() {
+        return DateConverter.localDateTimeToEpoch(dateTime);
+    }
+
+    @Benchmark
+    public LocalDate epochToLocalDate() {
+        return DateConverter.epochToLocalDate(epochDay);
+    }
+
+    @Benchmark
+    public Long localDateToEpochDay() {
+        return DateConverter.localDateToEpochDay(date);
+    }
+}
@@ -0,0 +1,64 @@
+package io.hoogland.weer2track.bench;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import io.hoogland.weer2track.model.DailyForecast;
+import io.hoogland.weer2track.model.response.CurrentWeatherResponse;
+import io.hoogland.weer2track.model.response.ForecastResponse;
+import io.hoogland.weer2track.util.ForecastStreamParser;
+import io.hoogland.weer2track.util.ForecastUtil;
+import io.hoogland.weer2track.util.GsonUtil;
+
+/**
+ * Benchmarks deserialization of recorded OpenWeatherMap responses.
+ *
+ * @author dan
+ */
+@State(Scope.Benchmark)
+public class DeserializationBenchmark {
+
+    private Gson gson;
+    private String weatherJson;
+    private String forecastJson;
+
+    @Setup
+    public void setUp() {
+        gson = GsonUtil.createGson();
+        weatherJson = Payloads.read(Payloads.WEATHER);
+        forecastJson = Payloads.read(Payloads.FORECAST);
+    }
+
+    @Benchmark
+    public CurrentWeatherResponse gsonCurrentWeather() {
+        return gson.fromJson(weatherJson, CurrentWeatherResponse.class);
+    }
+
+    @Benchmark
+    public ForecastResponse gsonForecast() {
+        return gson.fromJson(forecastJson, ForecastResponse.class);
+    }
+
+    /**
+     * Reflection based parse followed by aggregation, the way forecasts were processed before
+     * {@link ForecastStreamParser}.
+     */
+    @Benchmark
+    public List<DailyForecast> gsonForecastToDaily() {
+        return ForecastUtil.forecastResponseToDaily(gson.fromJson(forecastJson, ForecastResponse.class));
+    }
+
+    @Benchmark
+    public List<DailyForecast> streamingForecastToDaily() throws IOException {
+        return ForecastStreamParser.parseDailyForecasts(new JsonReader(new StringReader(forecastJson)));
+    }
+}
@@ -0,0 +1,59 @@
+package io.hoogland.weer2track.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.hoogland.weer2track.model.DailyForecast;
+import io.hoogland.weer2track.model.response.Forecast;
+import io.hoogland.weer2track.model.response.ForecastResponse;
+import io.hoogland.weer2track.util.ForecastUtil;
+import io.hoogland.weer2track.util.GsonUtil;
+
+/**
+ * Benchmarks grouping forecast slots by day and aggregating them into a single
+ * {@link DailyForecast}.
+ *
+ * @author dan
+ */
+@State(Scope.Benchmark)
+public class ForecastAggregationBenchmark {
+
+    private ForecastResponse response;
+    private List<DailyForecast> daySlots;
+
+    @Setup
+    public void setUp() {
+        response = GsonUtil.createGson().fromJson(Payloads.read(Payloads.FORECAST), ForecastResponse.class);
+
+        // Use the day with the most slots for the aggregation constructor.
+        Map<LocalDate, List<DailyForecast>> byDate = new TreeMap<>();
+        for (Forecast forecast : response.getForecasts()) {
+            DailyForecast slot = new DailyForecast(forecast);
+            byDate.computeIfAbsent(slot.getDate(), date -> new ArrayList<>()).add(slot);
+        }
+        daySlots = new ArrayList<>();
+        for (List<DailyForecast> slots : byDate.values()) {
+            if (slots.size() > daySlots.size()) {
+                daySlots = slots;
+            }
+        }
+    }
+
+    @Benchmark
+    public List<DailyForecast> forecastResponseToDaily() {
+        return ForecastUtil.forecastResponseToDaily(response);
+    }
+
+    @Benchmark
+    public DailyForecast aggregateDay() {
+        return new DailyForecast(daySlots);
+    }
+}
@@ -0,0 +1,123 @@
+package io.hoogland.weer2track.bench;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+import io.hoogland.weer2track.model.response.CurrentWeatherResponse;
+import io.hoogland.weer2track.model.response.ForecastResponse;
+import io.hoogland.weer2track.util.GsonUtil;
+
+/**
+ * Compares the generated Stag adapters with the reflection based Gson setup the app used before.
+ * Cold benchmarks parse with a new {@link Gson} instance every time, so they include creating the
+ * adapters for the response models. Warm benchmarks reuse a single instance.
+ *
+ * @author dan
+ */
+public class GsonStartupBenchmark {
+
+    @State(Scope.Thread)
+    public static class Payload {
+        String weatherJson;
+        String forecastJson;
+
+        @Setup
+        public void setUp() {
+            weatherJson = Payloads.read(Payloads.WEATHER);
+            forecastJson = Payloads.read(Payloads.FORECAST);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ColdGson {
+        @Param({"generated", "reflective"})
+        String adapters;
+        Gson gson;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            gson = createGson(adapters);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class WarmGson {
+        @Param({"generated", "reflective"})
+        String adapters;
+        Gson gson;
+
+        @Setup
+        public void setUp() {
+            gson = createGson(adapters);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 20)
+    @Measurement(iterations = 200)
+    @Fork(3)
+    public ForecastResponse coldForecast(ColdGson cold, Payload payload) {
+        return cold.gson.fromJson(payload.forecastJson, ForecastResponse.class);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 20)
+    @Measurement(iterations = 200)
+    @Fork(3)
+    public CurrentWeatherResponse coldCurrentWeather(ColdGson cold, Payload payload) {
+        return cold.gson.fromJson(payload.weatherJson, CurrentWeatherResponse.class);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ForecastResponse warmForecast(WarmGson warm, Payload payload) {
+        return warm.gson.fromJson(payload.forecastJson, ForecastResponse.class);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public CurrentWeatherResponse warmCurrentWeather(WarmGson warm, Payload payload) {
+        return warm.gson.fromJson(payload.weatherJson, CurrentWeatherResponse.class);
+    }
+
+    private static Gson createGson(String adapters) {
+        return "generated".equals(adapters) ? GsonUtil.createGson() : createReflectiveGson();
+    }
+
+    /**
+     * The {@link Gson} setup of the app before the generated adapters: reflection for the response
+     * models and {@link JsonDeserializer}s that go through the JSON tree for dates.
+     */
+    private static Gson createReflectiveGson() {
+        return new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, (JsonDeserializer<LocalDateTime>) (json, typeOfT, context) -> LocalDateTime.ofInstant(Instant.ofEpochSecond(json.getAsJsonPrimitive().getAsLong()), ZoneId.systemDefault()))
+                .registerTypeAdapter(LocalDate.class, (JsonDeserializer<LocalDate>) (json, typeOfT, context) -> Instant.ofEpochSecond(json.getAsJsonPrimitive().getAsLong()).atZone(ZoneId.systemDefault()).toLocalDate())
+                .create();
+    }
+}
@@ -0,0 +1,51 @@
+package io.hoogland.weer2track.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Loads the recorded OpenWeatherMap responses bundled with the benchmarks.
+ *
+ * @author dan
+ */
+final class Payloads {
+
+    /**
+     * Recorded response of the current weather API.
+     */
+    static final String WEATHER = "payloads/weather.json";
+
+    /**
+     * Recorded response of the 5 day forecast API, containing 40 3-hour slots.
+     */
+    static final String FORECAST = "payloads/forecast.json";
+
+    private Payloads() {
+    }
+
+    /**
+     * Reads a recorded response from the classpath.
+     *
+     * @param name Resource name of the payload
+     * @return The payload as String
+     */
+    static String read(String name) {
+        try (InputStream in = Payloads.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing payload " + name);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}